@@ -0,0 +1,76 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the addition and the access to the coefficients of the polynomial variants based on
+ * arrays, on all the sizes.
+ */
+public class ArrayPolyAddBenchmark extends PolyBenchmark {
+
+  /** The variant. */
+  @Param({"S09_POLY", "H10_POLY", "H11_POLY", "H11_SPARSE_POLY"})
+  public Variant variant;
+
+  /** The number of terms of the operands. */
+  @Param({"16", "256", "4096"})
+  public int terms;
+
+  /** Builds the benchmark (the state is initialized by {@link #setup()}). */
+  public ArrayPolyAddBenchmark() {}
+
+  @Override
+  protected Variant variant() {
+    return variant;
+  }
+
+  @Override
+  protected int terms() {
+    return terms;
+  }
+
+  /**
+   * Benchmarks the addition.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public Object add() {
+    return variant.add(p, q);
+  }
+
+  /**
+   * Benchmarks the access to the coefficients, reading {@value PolyBenchmark#PROBES}
+   * coefficients (half of which are present).
+   *
+   * @return the sum of the read coefficients.
+   */
+  @Benchmark
+  public int coeff() {
+    int sum = 0;
+    for (int d : probe) sum += variant.coeff(p, d);
+    return sum;
+  }
+}
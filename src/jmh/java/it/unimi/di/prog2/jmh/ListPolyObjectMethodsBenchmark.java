@@ -0,0 +1,52 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Benchmarks the methods of {@link Object} of the sparse polynomial variant of {@code h10}, based
+ * on lists, whose polynomials can't be built in reasonable time with more than 256 terms.
+ */
+public class ListPolyObjectMethodsBenchmark extends PolyObjectMethodsBenchmark {
+
+  /** The variant. */
+  @Param({"H10_SPARSE_POLY"})
+  public Variant variant;
+
+  /** The number of terms of the polynomial. */
+  @Param({"16", "256"})
+  public int terms;
+
+  /** Builds the benchmark (the state is initialized by {@link #setup()}). */
+  public ListPolyObjectMethodsBenchmark() {}
+
+  @Override
+  protected Variant variant() {
+    return variant;
+  }
+
+  @Override
+  protected int terms() {
+    return terms;
+  }
+}
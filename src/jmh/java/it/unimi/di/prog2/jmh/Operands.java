@@ -0,0 +1,63 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random terms used to build the operands of the benchmarks.
+ *
+ * <p>The terms are generated by a seeded generator, so that all the variants (and all the runs)
+ * use the same operands.
+ */
+class Operands {
+
+  /** . */
+  private Operands() {}
+
+  /**
+   * Generates random terms.
+   *
+   * <p>The degrees are chosen among \( [0, 2t) \) for dense polynomials and among \( [0, 64t) \)
+   * for sparse ones, where \( t \) is the number of terms; with the {@code "skewed"} distribution
+   * they are the cube of a uniform value, so that most terms have low degree. The coefficients
+   * are uniform among the non-zero values in \( [-100, 100] \).
+   *
+   * @param terms the number of terms.
+   * @param density {@code "dense"} or {@code "sparse"}.
+   * @param distribution {@code "uniform"} or {@code "skewed"}.
+   * @param seed the seed.
+   * @return an array containing the coefficients and the degrees of the terms.
+   */
+  static int[][] terms(int terms, String density, String distribution, long seed) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final int range = density.equals("dense") ? 2 * terms : 64 * terms;
+    final int[] coefficient = new int[terms], degree = new int[terms];
+    for (int i = 0; i < terms; i++) {
+      do coefficient[i] = random.nextInt(-100, 101);
+      while (coefficient[i] == 0);
+      final double u = random.nextDouble();
+      degree[i] = (int) (range * (distribution.equals("skewed") ? u * u * u : u));
+    }
+    return new int[][] {coefficient, degree};
+  }
+}
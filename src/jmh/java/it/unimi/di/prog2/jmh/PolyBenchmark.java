@@ -0,0 +1,101 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The operands of the benchmarks of the arithmetic operations of the polynomial variants.
+ *
+ * <p>The subclasses declare the variants and the numbers of terms (as JMH parameters) and the
+ * operations to benchmark, so that the combinations too slow for some variants are not listed at
+ * all (see {@link Variant}). Every combination of variant, number of terms, density and degree
+ * distribution is a separate row of the JMH results, so that the variants can be compared on the
+ * same operands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class PolyBenchmark {
+
+  /** The number of coefficients read by the benchmarks of the coefficients. */
+  static final int PROBES = 64;
+
+  /** The density of the operands, {@code "dense"} or {@code "sparse"}. */
+  @Param({"dense", "sparse"})
+  public String density;
+
+  /** The distribution of the degrees, {@code "uniform"} or {@code "skewed"}. */
+  @Param({"uniform", "skewed"})
+  public String distribution;
+
+  /** The first operand. */
+  Object p;
+
+  /** The second operand. */
+  Object q;
+
+  /** The degrees of the coefficients to read, half of which are present in {@link #p}. */
+  int[] probe;
+
+  /** Builds the benchmark (the state is initialized by {@link #setup()}). */
+  protected PolyBenchmark() {}
+
+  /**
+   * Returns the variant under benchmark.
+   *
+   * @return the variant.
+   */
+  protected abstract Variant variant();
+
+  /**
+   * Returns the number of terms of the operands.
+   *
+   * @return the number of terms.
+   */
+  protected abstract int terms();
+
+  /** Builds the operands. */
+  @Setup
+  public void setup() {
+    final int terms = terms();
+    final int[][] a = Operands.terms(terms, density, distribution, 1);
+    final int[][] b = Operands.terms(terms, density, distribution, 2);
+    p = variant().of(a[0], a[1]);
+    q = variant().of(b[0], b[1]);
+    probe = new int[PROBES];
+    for (int i = 0; i < PROBES; i++) probe[i] = a[1][i % terms] + i % 2;
+  }
+}
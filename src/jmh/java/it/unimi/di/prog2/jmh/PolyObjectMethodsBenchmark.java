@@ -0,0 +1,119 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Object#equals(Object)}, {@link Object#hashCode()} and {@link
+ * Object#toString()} of the polynomial variants that override them (that is, the ones of {@code
+ * h10} and {@code h11}).
+ *
+ * <p>Observe that the {@code h11} polynomials cache their hash code, so that {@link #hash()}
+ * measures the cost of reading the cache. The subclasses declare the variants and the numbers of
+ * terms (as JMH parameters), so that the sizes too large for some variants are not listed at all
+ * (see {@link Variant}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class PolyObjectMethodsBenchmark {
+
+  /** The density of the polynomial, {@code "dense"} or {@code "sparse"}. */
+  @Param({"dense", "sparse"})
+  public String density;
+
+  /** The polynomial. */
+  private Object p;
+
+  /** A polynomial equal to (but not the same as) {@link #p}. */
+  private Object q;
+
+  /** Builds the benchmark (the state is initialized by {@link #setup()}). */
+  protected PolyObjectMethodsBenchmark() {}
+
+  /**
+   * Returns the variant under benchmark.
+   *
+   * @return the variant.
+   */
+  protected abstract Variant variant();
+
+  /**
+   * Returns the number of terms of the polynomial.
+   *
+   * @return the number of terms.
+   */
+  protected abstract int terms();
+
+  /** Builds the polynomials. */
+  @Setup
+  public void setup() {
+    final int[][] a = Operands.terms(terms(), density, "uniform", 1);
+    p = variant().of(a[0], a[1]);
+    q = variant().of(a[0], a[1]);
+  }
+
+  /**
+   * Benchmarks the comparison of two equal polynomials.
+   *
+   * @return whether the polynomials are equal.
+   */
+  @Benchmark
+  public boolean equality() {
+    return p.equals(q);
+  }
+
+  /**
+   * Benchmarks the hash code.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hash() {
+    return p.hashCode();
+  }
+
+  /**
+   * Benchmarks the conversion to string.
+   *
+   * @return the string.
+   */
+  @Benchmark
+  public String string() {
+    return p.toString();
+  }
+}
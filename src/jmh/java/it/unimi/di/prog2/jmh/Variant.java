@@ -0,0 +1,226 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.jmh;
+
+/**
+ * The polynomial implementations under benchmark, with an adapter to their (common) operations.
+ *
+ * <p>The operands are handled as {@link Object}s, since the implementations have no common
+ * supertype; as every value of a JMH parameter is run in a separate fork, the call sites of the
+ * adapter stay monomorphic and the cast costs nothing. The classes of {@code e09} and {@code h09}
+ * are not included, since they are exercise skeletons whose methods are (partly) not implemented.
+ *
+ * <p>The variants do not scale in the same way: the list based sparse polynomials of the early
+ * lessons take cubic time to insert a term, and the dense ones before {@code h11} take time
+ * quadratic in the degree to multiply, so that the largest sizes would take hours. For this
+ * reason the benchmarks are split in classes whose parameters list, for every group of variants,
+ * just the sizes that can be measured in reasonable time.
+ */
+public enum Variant {
+
+  /** The dense polynomials of {@code s09}. */
+  S09_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.s09.Poly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.s09.Poly) p).add((it.unimi.di.prog2.s09.Poly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.s09.Poly) p).mul((it.unimi.di.prog2.s09.Poly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.s09.Poly) p).coeff(d);
+    }
+  },
+
+  /** The sparse polynomials of {@code s09}. */
+  S09_SPARSE_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.s09.SparsePoly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.s09.SparsePoly) p).add((it.unimi.di.prog2.s09.SparsePoly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.s09.SparsePoly) p).mul((it.unimi.di.prog2.s09.SparsePoly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.s09.SparsePoly) p).coeff(d);
+    }
+  },
+
+  /** The dense polynomials of {@code h10}. */
+  H10_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.h10.Poly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.h10.Poly) p).add((it.unimi.di.prog2.h10.Poly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.h10.Poly) p).mul((it.unimi.di.prog2.h10.Poly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.h10.Poly) p).coeff(d);
+    }
+  },
+
+  /** The sparse polynomials of {@code h10}. */
+  H10_SPARSE_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.h10.SparsePoly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.h10.SparsePoly) p).add((it.unimi.di.prog2.h10.SparsePoly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.h10.SparsePoly) p).mul((it.unimi.di.prog2.h10.SparsePoly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.h10.SparsePoly) p).coeff(d);
+    }
+  },
+
+  /** The dense polynomials of {@code h11}. */
+  H11_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.h11.Poly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.h11.Poly) p).add((it.unimi.di.prog2.h11.Poly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.h11.Poly) p).mul((it.unimi.di.prog2.h11.Poly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.h11.Poly) p).coeff(d);
+    }
+  },
+
+  /** The sparse polynomials of {@code h11}. */
+  H11_SPARSE_POLY {
+    @Override
+    Object monomial(int c, int n) {
+      return new it.unimi.di.prog2.h11.SparsePoly(c, n);
+    }
+
+    @Override
+    Object add(Object p, Object q) {
+      return ((it.unimi.di.prog2.h11.SparsePoly) p).add((it.unimi.di.prog2.h11.SparsePoly) q);
+    }
+
+    @Override
+    Object mul(Object p, Object q) {
+      return ((it.unimi.di.prog2.h11.SparsePoly) p).mul((it.unimi.di.prog2.h11.SparsePoly) q);
+    }
+
+    @Override
+    int coeff(Object p, int d) {
+      return ((it.unimi.di.prog2.h11.SparsePoly) p).coeff(d);
+    }
+  };
+
+  /**
+   * Returns the polynomial \( c x^n \).
+   *
+   * @param c the coefficient.
+   * @param n the degree.
+   * @return the monomial.
+   */
+  abstract Object monomial(int c, int n);
+
+  /**
+   * Returns the sum of two polynomials.
+   *
+   * @param p the first polynomial.
+   * @param q the second polynomial.
+   * @return the sum.
+   */
+  abstract Object add(Object p, Object q);
+
+  /**
+   * Returns the product of two polynomials.
+   *
+   * @param p the first polynomial.
+   * @param q the second polynomial.
+   * @return the product.
+   */
+  abstract Object mul(Object p, Object q);
+
+  /**
+   * Returns a coefficient of a polynomial.
+   *
+   * @param p the polynomial.
+   * @param d the exponent of the term to consider.
+   * @return the coefficient.
+   */
+  abstract int coeff(Object p, int d);
+
+  /**
+   * Builds a polynomial summing a sequence of monomials.
+   *
+   * @param coefficient the coefficients of the monomials.
+   * @param degree the degrees of the monomials.
+   * @return the polynomial.
+   */
+  Object of(int[] coefficient, int[] degree) {
+    Object p = monomial(0, 0);
+    for (int i = 0; i < coefficient.length; i++) p = add(p, monomial(coefficient[i], degree[i]));
+    return p;
+  }
+}
@@ -0,0 +1,264 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.util.Objects;
+
+/**
+ * {@code AdaptivePoly}s are immutable polynomials with integer coefficients that choose their
+ * representation according to their fill ratio.
+ *
+ * <p>A typical {@code AdaptivePoly} is \( p = c_0 + c_1 x + c_2 x^2 + \cdots + c_n x^n \).
+ *
+ * <p>An {@code AdaptivePoly} delegates to a (dense) {@link Poly} if at least one coefficient every
+ * {@value #SPARSITY} is non-zero, and to a {@link SparsePoly} otherwise; the representation is
+ * chosen again after each operation, so that polynomials that start sparse and get denser (as
+ * usually happens with repeated multiplications) switch to the dense representation, and
+ * vice versa.
+ */
+public class AdaptivePoly {
+
+  /**
+   * The largest ratio between the number of coefficients (that is, the degree plus one) and the
+   * number of non-zero terms for which the dense representation is used.
+   */
+  public static final int SPARSITY = 4;
+
+  /** The dense representation, or {@code null}. */
+  private final Poly dense;
+
+  /** The sparse representation, or {@code null}. */
+  private final SparsePoly sparse;
+
+  /*-
+   * AF:
+   *
+   *  AF(dense, sparse) = dense if dense != null, sparse otherwise.
+   *
+   * RI:
+   *
+   *  - exactly one among dense and sparse is null,
+   *  - dense != null iff degree + 1 <= SPARSITY * number of non-zero terms.
+   *
+   * Observe that, since the representation depends only on the polynomial, equal polynomials
+   * always have the same representation.
+   */
+
+  /** Initializes this to be the zero polynomial, that is \( p = 0 \). */
+  public AdaptivePoly() {
+    this(new SparsePoly());
+  }
+
+  /**
+   * Initializes this to be the polynomial \(p = cx^n\).
+   *
+   * @param c the coefficient.
+   * @param n the degree.
+   * @throws NegativeExponentException if {@code c} is not zero and {@code n} &lt; 0.
+   */
+  public AdaptivePoly(int c, int n) throws NegativeExponentException {
+    this(new SparsePoly(c, n));
+  }
+
+  /**
+   * Initializes this to be the polynomial equal to a given {@link Poly}.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public AdaptivePoly(Poly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    if (isDense(p.degree(), p.termCount())) {
+      dense = p;
+      sparse = null;
+    } else {
+      dense = null;
+      sparse = p.toSparsePoly();
+    }
+  }
+
+  /**
+   * Initializes this to be the polynomial equal to a given {@link SparsePoly}.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public AdaptivePoly(SparsePoly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    if (isDense(p.degree(), p.termCount())) {
+      dense = p.toPoly();
+      sparse = null;
+    } else {
+      dense = null;
+      sparse = p;
+    }
+  }
+
+  /**
+   * Tells whether a polynomial with the given degree and number of terms should be dense.
+   *
+   * @param degree the degree.
+   * @param terms the number of non-zero terms.
+   * @return whether the dense representation should be used.
+   */
+  private static boolean isDense(int degree, int terms) {
+    return degree + 1L <= (long) SPARSITY * terms;
+  }
+
+  /**
+   * Tells whether this polynomial is currently represented as a (dense) {@link Poly}.
+   *
+   * @return {@code true} if the representation is dense, {@code false} if it is sparse.
+   */
+  public boolean isDense() {
+    return dense != null;
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero {@code
+   *     AdaptivePoly}.
+   */
+  public int degree() {
+    return dense != null ? dense.degree() : sparse.degree();
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   */
+  public int coeff(int d) {
+    return dense != null ? dense.coeff(d) : sparse.coeff(d);
+  }
+
+  /**
+   * Returns the number of non-zero terms of this polynomial.
+   *
+   * @return the number of non-zero coefficients.
+   */
+  public int termCount() {
+    return dense != null ? dense.termCount() : sparse.termCount();
+  }
+
+  /**
+   * Converts this polynomial to a (dense) {@link Poly}.
+   *
+   * @return the dense polynomial with the same coefficients.
+   */
+  public Poly toPoly() {
+    return dense != null ? dense : sparse.toPoly();
+  }
+
+  /**
+   * Converts this polynomial to a {@link SparsePoly}.
+   *
+   * @return the sparse polynomial with the same coefficients.
+   */
+  public SparsePoly toSparsePoly() {
+    return sparse != null ? sparse : dense.toSparsePoly();
+  }
+
+  /**
+   * Performs polynomial addition.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p + q \). If the operands have different
+   * representations, the dense one is converted to sparse.
+   *
+   * @param q the polynomial to add to this one.
+   * @return the sum among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public AdaptivePoly add(AdaptivePoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (dense != null && q.dense != null) return new AdaptivePoly(dense.add(q.dense));
+    return new AdaptivePoly(toSparsePoly().add(q.toSparsePoly()));
+  }
+
+  /**
+   * Performs polynomial subtraction.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p - q \). If the operands have different
+   * representations, the dense one is converted to sparse.
+   *
+   * @param q the polynomial to subtract from this one.
+   * @return the subtraction among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public AdaptivePoly sub(AdaptivePoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (dense != null && q.dense != null) return new AdaptivePoly(dense.sub(q.dense));
+    return new AdaptivePoly(toSparsePoly().sub(q.toSparsePoly()));
+  }
+
+  /**
+   * Performs polynomial multiplication.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \). The product is computed with the dense
+   * algorithms of {@link Poly#mul(Poly)} if it is expected to be dense, that is, if its number of
+   * coefficients does not exceed the number of partial products, and with the sparse one of {@link
+   * SparsePoly#mul(SparsePoly)} otherwise.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public AdaptivePoly mul(AdaptivePoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final long len = (long) degree() + q.degree() + 1;
+    if (len <= (long) termCount() * q.termCount())
+      return new AdaptivePoly(toPoly().mul(q.toPoly()));
+    return new AdaptivePoly(toSparsePoly().mul(q.toSparsePoly()));
+  }
+
+  /**
+   * Returns the negate polynomial.
+   *
+   * <p>If \( p \) is this polynomial, returns \( -p \).
+   *
+   * @return this polynomial multiplied by \( -1 \).
+   */
+  public AdaptivePoly minus() {
+    return dense != null ? new AdaptivePoly(dense.minus()) : new AdaptivePoly(sparse.minus());
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof AdaptivePoly other)) return false;
+    return Objects.equals(dense, other.dense) && Objects.equals(sparse, other.sparse);
+  }
+
+  @Override
+  public int hashCode() {
+    return dense != null ? dense.hashCode() : sparse.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    final String s = dense != null ? dense.toString() : sparse.toString();
+    return "AdaptivePoly" + s.substring(s.indexOf(':'));
+  }
+}
@@ -0,0 +1,60 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.math.BigInteger;
+
+/**
+ * The width of the coefficients of the result of a polynomial operation, see {@link Poly#mul(Poly,
+ * CoefficientWidth)} and {@link SparsePoly#mul(SparsePoly, CoefficientWidth)}.
+ *
+ * <p>The constants are listed in increasing width order.
+ */
+public enum CoefficientWidth {
+
+  /** {@code int} coefficients, silently wrapping around on overflow (as {@link Poly#mul(Poly)}). */
+  INT,
+
+  /** {@code int} coefficients, an {@link ArithmeticException} is thrown on overflow. */
+  CHECKED_INT,
+
+  /** {@code long} coefficients, an {@link ArithmeticException} is thrown on overflow. */
+  LONG,
+
+  /** Arbitrary precision coefficients, promoted to {@link BigInteger} only when needed. */
+  BIG_INTEGER;
+
+  /**
+   * Checks that the coefficients of a polynomial fit this width.
+   *
+   * @param p the polynomial.
+   * @return the polynomial {@code p}.
+   * @throws ArithmeticException if this is {@link #CHECKED_INT} (or {@link #LONG}) and some
+   *     coefficient of {@code p} does not fit in an {@code int} (or {@code long}).
+   */
+  WidePoly check(WidePoly p) throws ArithmeticException {
+    final CoefficientWidth w = p.width();
+    if (this == CHECKED_INT && w != INT || this == LONG && w == BIG_INTEGER)
+      throw new ArithmeticException("The coefficients overflow the " + this + " width.");
+    return p;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Objects;
+
+/**
+ * The result of a polynomial division, that is a quotient \( q \) and a remainder \( r \) such that
+ * \( a = q b + r \) and the degree of \( r \) is less than the one of \( b \) (or \( r = 0 \)).
+ *
+ * @param <T> the type of the polynomials.
+ * @param quotient the quotient.
+ * @param remainder the remainder.
+ */
+public record DivRem<T>(T quotient, T remainder) {
+
+  /**
+   * Builds a division result.
+   *
+   * @param quotient the quotient.
+   * @param remainder the remainder.
+   * @throws NullPointerException if {@code quotient} or {@code remainder} is {@code null}.
+   */
+  public DivRem {
+    Objects.requireNonNull(quotient, "The quotient must not be null.");
+    Objects.requireNonNull(remainder, "The remainder must not be null.");
+  }
+}
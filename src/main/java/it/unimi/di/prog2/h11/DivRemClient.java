@@ -0,0 +1,96 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+/** A class to test the division of {@link Poly}, {@link SparsePoly} and {@link RationalPoly}. */
+public class DivRemClient {
+
+  /** . */
+  private DivRemClient() {}
+
+  /**
+   * Tests the division and the greatest common divisor of polynomials.
+   *
+   * <p>This method reads from standard input a modulus \( m \), followed by two polynomials \( a
+   * \) and \( b \) given as lists of (coefficient, degree) pairs separated by a {@code /}. If \( m
+   * = 0 \) it emits in the standard output the quotient and the remainder of the division of \( a
+   * \) by \( b \) and their greatest common divisor over the rationals, as computed by {@link
+   * Poly} and by {@link SparsePoly}, followed by whether \( a = q b + r \) holds in {@link
+   * RationalPoly}; otherwise, it emits the same quotients, remainders and greatest common divisors
+   * modulo \( m \). The result {@code none} is emitted if an operation throws an exception.
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final int m;
+    final PolyBuilder a = new PolyBuilder(), b = new PolyBuilder();
+    try (Scanner s = new Scanner(System.in)) {
+      m = s.nextInt();
+      while (s.hasNextInt()) a.add(s.nextInt(), s.nextInt());
+      if (s.hasNext()) s.next(); // the separator
+      while (s.hasNextInt()) b.add(s.nextInt(), s.nextInt());
+    }
+    final Poly p = a.toPoly(), q = b.toPoly();
+    final SparsePoly sp = a.toSparsePoly(), sq = b.toSparsePoly();
+    if (m == 0) {
+      print("a / b", () -> p.divRem(q).quotient());
+      print("a % b", () -> p.mod(q));
+      print("gcd(a, b)", () -> p.gcd(q));
+      print("sparse a / b", () -> sp.divRem(sq).quotient());
+      print("sparse a % b", () -> sp.mod(sq));
+      print("sparse gcd(a, b)", () -> sp.gcd(sq));
+      print(
+          "a == (a / b) * b + a % b",
+          () -> {
+            final RationalPoly ra = new RationalPoly(p), rb = new RationalPoly(q);
+            final DivRem<RationalPoly> qr = ra.divRem(rb);
+            return ra.equals(qr.quotient().mul(rb).add(qr.remainder()));
+          });
+    } else {
+      print("a / b", () -> p.divRem(q, m).quotient());
+      print("a % b", () -> p.mod(q, m));
+      print("gcd(a, b)", () -> p.gcd(q, m));
+      print("sparse a / b", () -> sp.divRem(sq, m).quotient());
+      print("sparse a % b", () -> sp.mod(sq, m));
+      print("sparse gcd(a, b)", () -> sp.gcd(sq, m));
+    }
+  }
+
+  /**
+   * Emits the result of an operation in the standard output.
+   *
+   * @param name the name of the operation.
+   * @param operation the operation.
+   */
+  private static void print(String name, Supplier<Object> operation) {
+    String result;
+    try {
+      result = operation.get().toString();
+    } catch (ArithmeticException | IllegalArgumentException e) {
+      result = "none";
+    }
+    System.out.println(name + ": " + result);
+  }
+}
@@ -0,0 +1,73 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * A weak canonical table of immutable objects, used to implement the {@code intern} methods of
+ * the polynomials.
+ *
+ * <p>The table associates to every object its canonical instance, that is, the first equal object
+ * that has been interned; the canonical instances are weakly referenced, so that they are removed
+ * from the table once they are no longer used elsewhere. Instances are thread safe.
+ *
+ * @param <T> the type of the interned objects, that must be immutable and correctly implement
+ *     {@link Object#equals(Object)} and {@link Object#hashCode()}.
+ */
+class Interner<T> {
+
+  /** The table mapping every canonical instance to a weak reference to itself. */
+  private final Map<T, WeakReference<T>> table = new WeakHashMap<>();
+
+  /** Builds an empty table. */
+  Interner() {}
+
+  /**
+   * Returns the canonical instance equal to the given object.
+   *
+   * @param t the object.
+   * @return the canonical instance equal to {@code t}, that is {@code t} itself if no equal object
+   *     is currently interned.
+   * @throws NullPointerException if {@code t} is {@code null}.
+   */
+  synchronized T intern(T t) throws NullPointerException {
+    Objects.requireNonNull(t, "The object to intern must not be null.");
+    final WeakReference<T> ref = table.get(t);
+    final T canonical = ref != null ? ref.get() : null;
+    if (canonical != null) return canonical;
+    table.put(t, new WeakReference<>(t));
+    return t;
+  }
+
+  /**
+   * Returns the number of canonical instances currently in the table.
+   *
+   * @return the number of interned objects that have not been reclaimed yet.
+   */
+  synchronized int size() {
+    return table.size();
+  }
+}
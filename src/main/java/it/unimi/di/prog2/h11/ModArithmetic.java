@@ -0,0 +1,400 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A collection of methods for modular arithmetic on {@code long}s and on polynomials over \(
+ * \mathbb{Z}_p \).
+ *
+ * <p>The methods whose name does not end in {@code Mod} work modulo \( 2^{64} \), that is with the
+ * usual (wrapping) {@code long} arithmetic.
+ *
+ * <p>Polynomials over \( \mathbb{Z}_p \) (for a prime \( p &lt; 2^{31} \)) are represented as
+ * arrays of coefficients in \( [0, p) \), where the element of index \( i \) is the coefficient of
+ * \( x^i \); such arrays are always <em>trimmed</em>, that is their last element is not zero, so
+ * that the zero polynomial is represented by the empty array. For odd primes, the inner loops
+ * reduce the products with {@link Montgomery} arithmetic, instead of dividing by \( p \).
+ */
+class ModArithmetic {
+
+  /** The length of the quotient below which long division is used instead of Newton's method. */
+  private static final int NEWTON_THRESHOLD = 64;
+
+  /** The empty array, representing the zero polynomial. */
+  static final int[] ZERO = new int[0];
+
+  /**
+   * The least \( n \) such that \( 2^{32} \) divides \( n! \), hence every product of \( n \)
+   * consecutive integers; from such order on, the derivatives of polynomials with {@code int}
+   * coefficients are zero.
+   */
+  static final int INT_VANISHING_FACTORIAL = 34;
+
+  /** . */
+  private ModArithmetic() {}
+
+  /**
+   * Reduces a value modulo a positive modulus.
+   *
+   * @param a the value.
+   * @param m the modulus, must be positive.
+   * @return the value \( a \bmod m \) in \( [0, m) \).
+   */
+  static long reduce(long a, long m) {
+    return Math.floorMod(a, m);
+  }
+
+  /**
+   * Computes a modular product without overflow.
+   *
+   * <p>If both factors are less than \( 2^{31} \) the product is computed directly, otherwise the
+   * (slower) double-and-add method is used.
+   *
+   * @param a the first factor, in \( [0, m) \).
+   * @param b the second factor, in \( [0, m) \).
+   * @param m the modulus, must be positive.
+   * @return the value \( a b \bmod m \).
+   */
+  static long mulMod(long a, long b, long m) {
+    if (((a | b) >>> 31) == 0) return a * b % m;
+    long r = 0;
+    while (b > 0) {
+      if ((b & 1) != 0) {
+        r += a; // if it wraps around, r - m is the correct (non negative) value
+        if (r < 0 || r >= m) r -= m;
+      }
+      a += a;
+      if (a < 0 || a >= m) a -= m;
+      b >>= 1;
+    }
+    return r;
+  }
+
+  /**
+   * Computes a modular power by repeated squaring.
+   *
+   * @param b the base, in \( [0, m) \).
+   * @param e the exponent, must be non negative.
+   * @param m the modulus, must be positive.
+   * @return the value \( b^e \bmod m \).
+   */
+  static long powMod(long b, long e, long m) {
+    long r = 1 % m;
+    while (e > 0) {
+      if ((e & 1) != 0) r = mulMod(r, b, m);
+      b = mulMod(b, b, m);
+      e >>= 1;
+    }
+    return r;
+  }
+
+  /**
+   * Computes a power by repeated squaring modulo \( 2^{64} \).
+   *
+   * @param b the base.
+   * @param e the exponent, must be non negative.
+   * @return the value \( b^e \) computed with {@code long} arithmetic.
+   */
+  static long pow(long b, long e) {
+    long r = 1;
+    while (e > 0) {
+      if ((e & 1) != 0) r *= b;
+      b *= b;
+      e >>= 1;
+    }
+    return r;
+  }
+
+  /**
+   * Computes a falling factorial modulo \( 2^{64} \).
+   *
+   * @param i the first factor.
+   * @param n the number of factors, must be non negative.
+   * @return the value \( i (i - 1) \cdots (i - n + 1) \) computed with {@code long} arithmetic.
+   */
+  static long fallingFactorial(long i, int n) {
+    long r = 1;
+    for (int k = 0; k < n; k++) r *= i - k;
+    return r;
+  }
+
+  /**
+   * Checks that a modulus is a prime less than \( 2^{31} \).
+   *
+   * @param p the modulus.
+   * @throws IllegalArgumentException if {@code p} is not a prime.
+   */
+  static void requirePrime(int p) throws IllegalArgumentException {
+    if (p < 2 || !BigInteger.valueOf(p).isProbablePrime(50))
+      throw new IllegalArgumentException("The modulus must be a prime.");
+  }
+
+  /**
+   * Computes a modular inverse.
+   *
+   * @param a the value to invert, in \( (0, p) \).
+   * @param p the modulus, must be prime.
+   * @return the value \( a^{-1} \bmod p \).
+   */
+  static long inverseMod(long a, long p) {
+    return powMod(a, p - 2, p);
+  }
+
+  /**
+   * Returns the trimmed version of a polynomial over \( \mathbb{Z}_p \).
+   *
+   * @param a the coefficients, possibly with trailing zeros.
+   * @param len the number of coefficients of {@code a} to consider.
+   * @return the first {@code len} coefficients of {@code a} without the trailing zeros (possibly
+   *     {@code a} itself).
+   */
+  static int[] trim(int[] a, int len) {
+    while (len > 0 && a[len - 1] == 0) len--;
+    if (len == 0) return ZERO;
+    return len == a.length ? a : Arrays.copyOf(a, len);
+  }
+
+  /**
+   * Returns the coefficients of an integer polynomial reduced modulo a prime.
+   *
+   * @param coefficient the (possibly negative) integer coefficients.
+   * @param p the prime.
+   * @return the trimmed array of the coefficients modulo {@code p}.
+   */
+  static int[] reduce(int[] coefficient, int p) {
+    final int[] r = new int[coefficient.length];
+    for (int i = 0; i < r.length; i++) r[i] = Math.floorMod(coefficient[i], p);
+    return trim(r, r.length);
+  }
+
+  /**
+   * Adds two polynomials over \( \mathbb{Z}_p \).
+   *
+   * @param a the first polynomial.
+   * @param b the second polynomial.
+   * @param p the prime.
+   * @return the polynomial \( a + b \).
+   */
+  static int[] add(int[] a, int[] b, int p) {
+    final int[] r = Arrays.copyOf(a, Math.max(a.length, b.length));
+    for (int i = 0; i < b.length; i++) {
+      final int s = r[i] + b[i] - p; // does not overflow, since p < 2^31
+      r[i] = s < 0 ? s + p : s;
+    }
+    return trim(r, r.length);
+  }
+
+  /**
+   * Subtracts two polynomials over \( \mathbb{Z}_p \).
+   *
+   * @param a the first polynomial.
+   * @param b the second polynomial.
+   * @param p the prime.
+   * @return the polynomial \( a - b \).
+   */
+  static int[] sub(int[] a, int[] b, int p) {
+    final int[] r = Arrays.copyOf(a, Math.max(a.length, b.length));
+    for (int i = 0; i < b.length; i++) {
+      final int s = r[i] - b[i];
+      r[i] = s < 0 ? s + p : s;
+    }
+    return trim(r, r.length);
+  }
+
+  /**
+   * Multiplies two polynomials over \( \mathbb{Z}_p \).
+   *
+   * <p>The product is computed by {@link PolyMultiplier#DEFAULT}, hence with the NTT for long
+   * operands.
+   *
+   * @param a the first polynomial.
+   * @param b the second polynomial.
+   * @param p the prime.
+   * @return the polynomial \( a b \).
+   */
+  static int[] mul(int[] a, int[] b, int p) {
+    if (a.length == 0 || b.length == 0) return ZERO;
+    final int[] r = PolyMultiplier.DEFAULT.multiplyMod(a, b, p);
+    return trim(r, r.length);
+  }
+
+  /**
+   * Computes the inverse of a power series over \( \mathbb{Z}_p \) with Newton's method.
+   *
+   * <p>Starting from \( g_1 = f_0^{-1} \), the iteration \( g_{2k} = g_k (2 - f g_k) \bmod x^{2k}
+   * \) doubles the number of correct coefficients at every step, so the time is a constant
+   * multiple of the time of multiplying two polynomials of degree {@code n}.
+   *
+   * @param f the polynomial, with {@code f[0]} different from zero.
+   * @param n the precision, must be positive.
+   * @param p the prime.
+   * @return the polynomial \( g \) of degree less than {@code n} such that \( f g \equiv 1
+   *     \pmod{x^n} \).
+   */
+  static int[] inverse(int[] f, int n, int p) {
+    int[] g = {(int) inverseMod(f[0], p)};
+    for (int k = 1; k < n; ) {
+      k = Math.min(2 * k, n);
+      final int[] fg = mul(trim(f, Math.min(f.length, k)), g, p);
+      final int[] e = new int[k]; // e = 2 - f g mod x^k
+      for (int i = 0; i < Math.min(k, fg.length); i++) e[i] = fg[i] == 0 ? 0 : p - fg[i];
+      e[0] = (int) ((e[0] + 2L) % p);
+      final int[] gk = mul(g, trim(e, k), p);
+      g = trim(gk, Math.min(k, gk.length));
+    }
+    return g;
+  }
+
+  /**
+   * Computes the inverse of the reverse of a polynomial over \( \mathbb{Z}_p \).
+   *
+   * <p>The result can be passed to {@link #divRem(int[], int[], int[], int)} to divide by {@code
+   * b} polynomials whose quotient has length at most {@code n}.
+   *
+   * @param b the polynomial, must not be zero.
+   * @param n the precision, must be positive.
+   * @param p the prime.
+   * @return the inverse of \( \mathrm{rev}(b) \) modulo \( x^n \).
+   */
+  static int[] reverseInverse(int[] b, int n, int p) {
+    return inverse(reverse(b, b.length), n, p);
+  }
+
+  /**
+   * Reverses the first coefficients of a polynomial.
+   *
+   * @param a the polynomial.
+   * @param len the number of coefficients to reverse.
+   * @return the array of length {@code len} whose element {@code i} is {@code a[len - 1 - i]} (or
+   *     zero, if such index is out of bounds).
+   */
+  private static int[] reverse(int[] a, int len) {
+    final int[] r = new int[len];
+    for (int i = 0; i < len; i++) if (len - 1 - i < a.length) r[i] = a[len - 1 - i];
+    return r;
+  }
+
+  /**
+   * Divides two polynomials over \( \mathbb{Z}_p \).
+   *
+   * <p>If the quotient is short, the classical long division is used; otherwise the quotient is
+   * computed as the reverse of \( \mathrm{rev}(a) \cdot \mathrm{rev}(b)^{-1} \bmod x^{n - m + 1} \)
+   * (where \( n \) and \( m \) are the degrees of \( a \) and \( b \)) using {@link #inverse(int[],
+   * int, int)}, so that the time is a constant multiple of the time of multiplying two polynomials
+   * of degree \( n \).
+   *
+   * @param a the dividend.
+   * @param b the divisor, must not be zero.
+   * @param p the prime.
+   * @return an array containing the quotient and the remainder (in this order).
+   */
+  static int[][] divRem(int[] a, int[] b, int p) {
+    return divRem(a, b, null, p);
+  }
+
+  /**
+   * Divides two polynomials over \( \mathbb{Z}_p \) given the inverse of the reversed divisor.
+   *
+   * <p>This method behaves as {@link #divRem(int[], int[], int)}, but if {@code bRevInverse} is
+   * not {@code null} it is used instead of computing the inverse of \( \mathrm{rev}(b) \); this
+   * saves most of the time when dividing many polynomials by the same divisor.
+   *
+   * @param a the dividend.
+   * @param b the divisor, must not be zero.
+   * @param bRevInverse {@code null}, or the inverse of \( \mathrm{rev}(b) \) modulo \( x^k \) for
+   *     some \( k \) not less than the length of the quotient.
+   * @param p the prime.
+   * @return an array containing the quotient and the remainder (in this order).
+   */
+  static int[][] divRem(int[] a, int[] b, int[] bRevInverse, int p) {
+    final int n = a.length - 1, m = b.length - 1;
+    if (n < m) return new int[][] {ZERO, a};
+    if (n - m + 1 < NEWTON_THRESHOLD || m == 0) {
+      final int[] r = Arrays.copyOf(a, a.length);
+      final int[] q = new int[n - m + 1];
+      if (p == 2) // the divisor is monic, and subtracting is xoring
+        for (int i = n - m; i >= 0; i--) {
+          q[i] = r[i + m];
+          if (q[i] != 0) for (int j = 0; j <= m; j++) r[i + j] ^= b[j];
+        }
+      else {
+        final Montgomery field = Montgomery.of(p);
+        final int lead = field.toMontgomery(field.inverse(b[m]));
+        final int[] minusB = new int[m + 1]; // in Montgomery form, so products are in usual form
+        for (int j = 0; j <= m; j++) minusB[j] = b[j] == 0 ? 0 : field.toMontgomery(p - b[j]);
+        for (int i = n - m; i >= 0; i--) {
+          final int c = field.mul(r[i + m], lead);
+          q[i] = c;
+          if (c == 0) continue;
+          for (int j = 0; j <= m; j++) {
+            final int s = r[i + j] + field.mul(c, minusB[j]) - p; // in (-p, p), since p < 2^31
+            r[i + j] = s < 0 ? s + p : s;
+          }
+        }
+      }
+      return new int[][] {trim(q, q.length), trim(r, m)};
+    }
+    final int k = n - m + 1;
+    final int[] inv = bRevInverse != null ? bRevInverse : inverse(reverse(b, m + 1), k, p);
+    final int[] qRev = mul(trim(reverse(a, n + 1), k), trim(inv, Math.min(inv.length, k)), p);
+    final int[] q = trim(reverse(qRev, k), k);
+    final int[] qb = mul(q, b, p);
+    final int[] rem = sub(trim(a, Math.min(a.length, m)), trim(qb, Math.min(qb.length, m)), p);
+    return new int[][] {q, rem};
+  }
+
+  /**
+   * Returns the monic greatest common divisor of two polynomials over \( \mathbb{Z}_p \).
+   *
+   * @param a the first polynomial.
+   * @param b the second polynomial.
+   * @param p the prime.
+   * @return the monic greatest common divisor, computed with Euclid's algorithm.
+   */
+  static int[] gcd(int[] a, int[] b, int p) {
+    while (b.length > 0) {
+      final int[] r = divRem(a, b, p)[1];
+      a = b;
+      b = r;
+    }
+    return monic(a, p);
+  }
+
+  /**
+   * Returns the monic polynomial associated to a polynomial over \( \mathbb{Z}_p \).
+   *
+   * @param a the polynomial.
+   * @param p the prime.
+   * @return the polynomial divided by its leading coefficient (or the zero polynomial).
+   */
+  static int[] monic(int[] a, int p) {
+    if (a.length == 0 || a[a.length - 1] == 1) return a; // always the case if p = 2
+    final Montgomery field = Montgomery.of(p);
+    final int inv = field.toMontgomery(field.inverse(a[a.length - 1]));
+    final int[] r = new int[a.length];
+    for (int i = 0; i < r.length; i++) r[i] = field.mul(a[i], inv);
+    return r;
+  }
+}
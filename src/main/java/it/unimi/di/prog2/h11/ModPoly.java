@@ -0,0 +1,471 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@code ModPoly}s are immutable polynomials with coefficients in \( \mathbb{Z}_p \), for a fixed
+ * odd prime \( p &lt; 2^{31} \).
+ *
+ * <p>A typical {@code ModPoly} is \( p = c_0 + c_1 x + c_2 x^2 + \cdots + c_n x^n \) with \( 0 \le
+ * c_i &lt; p \). Differently from reducing the result of the operations of {@link Poly} (whose
+ * coefficients overflow), every operation is exact in \( \mathbb{Z}_p \); the reductions are
+ * built in the arithmetic (see {@link Montgomery}), so no overflow check is needed.
+ *
+ * <p>Long products are computed with the NTT; if \( p \) is <em>NTT-friendly</em>, that is if \(
+ * p - 1 \) is divisible by a large power of two (as the primes returned by {@link #nttPrime(int)}),
+ * a single transform modulo \( p \) is used, otherwise three transforms are needed (see {@link
+ * PolyMultiplier}). Operations among polynomials with different moduli are not allowed.
+ */
+public class ModPoly {
+
+  /** The arithmetic modulo the prime. */
+  private final Montgomery field;
+
+  /** The coefficients, in the trimmed form used by {@link ModArithmetic}. */
+  private final int[] coefficient;
+
+  /*-
+   * AF:
+   *
+   *  AF(field, coefficient) = \sum_{i < coefficient.length} coefficient[i] x^i in Z_field.p[x]
+   *
+   * RI:
+   *
+   *  - field != null and coefficient != null,
+   *  - 0 <= coefficient[i] < field.p for every i,
+   *  - coefficient.length == 0 or coefficient[coefficient.length - 1] != 0.
+   */
+
+  /**
+   * Initializes this to be the zero polynomial, that is \( p = 0 \), modulo a prime.
+   *
+   * @param p the modulus.
+   * @throws IllegalArgumentException if {@code p} is not an odd prime.
+   */
+  public ModPoly(int p) throws IllegalArgumentException {
+    this(Montgomery.of(p), ModArithmetic.ZERO);
+  }
+
+  /**
+   * Initializes this to be the polynomial \( p = cx^n \) modulo a prime.
+   *
+   * @param c the coefficient, not necessarily reduced modulo {@code p}.
+   * @param n the degree.
+   * @param p the modulus.
+   * @throws NegativeExponentException if {@code n} &lt; 0.
+   * @throws IllegalArgumentException if {@code p} is not an odd prime.
+   */
+  public ModPoly(int c, int n, int p) throws NegativeExponentException, IllegalArgumentException {
+    if (n < 0)
+      throw new NegativeExponentException("Can't create a monomial with negative exponent");
+    field = Montgomery.of(p);
+    c = Math.floorMod(c, p);
+    if (c == 0) coefficient = ModArithmetic.ZERO;
+    else {
+      coefficient = new int[n + 1];
+      coefficient[n] = c;
+    }
+  }
+
+  /**
+   * Initializes this to be the reduction of an integer polynomial modulo a prime.
+   *
+   * @param q the polynomial.
+   * @param p the modulus.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code p} is not an odd prime.
+   */
+  public ModPoly(Poly q, int p) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    field = Montgomery.of(p);
+    coefficient = ModArithmetic.reduce(q.coefficientArray(), p);
+  }
+
+  /**
+   * Initializes a polynomial given its arithmetic and coefficients.
+   *
+   * @param field the arithmetic.
+   * @param coefficient the coefficients, in the trimmed form used by {@link ModArithmetic}; the
+   *     array is not copied.
+   */
+  private ModPoly(Montgomery field, int[] coefficient) {
+    this.field = field;
+    this.coefficient = coefficient;
+  }
+
+  /**
+   * Returns the largest NTT-friendly prime for a given length.
+   *
+   * <p>The returned prime \( p \) is such that \( 2^k \) divides \( p - 1 \), so that the products
+   * of {@code ModPoly}s modulo \( p \) of length up to \( 2^k \) are computed with a single NTT.
+   * For instance, {@code nttPrime(27)} is \( 15 \cdot 2^{27} + 1 = 2013265921 \).
+   *
+   * @param k the logarithm of the length.
+   * @return the largest prime \( p &lt; 2^{31} \) such that \( 2^k \) divides \( p - 1 \).
+   * @throws IllegalArgumentException if {@code k} is not positive, or there is no such prime.
+   */
+  public static int nttPrime(int k) throws IllegalArgumentException {
+    if (k < 1 || k > 30) throw new IllegalArgumentException("The logarithm must be in [1, 30].");
+    for (long p = ((Integer.MAX_VALUE >> k) << k) + 1; p > 2; p -= 1L << k)
+      if (p <= Integer.MAX_VALUE && BigInteger.valueOf(p).isProbablePrime(50)) return (int) p;
+    throw new IllegalArgumentException("There is no such prime less than 2^31.");
+  }
+
+  /**
+   * Returns the modulus of this polynomial.
+   *
+   * @return the prime \( p \).
+   */
+  public int modulus() {
+    return field.p;
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero
+   *     polynomial.
+   */
+  public int degree() {
+    return Math.max(coefficient.length - 1, 0);
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term, in \( [0, p) \).
+   */
+  public int coeff(int d) {
+    return d < 0 || d >= coefficient.length ? 0 : coefficient[d];
+  }
+
+  /**
+   * Checks that a polynomial is not {@code null} and has the same modulus of this one.
+   *
+   * @param q the polynomial.
+   * @return {@code q}.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code q} has a different modulus.
+   */
+  private ModPoly requireSameModulus(ModPoly q)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (q.field.p != field.p)
+      throw new IllegalArgumentException("The polynomials must have the same modulus.");
+    return q;
+  }
+
+  /**
+   * Returns a polynomial with the same modulus of this one.
+   *
+   * @param c the coefficients, in the trimmed form used by {@link ModArithmetic}.
+   * @return the polynomial.
+   */
+  private ModPoly with(int[] c) {
+    return new ModPoly(field, c);
+  }
+
+  /**
+   * Performs polynomial addition.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p + q \).
+   *
+   * @param q the polynomial to add to this one.
+   * @return the sum among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code q} has a different modulus.
+   */
+  public ModPoly add(ModPoly q) throws NullPointerException, IllegalArgumentException {
+    return with(ModArithmetic.add(coefficient, requireSameModulus(q).coefficient, field.p));
+  }
+
+  /**
+   * Performs polynomial subtraction.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p - q \).
+   *
+   * @param q the polynomial to subtract from this one.
+   * @return the subtraction among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code q} has a different modulus.
+   */
+  public ModPoly sub(ModPoly q) throws NullPointerException, IllegalArgumentException {
+    return with(ModArithmetic.sub(coefficient, requireSameModulus(q).coefficient, field.p));
+  }
+
+  /**
+   * Returns the negate polynomial.
+   *
+   * <p>If \( p \) is this polynomial, returns \( -p \).
+   *
+   * @return this polynomial multiplied by \( -1 \).
+   */
+  public ModPoly minus() {
+    return with(ModArithmetic.sub(ModArithmetic.ZERO, coefficient, field.p));
+  }
+
+  /**
+   * Performs polynomial multiplication.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \).
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code q} has a different modulus.
+   */
+  public ModPoly mul(ModPoly q) throws NullPointerException, IllegalArgumentException {
+    return with(ModArithmetic.mul(coefficient, requireSameModulus(q).coefficient, field.p));
+  }
+
+  /**
+   * Multiplies this polynomial by a scalar.
+   *
+   * @param c the scalar, not necessarily reduced modulo \( p \).
+   * @return this polynomial multiplied by {@code c}.
+   */
+  public ModPoly scale(int c) {
+    c = Math.floorMod(c, field.p);
+    if (c == 0) return with(ModArithmetic.ZERO);
+    final int cm = field.toMontgomery(c);
+    final int[] r = new int[coefficient.length];
+    for (int i = 0; i < r.length; i++) r[i] = field.mul(coefficient[i], cm);
+    return with(r);
+  }
+
+  /**
+   * Raises this polynomial to a power.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p^k \), computed by repeated squaring.
+   *
+   * @param k the exponent.
+   * @return this polynomial raised to the power {@code k}, in particular \( 1 \) if {@code k} is 0.
+   * @throws NegativeExponentException if {@code k} &lt; 0.
+   */
+  public ModPoly pow(int k) throws NegativeExponentException {
+    if (k < 0)
+      throw new NegativeExponentException("Can't raise a polynomial to a negative exponent");
+    int[] r = {1};
+    for (int bit = Integer.highestOneBit(k); bit != 0; bit >>>= 1) {
+      r = ModArithmetic.mul(r, r, field.p);
+      if ((k & bit) != 0) r = ModArithmetic.mul(r, coefficient, field.p);
+    }
+    return with(r);
+  }
+
+  /**
+   * Raises this polynomial to a power modulo another polynomial.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p^k \bmod m \), computed by repeated squaring
+   * reducing after every product; the inverse of the reversed modulus is computed once, so that
+   * every reduction takes (for large degrees) the time of two products.
+   *
+   * @param k the exponent.
+   * @param m the modulus.
+   * @return this polynomial raised to the power {@code k} modulo {@code m}.
+   * @throws NullPointerException if {@code m} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} has a different modulus.
+   * @throws NegativeExponentException if {@code k} &lt; 0.
+   * @throws ArithmeticException if {@code m} is the zero polynomial.
+   */
+  public ModPoly modPow(long k, ModPoly m)
+      throws NullPointerException, IllegalArgumentException, NegativeExponentException {
+    requireSameModulus(m);
+    if (k < 0)
+      throw new NegativeExponentException("Can't raise a polynomial to a negative exponent");
+    final int[] b = m.coefficient;
+    if (b.length == 0) throw new ArithmeticException("Division by the zero polynomial.");
+    final int p = field.p;
+    final int[] inv = ModArithmetic.reverseInverse(b, Math.max(b.length - 1, 1), p);
+    final int[] base = ModArithmetic.divRem(coefficient, b, p)[1];
+    int[] r = ModArithmetic.divRem(new int[] {1}, b, p)[1];
+    for (long bit = Long.highestOneBit(k); bit != 0; bit >>>= 1) {
+      r = ModArithmetic.divRem(ModArithmetic.mul(r, r, p), b, inv, p)[1];
+      if ((k & bit) != 0) r = ModArithmetic.divRem(ModArithmetic.mul(r, base, p), b, inv, p)[1];
+    }
+    return with(r);
+  }
+
+  /**
+   * Returns the inverse of this polynomial modulo another polynomial.
+   *
+   * <p>The inverse is computed with the extended Euclid's algorithm.
+   *
+   * @param m the modulus.
+   * @return the polynomial \( q \) of degree less than the one of {@code m} such that \( p q \equiv
+   *     1 \pmod{m} \), where \( p \) is this polynomial.
+   * @throws NullPointerException if {@code m} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} has a different modulus.
+   * @throws ArithmeticException if {@code m} is the zero polynomial, or this polynomial is not
+   *     invertible modulo {@code m}.
+   */
+  public ModPoly modInverse(ModPoly m) throws NullPointerException, IllegalArgumentException {
+    requireSameModulus(m);
+    if (m.coefficient.length == 0)
+      throw new ArithmeticException("Division by the zero polynomial.");
+    final int p = field.p;
+    int[] r0 = m.coefficient, r1 = ModArithmetic.divRem(coefficient, m.coefficient, p)[1];
+    int[] s0 = ModArithmetic.ZERO, s1 = {1};
+    while (r1.length > 0) { // invariant: s0 p = r0 and s1 p = r1 modulo m
+      final int[][] qr = ModArithmetic.divRem(r0, r1, p);
+      r0 = r1;
+      r1 = qr[1];
+      final int[] s = ModArithmetic.sub(s0, ModArithmetic.mul(qr[0], s1, p), p);
+      s0 = s1;
+      s1 = s;
+    }
+    if (r0.length != 1)
+      throw new ArithmeticException("The polynomial is not invertible modulo the given one.");
+    return with(ModArithmetic.divRem(s0, m.coefficient, p)[1]).scale(field.inverse(r0[0]));
+  }
+
+  /**
+   * Returns the inverse of this polynomial as a power series.
+   *
+   * <p>The inverse is computed with Newton's method, in time proportional to that of a product of
+   * polynomials of degree {@code n}.
+   *
+   * @param n the precision.
+   * @return the polynomial \( q \) of degree less than {@code n} such that \( p q \equiv 1
+   *     \pmod{x^n} \), where \( p \) is this polynomial.
+   * @throws IllegalArgumentException if {@code n} is not positive.
+   * @throws ArithmeticException if the constant term of this polynomial is zero.
+   */
+  public ModPoly inverse(int n) throws IllegalArgumentException {
+    if (n < 1) throw new IllegalArgumentException("The precision must be positive.");
+    if (coeff(0) == 0) throw new ArithmeticException("The constant term must not be zero.");
+    final int[] g = ModArithmetic.inverse(coefficient, n, field.p);
+    return with(ModArithmetic.trim(g, g.length));
+  }
+
+  /**
+   * Performs polynomial division.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \) in \( \mathbb{Z}_p[x] \); for long quotients the division is
+   * computed by Newton's iteration on top of fast multiplication, hence in quasi-linear time.
+   *
+   * @param d the divisor.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code d} has a different modulus.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   */
+  public DivRem<ModPoly> divRem(ModPoly d) throws NullPointerException, IllegalArgumentException {
+    requireSameModulus(d);
+    if (d.coefficient.length == 0)
+      throw new ArithmeticException("Division by the zero polynomial.");
+    final int[][] qr = ModArithmetic.divRem(coefficient, d.coefficient, field.p);
+    return new DivRem<>(with(qr[0]), with(qr[1]));
+  }
+
+  /**
+   * Returns the remainder of the polynomial division.
+   *
+   * @param d the divisor.
+   * @return the remainder of the division of this polynomial by {@code d}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code d} has a different modulus.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @see #divRem(ModPoly)
+   */
+  public ModPoly mod(ModPoly d) throws NullPointerException, IllegalArgumentException {
+    return divRem(d).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial.
+   *
+   * @param q the other polynomial.
+   * @return the monic greatest common divisor, or the zero polynomial if both polynomials are zero.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code q} has a different modulus.
+   */
+  public ModPoly gcd(ModPoly q) throws NullPointerException, IllegalArgumentException {
+    return with(ModArithmetic.gcd(coefficient, requireSameModulus(q).coefficient, field.p));
+  }
+
+  /**
+   * Evaluates this polynomial at a given point.
+   *
+   * <p>The value is computed with Horner's scheme, where every product is a Montgomery reduction.
+   *
+   * @param x the point, not necessarily reduced modulo \( p \).
+   * @return the value of this polynomial at {@code x}, in \( [0, p) \).
+   */
+  public int evaluate(long x) {
+    final int p = field.p;
+    final int xm = field.toMontgomery((int) Math.floorMod(x, (long) p));
+    int r = 0;
+    for (int d = coefficient.length - 1; d >= 0; d--) {
+      final int s = field.mul(r, xm) + coefficient[d] - p; // in (-p, p), since p < 2^31
+      r = s < 0 ? s + p : s;
+    }
+    return r;
+  }
+
+  /**
+   * Returns the integer polynomial with the same coefficients (in \( [0, p) \)) of this one.
+   *
+   * @return the integer polynomial.
+   */
+  public Poly toPoly() {
+    return coefficient.length == 0 ? new Poly() : new Poly(coefficient);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (!(o instanceof ModPoly)) return false;
+    ModPoly q = (ModPoly) o;
+    return field.p == q.field.p && Arrays.equals(coefficient, q.coefficient);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * field.p + Arrays.hashCode(coefficient);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("ModPoly: ");
+    try {
+      if (coefficient.length <= 1) PolyFormat.appendInt(sb, coeff(0));
+      else {
+        PolyFormat.appendTerm(sb, coefficient[degree()], degree(), true);
+        for (int d = degree() - 1; d >= 0; d--)
+          if (coefficient[d] != 0) PolyFormat.appendTerm(sb, coefficient[d], d, false);
+      }
+    } catch (IOException cantHappen) { // a StringBuilder never throws IOException
+      throw new UncheckedIOException(cantHappen);
+    }
+    return sb.append(" (mod ").append(field.p).append(')').toString();
+  }
+}
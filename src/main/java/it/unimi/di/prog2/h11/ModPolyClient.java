@@ -0,0 +1,96 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+/** A class to test some methods of {@link ModPoly}. */
+public class ModPolyClient {
+
+  /** . */
+  private ModPolyClient() {}
+
+  /**
+   * Tests some methods of {@link ModPoly}.
+   *
+   * <p>This method reads from standard input a prime \( p \) and an exponent \( k \), followed by
+   * two polynomials \( a \) and \( b \) given as lists of (coefficient, degree) pairs separated by
+   * a {@code *}. Then it emits in the standard output (modulo \( p \)) \( a \), \( b \), their sum,
+   * difference and product, the quotient and the remainder of the division of \( a \) by \( b \),
+   * their greatest common divisor, \( a^k \bmod b \), the inverse of \( a \) modulo \( b \) and
+   * the value of \( a \) in \( k \); {@code none} is emitted if an operation throws an exception.
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final long k;
+    final ModPoly a, b;
+    try (Scanner s = new Scanner(System.in)) {
+      final int p = s.nextInt();
+      k = s.nextLong();
+      a = read(s, p);
+      if (s.hasNext()) s.next(); // the separator
+      b = read(s, p);
+    }
+    print("a", () -> a);
+    print("b", () -> b);
+    print("a + b", () -> a.add(b));
+    print("a - b", () -> a.sub(b));
+    print("a * b", () -> a.mul(b));
+    print("a / b", () -> a.divRem(b).quotient());
+    print("a % b", () -> a.mod(b));
+    print("gcd(a, b)", () -> a.gcd(b));
+    print("a^k mod b", () -> a.modPow(k, b));
+    print("a^-1 mod b", () -> a.modInverse(b));
+    print("a(k)", () -> a.evaluate(k));
+  }
+
+  /**
+   * Reads a polynomial.
+   *
+   * @param s the scanner.
+   * @param p the modulus.
+   * @return the sum of the terms read from {@code s}, up to the first token that is not an int.
+   */
+  private static ModPoly read(Scanner s, int p) {
+    ModPoly r = new ModPoly(p);
+    while (s.hasNextInt()) r = r.add(new ModPoly(s.nextInt(), s.nextInt(), p));
+    return r;
+  }
+
+  /**
+   * Emits the result of an operation in the standard output.
+   *
+   * @param name the name of the operation.
+   * @param operation the operation.
+   */
+  private static void print(String name, Supplier<Object> operation) {
+    String result;
+    try {
+      result = operation.get().toString();
+    } catch (ArithmeticException e) {
+      result = "none";
+    }
+    System.out.println(name + ": " + result);
+  }
+}
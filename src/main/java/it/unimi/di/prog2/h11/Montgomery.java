@@ -0,0 +1,281 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+/**
+ * Montgomery arithmetic modulo an odd prime \( p &lt; 2^{31} \), with \( R = 2^{32} \).
+ *
+ * <p>A value \( a \) is represented in <em>Montgomery form</em> by \( a R \bmod p \); the product
+ * of two values in such form is computed by {@link #reduce(long)} with two multiplications and a
+ * shift, instead of a (much slower) division. Observe that the product of a value in Montgomery
+ * form by a value in the usual form is the usual form of the product, so that, when a factor is
+ * reused many times, just that one needs to be converted.
+ *
+ * <p>If \( 2^k \) divides \( p - 1 \), this class can also multiply polynomials of length up to \(
+ * 2^k \) with a single NTT modulo \( p \) (see {@link #multiply(int[], int[])}), instead of the
+ * three primes NTT of {@link PolyMultiplier}.
+ */
+class Montgomery {
+
+  /** The most recently used instance (the same modulus is usually used many times in a row). */
+  private static volatile Montgomery last;
+
+  /** The modulus. */
+  final int p;
+
+  /** The value \( -p^{-1} \bmod 2^{32} \). */
+  private final int pNegInverse;
+
+  /** The value \( R^2 \bmod p \), used to convert values to Montgomery form. */
+  private final int r2;
+
+  /** The largest \( k \) such that \( 2^k \) divides \( p - 1 \). */
+  private final int twoAdicity;
+
+  /** A primitive root modulo {@link #p}, or 0 if it has not been computed yet. */
+  private int root;
+
+  /*-
+   * AF:
+   *
+   *  AF(p, pNegInverse, r2, twoAdicity, root) = the arithmetic modulo p
+   *
+   * RI:
+   *
+   *  - p is an odd prime less than 2^31,
+   *  - p * pNegInverse == -1 (with int arithmetic),
+   *  - r2 == 2^64 mod p,
+   *  - twoAdicity == Integer.numberOfTrailingZeros(p - 1),
+   *  - root == 0 or root generates the multiplicative group modulo p.
+   *
+   * The root is needed only by the NTT, so it is computed lazily (the race among threads is
+   * benign, since they all compute the same value).
+   */
+
+  /**
+   * Builds the Montgomery arithmetic modulo an odd prime.
+   *
+   * @param p the modulus, must be an odd prime.
+   */
+  private Montgomery(int p) {
+    this.p = p;
+    int inv = p; // Newton's iteration, each step doubles the correct low bits (p * p = 1 mod 8)
+    for (int i = 0; i < 4; i++) inv *= 2 - p * inv;
+    pNegInverse = -inv;
+    final long r = (1L << 32) % p;
+    r2 = (int) (r * r % p);
+    twoAdicity = Integer.numberOfTrailingZeros(p - 1);
+  }
+
+  /**
+   * Returns the Montgomery arithmetic modulo an odd prime.
+   *
+   * @param p the modulus.
+   * @return the arithmetic modulo {@code p}.
+   * @throws IllegalArgumentException if {@code p} is not an odd prime.
+   */
+  static Montgomery of(int p) throws IllegalArgumentException {
+    Montgomery m = last;
+    if (m != null && m.p == p) return m;
+    ModArithmetic.requirePrime(p);
+    if (p == 2) throw new IllegalArgumentException("The modulus must be an odd prime.");
+    last = m = new Montgomery(p);
+    return m;
+  }
+
+  /**
+   * Returns a primitive root modulo {@link #p}, computing it if needed.
+   *
+   * @return the least generator of the multiplicative group modulo {@link #p}.
+   */
+  private int root() {
+    if (root == 0) root = primitiveRoot(p);
+    return root;
+  }
+
+  /**
+   * Finds a primitive root modulo a prime.
+   *
+   * @param p the prime.
+   * @return the least generator of the multiplicative group modulo {@code p}.
+   */
+  private static int primitiveRoot(int p) {
+    final int[] factor = new int[32];
+    int n = 0;
+    int m = p - 1;
+    for (int d = 2; (long) d * d <= m; d++)
+      if (m % d == 0) {
+        factor[n++] = d;
+        while (m % d == 0) m /= d;
+      }
+    if (m > 1) factor[n++] = m;
+    search:
+    for (int g = 2; ; g++) {
+      for (int i = 0; i < n; i++)
+        if (ModArithmetic.powMod(g, (p - 1) / factor[i], p) == 1) continue search;
+      return g;
+    }
+  }
+
+  /**
+   * Computes the Montgomery reduction of a value.
+   *
+   * @param t the value, non negative and less than \( p 2^{32} \).
+   * @return the value \( t R^{-1} \bmod p \), in \( [0, p) \).
+   */
+  int reduce(long t) {
+    final long m = (int) t * pNegInverse & 0xFFFFFFFFL;
+    final long u = (t + m * p) >>> 32; // t + m p < 2^64 is exact as an unsigned value
+    return (int) (u >= p ? u - p : u);
+  }
+
+  /**
+   * Multiplies two values, at least one of which is in Montgomery form.
+   *
+   * @param a the first factor, in \( [0, p) \).
+   * @param b the second factor, in \( [0, p) \).
+   * @return the value \( a b R^{-1} \bmod p \).
+   */
+  int mul(int a, int b) {
+    return reduce((long) a * b);
+  }
+
+  /**
+   * Converts a value to Montgomery form.
+   *
+   * @param a the value, in \( [0, p) \).
+   * @return the value \( a R \bmod p \).
+   */
+  int toMontgomery(int a) {
+    return reduce((long) a * r2);
+  }
+
+  /**
+   * Converts a value from Montgomery form.
+   *
+   * @param a the value in Montgomery form, in \( [0, p) \).
+   * @return the value \( a R^{-1} \bmod p \).
+   */
+  int fromMontgomery(int a) {
+    return reduce(a);
+  }
+
+  /**
+   * Computes a modular power by repeated squaring.
+   *
+   * @param a the base, in \( [0, p) \).
+   * @param e the exponent, must be non negative.
+   * @return the value \( a^e \bmod p \).
+   */
+  int pow(int a, long e) {
+    int r = toMontgomery(1), b = toMontgomery(a);
+    for (; e > 0; e >>= 1) {
+      if ((e & 1) != 0) r = mul(r, b);
+      b = mul(b, b);
+    }
+    return fromMontgomery(r);
+  }
+
+  /**
+   * Computes a modular inverse.
+   *
+   * @param a the value, in \( (0, p) \).
+   * @return the value \( a^{-1} \bmod p \).
+   */
+  int inverse(int a) {
+    return pow(a, p - 2);
+  }
+
+  /**
+   * Tells whether a prime allows a single NTT for products of a given length.
+   *
+   * @param p the prime.
+   * @param len the length of the product.
+   * @return whether {@code p} is odd and the least power of two not smaller than {@code len}
+   *     divides \( p - 1 \).
+   */
+  static boolean supportsNtt(int p, int len) {
+    final int log = 32 - Integer.numberOfLeadingZeros(len - 1); // the least power of two >= len
+    return (p & 1) != 0 && log <= Integer.numberOfTrailingZeros(p - 1);
+  }
+
+  /**
+   * Multiplies two polynomials with a single NTT modulo {@link #p}.
+   *
+   * @param a the first operand, non empty and with coefficients in \( [0, p) \).
+   * @param b the second operand, non empty and with coefficients in \( [0, p) \); {@link
+   *     #supportsNtt(int, int) supportsNtt(p, a.length + b.length - 1)} must hold.
+   * @return the coefficients of the product, in \( [0, p) \).
+   */
+  int[] multiply(int[] a, int[] b) {
+    final int len = a.length + b.length - 1;
+    final int size = len == 1 ? 1 : Integer.highestOneBit(len - 1) << 1;
+    final int[] fa = new int[size], fb = new int[size];
+    for (int i = 0; i < a.length; i++) fa[i] = toMontgomery(a[i]);
+    for (int i = 0; i < b.length; i++) fb[i] = toMontgomery(b[i]);
+    transform(fa, false);
+    transform(fb, false);
+    for (int i = 0; i < size; i++) fa[i] = mul(fa[i], fb[i]);
+    transform(fa, true);
+    final int scale = inverse(size); // in the usual form, so the products leave Montgomery form
+    final int[] r = new int[len];
+    for (int i = 0; i < len; i++) r[i] = mul(fa[i], scale);
+    return r;
+  }
+
+  /**
+   * Performs in place an iterative radix-2 NTT (or its inverse, without the scaling by \( 1 / n
+   * \)) of values in Montgomery form.
+   *
+   * @param f the values, whose length is a power of two dividing \( p - 1 \).
+   * @param invert whether to compute the inverse transform.
+   */
+  private void transform(int[] f, boolean invert) {
+    final int n = f.length;
+    for (int i = 1, j = 0; i < n; i++) {
+      int bit = n >> 1;
+      for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+      j ^= bit;
+      if (i < j) {
+        final int t = f[i];
+        f[i] = f[j];
+        f[j] = t;
+      }
+    }
+    final int[] pw = new int[Math.max(1, n >> 1)];
+    for (int len = 2; len <= n; len <<= 1) {
+      int w = pow(root(), (p - 1) / len);
+      if (invert) w = inverse(w);
+      w = toMontgomery(w);
+      final int half = len >> 1;
+      pw[0] = toMontgomery(1);
+      for (int k = 1; k < half; k++) pw[k] = mul(pw[k - 1], w);
+      for (int i = 0; i < n; i += len)
+        for (int k = 0; k < half; k++) {
+          final int u = f[i + k], v = mul(f[i + k + half], pw[k]);
+          final int s = u + v - p, d = u - v; // both in (-p, p), since p < 2^31
+          f[i + k] = s < 0 ? s + p : s;
+          f[i + k + half] = d < 0 ? d + p : d;
+        }
+    }
+  }
+}
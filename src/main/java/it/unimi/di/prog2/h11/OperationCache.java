@@ -0,0 +1,357 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded cache memoising the results of the operations on polynomials.
+ *
+ * <p>The results of {@link #add(Object, Object)}, {@link #mul(Object, Object)} and {@link
+ * #pow(Object, int)} are stored in a map keyed by the operation and its operands (compared by
+ * {@link Object#equals(Object)}, that is cheap since the polynomials cache their hash codes). The
+ * size of the cache is measured by the <em>weight</em> of the stored entries: the weight of a
+ * polynomial is its number of coefficients (for a {@link Poly}) or of terms (for a {@link
+ * SparsePoly}), and since the keys keep the operands alive, the weight of an entry is the sum of
+ * the weights of its result and of its operands. When the total weight exceeds the given maximum,
+ * the least recently used entries are evicted.
+ *
+ * <p>Instances are thread safe: the map is accessed under a lock, but the operations are computed
+ * outside of it, so that a result can be (harmlessly) computed more than once by concurrent
+ * threads.
+ *
+ * @param <P> the type of the polynomials.
+ */
+public class OperationCache<P> {
+
+  /** The cached operations. */
+  private enum Op {
+    /** Addition. */
+    ADD,
+    /** Multiplication. */
+    MUL,
+    /** Power, the right operand is the exponent. */
+    POW
+  }
+
+  /**
+   * The key of a cached result.
+   *
+   * @param op the operation.
+   * @param left the left operand.
+   * @param right the right operand.
+   */
+  private record Key(Op op, Object left, Object right) {}
+
+  /**
+   * A cached result.
+   *
+   * @param <R> the type of the result.
+   * @param result the result.
+   * @param weight the weight of the entry, that is of the result and of the operands.
+   */
+  private record Entry<R>(R result, long weight) {}
+
+  /** The map from keys to cached results, in access order. */
+  private final LinkedHashMap<Key, Entry<P>> map = new LinkedHashMap<>(16, .75f, true);
+
+  /** The maximum total weight of the cached entries. */
+  private final long maxWeight;
+
+  /** The addition. */
+  private final BinaryOperator<P> add;
+
+  /** The multiplication. */
+  private final BinaryOperator<P> mul;
+
+  /** The polynomial \( 1 \). */
+  private final P one;
+
+  /** The weight of a polynomial. */
+  private final ToIntFunction<P> weigher;
+
+  /** The total weight of the cached entries. */
+  private long weight;
+
+  /** The number of lookups that found a result. */
+  private long hits;
+
+  /** The number of lookups that did not find a result. */
+  private long misses;
+
+  /** The number of evicted results. */
+  private long evictions;
+
+  /*-
+   * AF:
+   *
+   *  AF(map, maxWeight, ...) = the cache memoising map.get(k).result as the result of k.op on
+   *    k.left and k.right; hits, misses and evictions are the corresponding counters.
+   *
+   * RI:
+   *
+   *  - maxWeight > 0, add, mul, one and weigher are not null,
+   *  - map does not contain nulls,
+   *  - the weight of every entry of map is the sum of weigher applied to its result and to its
+   *    polynomial operands,
+   *  - weight is the sum of the weights of the entries of map, and weight <= maxWeight,
+   *  - hits, misses and evictions are non negative.
+   *
+   * All the mutable fields are accessed only while holding the lock on this.
+   */
+
+  /**
+   * Builds a cache.
+   *
+   * @param maxWeight the maximum total weight of the cached entries.
+   * @param add the addition.
+   * @param mul the multiplication.
+   * @param one the polynomial \( 1 \).
+   * @param weigher the weight of a polynomial.
+   */
+  private OperationCache(
+      long maxWeight,
+      BinaryOperator<P> add,
+      BinaryOperator<P> mul,
+      P one,
+      ToIntFunction<P> weigher) {
+    if (maxWeight <= 0) throw new IllegalArgumentException("The maximum weight must be positive.");
+    this.maxWeight = maxWeight;
+    this.add = add;
+    this.mul = mul;
+    this.one = one;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Builds a cache for {@link Poly}s, where the weight of a polynomial is its number of
+   * coefficients.
+   *
+   * @param maxWeight the maximum total weight of the cached entries.
+   * @return the cache.
+   * @throws IllegalArgumentException if {@code maxWeight} is not positive.
+   */
+  public static OperationCache<Poly> forPoly(long maxWeight) throws IllegalArgumentException {
+    return new OperationCache<>(
+        maxWeight, Poly::add, Poly::mul, new Poly(1, 0), p -> p.degree() + 1);
+  }
+
+  /**
+   * Builds a cache for {@link SparsePoly}s, where the weight of a polynomial is its number of
+   * terms.
+   *
+   * @param maxWeight the maximum total weight of the cached entries.
+   * @return the cache.
+   * @throws IllegalArgumentException if {@code maxWeight} is not positive.
+   */
+  public static OperationCache<SparsePoly> forSparsePoly(long maxWeight)
+      throws IllegalArgumentException {
+    return new OperationCache<>(
+        maxWeight,
+        SparsePoly::add,
+        SparsePoly::mul,
+        new SparsePoly(1, 0),
+        p -> Math.max(1, p.termCount()));
+  }
+
+  /**
+   * Returns the (possibly cached) sum of two polynomials.
+   *
+   * @param p the first polynomial.
+   * @param q the second polynomial.
+   * @return the polynomial \( p + q \).
+   * @throws NullPointerException if {@code p} or {@code q} is {@code null}.
+   */
+  public P add(P p, P q) throws NullPointerException {
+    return apply(Op.ADD, p, q);
+  }
+
+  /**
+   * Returns the (possibly cached) product of two polynomials.
+   *
+   * @param p the first polynomial.
+   * @param q the second polynomial.
+   * @return the polynomial \( p q \).
+   * @throws NullPointerException if {@code p} or {@code q} is {@code null}.
+   */
+  public P mul(P p, P q) throws NullPointerException {
+    return apply(Op.MUL, p, q);
+  }
+
+  /**
+   * Returns the (possibly cached) power of a polynomial.
+   *
+   * <p>The power is computed by repeated squaring from the most significant bit of {@code k}, so
+   * that the powers \( p^{\lfloor k / 2^i \rfloor} \) are computed (and cached) along the way, and
+   * can be reused by the following calls. Only the powers are cached: the squarings and the
+   * multiplications by \( p \) are performed directly, and they are not counted as lookups.
+   *
+   * @param p the polynomial.
+   * @param k the exponent.
+   * @return the polynomial \( p^k \).
+   * @throws NullPointerException if {@code p} is {@code null}.
+   * @throws NegativeExponentException if {@code k} &lt; 0.
+   */
+  public P pow(P p, int k) throws NullPointerException, NegativeExponentException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    if (k < 0)
+      throw new NegativeExponentException("A polynomial cannot be raised to a negative exponent.");
+    if (k == 0) return one;
+    if (k == 1) return p;
+    final Key key = new Key(Op.POW, p, k);
+    P result = lookup(key);
+    if (result != null) return result;
+    final P half = pow(p, k / 2);
+    result = mul.apply(half, half);
+    if ((k & 1) != 0) result = mul.apply(result, p);
+    store(key, result, weigher.applyAsInt(p));
+    return result;
+  }
+
+  /**
+   * Returns the (possibly cached) result of a commutative operation.
+   *
+   * @param op the operation.
+   * @param p the first operand.
+   * @param q the second operand.
+   * @return the result.
+   */
+  private P apply(Op op, P p, P q) {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final Key key = p.hashCode() <= q.hashCode() ? new Key(op, p, q) : new Key(op, q, p);
+    P result = lookup(key);
+    if (result == null) {
+      result = (op == Op.ADD ? add : mul).apply(p, q);
+      store(key, result, (long) weigher.applyAsInt(p) + weigher.applyAsInt(q));
+    }
+    return result;
+  }
+
+  /**
+   * Looks up a result, updating the metrics.
+   *
+   * @param key the key.
+   * @return the cached result, or {@code null}.
+   */
+  private synchronized P lookup(Key key) {
+    final Entry<P> entry = map.get(key);
+    if (entry != null) hits++;
+    else misses++;
+    return entry == null ? null : entry.result();
+  }
+
+  /**
+   * Stores a result, evicting the least recently used entries if the cache gets too heavy.
+   *
+   * <p>Entries heavier than the maximum weight are not stored.
+   *
+   * @param key the key.
+   * @param result the result.
+   * @param operands the weight of the operands.
+   */
+  private synchronized void store(Key key, P result, long operands) {
+    final long w = weigher.applyAsInt(result) + operands;
+    if (w > maxWeight) return;
+    final Entry<P> old = map.put(key, new Entry<>(result, w));
+    if (old != null) weight -= old.weight();
+    weight += w;
+    final Iterator<Entry<P>> it = map.values().iterator();
+    while (weight > maxWeight) {
+      weight -= it.next().weight();
+      it.remove();
+      evictions++;
+    }
+  }
+
+  /**
+   * Returns the number of lookups that found a cached result.
+   *
+   * @return the number of hits.
+   */
+  public synchronized long hits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of lookups that did not find a cached result.
+   *
+   * @return the number of misses.
+   */
+  public synchronized long misses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of entries evicted to keep the weight of the cache bounded.
+   *
+   * @return the number of evictions.
+   */
+  public synchronized long evictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns the number of cached results.
+   *
+   * @return the number of cached results.
+   */
+  public synchronized int size() {
+    return map.size();
+  }
+
+  /**
+   * Returns the total weight of the cached entries, including their operands.
+   *
+   * @return the total weight, at most the maximum weight given at construction.
+   */
+  public synchronized long weight() {
+    return weight;
+  }
+
+  /** Removes all the cached results (the metrics are not reset). */
+  public synchronized void clear() {
+    map.clear();
+    weight = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "OperationCache: size="
+        + map.size()
+        + ", weight="
+        + weight
+        + "/"
+        + maxWeight
+        + ", hits="
+        + hits
+        + ", misses="
+        + misses
+        + ", evictions="
+        + evictions;
+  }
+}
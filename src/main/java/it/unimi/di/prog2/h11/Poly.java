@@ -22,8 +22,13 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 package it.unimi.di.prog2.h11;
 
 import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import it.unimi.di.prog2.s10.RationalNumber;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * {@code Poly}s are immutable polynomials with integer coefficients.
@@ -35,6 +40,12 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
   /** The array of coefficients, the {@code coeff[i]} is the coefficient of \( x^i \). */
   private final int[] coefficient;
 
+  /** The canonical instances returned by {@link #intern()}. */
+  private static final Interner<Poly> INTERNED = new Interner<>();
+
+  /** The hash code of this polynomial, or 0 if it has not been computed yet. */
+  private int hash;
+
   /*-
    * AF:
    *
@@ -44,8 +55,11 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
    *
    *  - coefficient is not null,
    *  - coefficient.length is equal to the degree + 1, so coefficient.length > 0,
-   *  - coefficient.length > 1 ⇒ coefficient[coefficient.length - 1] != 0.
+   *  - coefficient.length > 1 ⇒ coefficient[coefficient.length - 1] != 0,
+   *  - hash == 0 or hash == Arrays.hashCode(coefficient).
    *
+   * Observe that hash is not part of the abstract state: it is just a cache, lazily computed
+   * by hashCode (computing it more than once in case of races is harmless).
    */
 
   /** Initializes this to be the zero polynomial, that is \( p = 0 \). */
@@ -77,6 +91,21 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
     coefficient = new int[n + 1];
   }
 
+  /**
+   * Initializes a polynomial given its coefficients, trimming the (possible) trailing zeros.
+   *
+   * <p>The array is not copied (if it has no trailing zeros), so it must not be modified after this
+   * call.
+   *
+   * @param coefficient the non empty array of coefficients.
+   */
+  Poly(int[] coefficient) {
+    int n = coefficient.length - 1;
+    while (n > 0 && coefficient[n] == 0) n--;
+    this.coefficient =
+        n == coefficient.length - 1 ? coefficient : Arrays.copyOf(coefficient, n + 1);
+  }
+
   /**
    * Returns the degree of this polynomial.
    *
@@ -98,6 +127,45 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
     else return coefficient[d];
   }
 
+  /**
+   * Returns the number of non-zero terms of this polynomial.
+   *
+   * @return the number of non-zero coefficients.
+   */
+  public int termCount() {
+    int n = 0;
+    for (int c : coefficient) if (c != 0) n++;
+    return n;
+  }
+
+  /**
+   * Converts this polynomial to a {@link SparsePoly}.
+   *
+   * @return the sparse polynomial with the same coefficients.
+   */
+  public SparsePoly toSparsePoly() {
+    return SparsePoly.fromDense(coefficient);
+  }
+
+  /**
+   * Returns the array of coefficients of this polynomial.
+   *
+   * @return the array of coefficients (not a copy, so it must not be modified).
+   */
+  int[] coefficientArray() {
+    return coefficient;
+  }
+
+  /**
+   * Returns the coefficients of this polynomial reduced modulo a prime.
+   *
+   * @param p the prime, less than \( 2^{31} \).
+   * @return the coefficients in \( [0, p) \), in the trimmed form used by {@link ModArithmetic}.
+   */
+  int[] coefficientsMod(int p) {
+    return ModArithmetic.reduce(coefficient, p);
+  }
+
   /**
    * Performs polynomial addition.
    *
@@ -134,21 +202,237 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
   /**
    * Performs polynomial multiplication.
    *
-   * <p>If \( p \) is this polynomial, returns \( p q \).
+   * <p>If \( p \) is this polynomial, returns \( p q \); the product is computed by {@link
+   * PolyMultiplier#DEFAULT}.
    *
    * @param q the polynomial to multiply by this one.
    * @return the product among this and the given polynomial.
    * @throws NullPointerException if {@code q} is {@code null}.
    */
   public Poly mul(Poly q) throws NullPointerException {
+    return mul(q, PolyMultiplier.DEFAULT);
+  }
+
+  /**
+   * Performs polynomial multiplication using the given multiplier.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \). The result does not depend on the
+   * multiplier, that only determines the algorithm used to compute it.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param multiplier the multiplier.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} or {@code multiplier} is {@code null}.
+   */
+  public Poly mul(Poly q, PolyMultiplier multiplier) throws NullPointerException {
     Objects.requireNonNull(q, "The polynomial must not be null.");
+    Objects.requireNonNull(multiplier, "The multiplier must not be null.");
     if ((q.degree() == 0 && q.coefficient[0] == 0) || (degree() == 0 && coefficient[0] == 0))
       return new Poly();
-    Poly r = new Poly(degree() + q.degree());
+    return new Poly(multiplier.multiply(coefficient, q.coefficient));
+  }
+
+  /**
+   * Performs polynomial multiplication in parallel on the common pool.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @see #mulParallel(Poly, ForkJoinPool)
+   */
+  public Poly mulParallel(Poly q) throws NullPointerException {
+    return mulParallel(q, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs polynomial multiplication in parallel on the given pool.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \), computed by {@link
+   * PolyMultiplier#multiplyParallel(int[], int[], ForkJoinPool)}; the result is identical to the
+   * one of {@link #mul(Poly)}, and operands shorter than {@link PolyMultiplier#PARALLEL_THRESHOLD}
+   * are multiplied sequentially.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param pool the pool where to run the tasks.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} or {@code pool} is {@code null}.
+   */
+  public Poly mulParallel(Poly q, ForkJoinPool pool) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    Objects.requireNonNull(pool, "The pool must not be null.");
+    if ((q.degree() == 0 && q.coefficient[0] == 0) || (degree() == 0 && coefficient[0] == 0))
+      return new Poly();
+    return new Poly(PolyMultiplier.DEFAULT.multiplyParallel(coefficient, q.coefficient, pool));
+  }
+
+  /**
+   * Performs polynomial multiplication with a given coefficient width.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \) computed according to {@code width}: with
+   * {@link CoefficientWidth#INT} this is the same as {@link #mul(Poly)}; with the other widths the
+   * product is computed exactly and an exception is thrown if it does not fit the given width. If
+   * the shorter operand has at least {@link PolyMultiplier#karatsubaThreshold()} coefficients the
+   * exact product is obtained by a three primes NTT (see {@link PolyMultiplier}), whose
+   * reconstruction detects the coefficients that do not fit in a {@code long}; otherwise (or if
+   * the product is too long for the NTT) by {@link WidePoly#mul(WidePoly)}.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param width the width of the coefficients of the result.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} or {@code width} is {@code null}.
+   * @throws ArithmeticException if some coefficient of the product does not fit {@code width}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   */
+  public WidePoly mul(Poly q, CoefficientWidth width)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    Objects.requireNonNull(width, "The width must not be null.");
+    if (width == CoefficientWidth.INT) return new WidePoly(mul(q));
+    final int len = coefficient.length + q.coefficient.length - 1;
+    if (Math.min(coefficient.length, q.coefficient.length)
+            >= PolyMultiplier.DEFAULT.karatsubaThreshold()
+        && len <= PolyMultiplier.MAX_NTT_LENGTH)
+      return width.check(
+          WidePoly.fromDense(PolyMultiplier.multiplyExact(coefficient, q.coefficient)));
+    return width.check(new WidePoly(this).mul(new WidePoly(q)));
+  }
+
+  /**
+   * Performs polynomial multiplication, throwing an exception on overflow.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws ArithmeticException if some coefficient of the product does not fit in an {@code int}.
+   * @see #mul(Poly, CoefficientWidth)
+   */
+  public Poly mulExact(Poly q) throws NullPointerException {
+    return mul(q, CoefficientWidth.CHECKED_INT).toPoly();
+  }
+
+  /**
+   * Raises this polynomial to a power.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p^k \), computed by repeated squaring (with
+   * \( O(\log k) \) multiplications); as for {@link #mul(Poly)}, the coefficients are computed
+   * modulo \( 2^{32} \).
+   *
+   * @param k the exponent.
+   * @return this polynomial raised to the power {@code k}, in particular \( 1 \) if {@code k} is 0.
+   * @throws NegativeExponentException if {@code k} &lt; 0.
+   */
+  public Poly pow(int k) throws NegativeExponentException {
+    if (k < 0)
+      throw new NegativeExponentException("Can't raise a polynomial to a negative exponent");
+    Poly result = new Poly(1, 0);
+    for (int bit = Integer.highestOneBit(k); bit != 0; bit >>>= 1) {
+      result = result.mul(result);
+      if ((k & bit) != 0) result = result.mul(this);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the derivative of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^i \) is this polynomial, returns \( p' = \sum_i i c_i x^{i - 1} \),
+   * computed in a single pass over the coefficients; as for {@link #mul(Poly)}, the coefficients
+   * are computed modulo \( 2^{32} \).
+   *
+   * @return the derivative of this polynomial.
+   */
+  public Poly derivative() {
+    return derivative(1);
+  }
+
+  /**
+   * Returns a derivative of given order of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^i \) is this polynomial, returns \( p^{(n)} = \sum_{i \ge n} c_i i
+   * (i - 1) \cdots (i - n + 1) x^{i - n} \), computed in a single pass over the coefficients. The
+   * coefficients are computed modulo \( 2^{32} \); since the product of \( n \) consecutive
+   * integers is divisible by \( n! \), and \( 2^{32} \) divides \( n! \) for \( n \ge 34 \), the
+   * derivatives of such orders are zero.
+   *
+   * @param n the order of the derivative.
+   * @return the {@code n}-th derivative of this polynomial, in particular this polynomial if {@code
+   *     n} is 0.
+   * @throws IllegalArgumentException if {@code n} &lt; 0.
+   */
+  public Poly derivative(int n) throws IllegalArgumentException {
+    if (n < 0)
+      throw new IllegalArgumentException("The order of the derivative cannot be negative.");
+    if (n == 0) return this;
+    if (n > degree() || n >= ModArithmetic.INT_VANISHING_FACTORIAL) return new Poly();
+    final int[] r = new int[degree() - n + 1];
+    for (int i = n; i <= degree(); i++)
+      if (coefficient[i] != 0)
+        r[i - n] = coefficient[i] * (int) ModArithmetic.fallingFactorial(i, n);
+    return new Poly(r);
+  }
+
+  /**
+   * Returns the antiderivative of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^i \) is this polynomial, returns the polynomial with rational
+   * coefficients \( \sum_i \frac{c_i}{i + 1} x^{i + 1} \), that is the antiderivative of \( p \)
+   * with zero constant term; it is computed in a single pass over the coefficients.
+   *
+   * @return the antiderivative of this polynomial.
+   */
+  public RationalPoly antiderivative() {
+    final RationalNumber zero = new RationalNumber(0);
+    final RationalNumber[] r = new RationalNumber[degree() + 2];
+    r[0] = zero;
     for (int i = 0; i <= degree(); i++)
-      for (int j = 0; j <= q.degree(); j++)
-        r.coefficient[i + j] = r.coefficient[i + j] + coefficient[i] * q.coefficient[j];
-    return r;
+      r[i + 1] = coefficient[i] == 0 ? zero : new RationalNumber(coefficient[i], i + 1L);
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Returns the composition of this polynomial with another one.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(q(x)) \). The composition is computed by
+   * divide and conquer: writing \( p = p_0 + x^h p_1 \), where \( h \) is a power of two and \(
+   * p_0 \) has degree less than \( h \), it is \( p(q) = p_0(q) + q^h p_1(q) \), where the powers
+   * \( q^h \) are computed once by repeated squaring. In this way most of the time is spent
+   * multiplying polynomials of large degree, where {@link PolyMultiplier} is much faster than the
+   * \( O(n^2 m^2) \) of Horner's scheme. As for {@link #mul(Poly)}, the coefficients are computed
+   * modulo \( 2^{32} \).
+   *
+   * @param q the polynomial to substitute for \( x \).
+   * @return the composition of this polynomial with {@code q}.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result does not fit in an array.
+   */
+  public Poly compose(Poly q) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (degree() == 0) return this;
+    if (q.degree() == 0) return new Poly((int) evaluate(q.coefficient[0]), 0);
+    if ((long) degree() * q.degree() >= Integer.MAX_VALUE - 8)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final int levels = 32 - Integer.numberOfLeadingZeros(degree()); // 2^levels > degree()
+    final Poly[] power = new Poly[levels];
+    power[0] = q;
+    for (int k = 1; k < levels; k++) power[k] = power[k - 1].mul(power[k - 1]);
+    return compose(0, levels, power);
+  }
+
+  /**
+   * Composes a block of coefficients of this polynomial with a polynomial \( q \).
+   *
+   * @param lo the index of the first coefficient of the block.
+   * @param k the logarithm of the length of the block.
+   * @param power the powers \( q^{2^j} \), for \( j &lt; k \).
+   * @return the polynomial \( \sum_{i &lt; 2^k} c_{lo + i} q^i \), where \( c_j \) is the
+   *     coefficient of \( x^j \) of this polynomial.
+   */
+  private Poly compose(int lo, int k, Poly[] power) {
+    if (k == 0) return new Poly(coefficient[lo], 0);
+    final int half = 1 << (k - 1);
+    final Poly low = compose(lo, k - 1, power);
+    if (lo + half > degree()) return low;
+    return low.add(power[k - 1].mul(compose(lo + half, k - 1, power)));
   }
 
   /**
@@ -178,42 +462,264 @@ public class Poly { // we don't extend Cloneable, see EJ 3.13
     return r;
   }
 
+  /**
+   * Builds a polynomial from coefficients modulo a prime.
+   *
+   * @param c the coefficients in the trimmed form used by {@link ModArithmetic}.
+   * @return the polynomial with the given coefficients.
+   */
+  private static Poly fromMod(int[] c) {
+    return c.length == 0 ? new Poly() : new Poly(c);
+  }
+
+  /**
+   * Performs polynomial division over the rationals.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \), that is the only polynomials with rational coefficients such
+   * that \( p = q d + r \) and the degree of \( r \) is less than the one of \( d \) (or \( r = 0
+   * \)).
+   *
+   * @param d the divisor.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @see RationalPoly#divRem(RationalPoly)
+   */
+  public DivRem<RationalPoly> divRem(Poly d) throws NullPointerException {
+    Objects.requireNonNull(d, "The divisor must not be null.");
+    return new RationalPoly(this).divRem(new RationalPoly(d));
+  }
+
+  /**
+   * Returns the remainder of the polynomial division over the rationals.
+   *
+   * @param d the divisor.
+   * @return the remainder of the division of this polynomial by {@code d}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @see #divRem(Poly)
+   */
+  public RationalPoly mod(Poly d) throws NullPointerException {
+    return divRem(d).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial over the rationals.
+   *
+   * @param q the other polynomial.
+   * @return the monic greatest common divisor, or the zero polynomial if both polynomials are
+   *     zero.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @see RationalPoly#gcd(RationalPoly)
+   */
+  public RationalPoly gcd(Poly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    return new RationalPoly(this).gcd(new RationalPoly(q));
+  }
+
+  /**
+   * Performs polynomial division modulo a prime.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \) in \( \mathbb{Z}_m[x] \), with coefficients in \( [0, m) \).
+   * For long quotients the division is computed by Newton's iteration on top of fast
+   * multiplication, hence in quasi-linear time.
+   *
+   * @param d the divisor.
+   * @param m the modulus, must be a prime.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   * @throws ArithmeticException if {@code d} is zero modulo {@code m}.
+   */
+  public DivRem<Poly> divRem(Poly d, int m) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(d, "The divisor must not be null.");
+    ModArithmetic.requirePrime(m);
+    final int[] b = d.coefficientsMod(m);
+    if (b.length == 0) throw new ArithmeticException("Division by the zero polynomial.");
+    final int[][] qr = ModArithmetic.divRem(coefficientsMod(m), b, m);
+    return new DivRem<>(fromMod(qr[0]), fromMod(qr[1]));
+  }
+
+  /**
+   * Returns the remainder of the polynomial division modulo a prime.
+   *
+   * @param d the divisor.
+   * @param m the modulus, must be a prime.
+   * @return the remainder of the division of this polynomial by {@code d} modulo {@code m}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   * @throws ArithmeticException if {@code d} is zero modulo {@code m}.
+   * @see #divRem(Poly, int)
+   */
+  public Poly mod(Poly d, int m) throws NullPointerException, IllegalArgumentException {
+    return divRem(d, m).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial modulo a prime.
+   *
+   * @param q the other polynomial.
+   * @param m the modulus, must be a prime.
+   * @return the monic greatest common divisor in \( \mathbb{Z}_m[x] \), or the zero polynomial if
+   *     both polynomials are zero modulo {@code m}.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   */
+  public Poly gcd(Poly q, int m) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    ModArithmetic.requirePrime(m);
+    return fromMod(ModArithmetic.gcd(coefficientsMod(m), q.coefficientsMod(m), m));
+  }
+
+  /**
+   * Evaluates this polynomial at a given point.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(x) \) computed with Horner's scheme using
+   * {@code long} arithmetic, that is modulo \( 2^{64} \).
+   *
+   * @param x the point.
+   * @return the value of this polynomial at {@code x}.
+   */
+  public long evaluate(long x) {
+    long r = coefficient[degree()];
+    for (int d = degree() - 1; d >= 0; d--) r = r * x + coefficient[d];
+    return r;
+  }
+
+  /**
+   * Evaluates this polynomial at a given point, modulo a given number.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(x) \bmod m \) computed with Horner's scheme
+   * (without overflow, whatever the modulus).
+   *
+   * @param x the point.
+   * @param m the modulus.
+   * @return the value of this polynomial at {@code x} modulo {@code m}, in \( [0, m) \).
+   * @throws IllegalArgumentException if {@code m} is not positive.
+   */
+  public long evaluateMod(long x, long m) throws IllegalArgumentException {
+    if (m <= 0) throw new IllegalArgumentException("The modulus must be positive.");
+    x = ModArithmetic.reduce(x, m);
+    long r = ModArithmetic.reduce(coefficient[degree()], m);
+    for (int d = degree() - 1; d >= 0; d--) {
+      r = ModArithmetic.mulMod(r, x, m) + ModArithmetic.reduce(coefficient[d], m);
+      if (r >= m || r < 0) r -= m;
+    }
+    return r;
+  }
+
+  /**
+   * Evaluates this polynomial at many points.
+   *
+   * <p>Stores in {@code out[i]} the value {@link #evaluate(long) evaluate(xs[i])}; the points are
+   * processed four at a time, so that every coefficient is read once for four independent (hence
+   * pipelined) Horner recurrences.
+   *
+   * @param xs the points.
+   * @param out the array where to store the values, at least as long as {@code xs}.
+   * @throws NullPointerException if {@code xs} or {@code out} is {@code null}.
+   * @throws IllegalArgumentException if {@code out} is shorter than {@code xs}.
+   */
+  public void evaluate(long[] xs, long[] out)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(xs, "The points must not be null.");
+    Objects.requireNonNull(out, "The output array must not be null.");
+    if (out.length < xs.length)
+      throw new IllegalArgumentException("The output array is shorter than the points one.");
+    final int n = degree();
+    int i = 0;
+    for (; i + 4 <= xs.length; i += 4) {
+      final long x0 = xs[i], x1 = xs[i + 1], x2 = xs[i + 2], x3 = xs[i + 3];
+      long r0 = coefficient[n], r1 = r0, r2 = r0, r3 = r0;
+      for (int d = n - 1; d >= 0; d--) {
+        final long c = coefficient[d];
+        r0 = r0 * x0 + c;
+        r1 = r1 * x1 + c;
+        r2 = r2 * x2 + c;
+        r3 = r3 * x3 + c;
+      }
+      out[i] = r0;
+      out[i + 1] = r1;
+      out[i + 2] = r2;
+      out[i + 3] = r3;
+    }
+    for (; i < xs.length; i++) out[i] = evaluate(xs[i]);
+  }
+
+  /**
+   * Returns the canonical instance equal to this polynomial.
+   *
+   * <p>Equal polynomials return the same instance, so that interned polynomials can be compared by
+   * reference; the canonical instances are kept in a weak table, hence they are reclaimed once they
+   * are no longer used.
+   *
+   * @return the canonical instance equal to this polynomial.
+   */
+  public Poly intern() {
+    return INTERNED.intern(this);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == this) return true;
     if (!(o instanceof Poly)) return false;
     Poly q = (Poly) o;
     if (degree() != q.degree()) return false;
+    if (hash != 0 && q.hash != 0 && hash != q.hash) return false;
     return Arrays.equals(coefficient, q.coefficient);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(degree(), coefficient);
+    int h = hash;
+    if (h == 0) hash = h = Arrays.hashCode(coefficient);
+    return h;
+  }
+
+  /**
+   * Writes the textual representation of this polynomial (the same returned by {@link
+   * #toString()}) to an {@link Appendable}.
+   *
+   * <p>The representation is written term by term, without creating temporary strings.
+   *
+   * @param <A> the type of the appendable.
+   * @param out where to write.
+   * @return {@code out}.
+   * @throws NullPointerException if {@code out} is {@code null}.
+   * @throws IOException if {@code out} throws it.
+   */
+  public <A extends Appendable> A appendTo(A out) throws NullPointerException, IOException {
+    Objects.requireNonNull(out, "The appendable must not be null.");
+    out.append("Poly: ");
+    if (degree() == 0) PolyFormat.appendInt(out, coefficient[0]);
+    else {
+      PolyFormat.appendTerm(out, coefficient[degree()], degree(), true);
+      for (int d = degree() - 1; d >= 0; d--)
+        if (coefficient[d] != 0) PolyFormat.appendTerm(out, coefficient[d], d, false);
+    }
+    return out;
+  }
+
+  /**
+   * Writes the textual representation of this polynomial (the same returned by {@link
+   * #toString()}) to a {@link Writer}.
+   *
+   * @param out where to write.
+   * @throws NullPointerException if {@code out} is {@code null}.
+   * @throws IOException if {@code out} throws it.
+   */
+  public void writeTo(Writer out) throws NullPointerException, IOException {
+    appendTo(out);
   }
 
   @Override
   public String toString() {
-    if (degree() > 0) {
-      StringBuilder sb = new StringBuilder("Poly: ");
-      int c = coefficient[degree()];
-      if (c < -1) sb.append("-" + (-c));
-      else if (c == -1) sb.append("-");
-      else if (c > 1) sb.append(c);
-      sb.append("x" + (degree() > 1 ? "^" + degree() : ""));
-      for (int d = degree() - 1; d > 0; d--) {
-        c = coefficient[d];
-        if (c == 0) continue;
-        if (c < -1) sb.append(" - " + (-c));
-        else if (c == -1) sb.append(" - ");
-        else if (c == 1) sb.append(" + ");
-        else sb.append(" + " + c);
-        sb.append("x" + (d > 1 ? "^" + d : ""));
-      }
-      c = coefficient[0];
-      if (c > 0) sb.append(" + " + c);
-      else if (c < 0) sb.append(" - " + (-c));
-      return sb.toString();
-    } else return "Poly: " + coefficient[0];
+    try {
+      return appendTo(new StringBuilder()).toString();
+    } catch (IOException cantHappen) { // a StringBuilder never throws IOException
+      throw new UncheckedIOException(cantHappen);
+    }
   }
 }
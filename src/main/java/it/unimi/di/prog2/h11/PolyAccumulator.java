@@ -0,0 +1,245 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A mutable dense polynomial, used to accumulate the result of many operations without
+ * allocating an intermediate {@link Poly} for each of them.
+ *
+ * <p>The coefficients are kept in a growable array of {@code int}s, that is modified in place by
+ * {@link #addInPlace(Poly)}, {@link #subInPlace(Poly)} and {@link #addScaledInPlace(Poly, int,
+ * int)}; {@link #freeze()} returns the accumulated value as an immutable {@link Poly}. As in {@link
+ * Poly}, the coefficients are computed modulo \( 2^{32} \).
+ */
+public class PolyAccumulator {
+
+  /** The buffer of coefficients, {@code coefficient[i]} is the coefficient of \( x^i \). */
+  private int[] coefficient;
+
+  /** The number of meaningful elements of {@link #coefficient}. */
+  private int length;
+
+  /** Whether {@link #coefficient} is shared with a {@link Poly} returned by {@link #freeze()}. */
+  private boolean shared;
+
+  /*-
+   * AF:
+   *
+   *  AF(coefficient, length) = \sum_{i < length} coefficient[i] x^i
+   *
+   * RI:
+   *
+   *  - coefficient != null and 1 <= length <= coefficient.length,
+   *  - shared ⇒ coefficient must not be modified (it is the array of a Poly).
+   *
+   * Observe that coefficient[length - 1] can be zero, the polynomial is trimmed only by freeze.
+   */
+
+  /** Builds an accumulator equal to the zero polynomial, that is \( p = 0 \). */
+  public PolyAccumulator() {
+    coefficient = new int[16];
+    length = 1;
+  }
+
+  /**
+   * Builds an accumulator equal to a given polynomial.
+   *
+   * @param p the initial value.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public PolyAccumulator(Poly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    coefficient = p.coefficientArray();
+    length = coefficient.length;
+    shared = true;
+  }
+
+  /**
+   * Makes the buffer private and large enough for a given number of coefficients.
+   *
+   * @param len the number of coefficients.
+   */
+  private void ensure(int len) {
+    if (shared || len > coefficient.length) {
+      final int capacity =
+          len > coefficient.length ? Math.max(len, 2 * coefficient.length) : coefficient.length;
+      coefficient = Arrays.copyOf(coefficient, capacity);
+      shared = false;
+    }
+    if (len > length) {
+      Arrays.fill(coefficient, length, len, 0);
+      length = len;
+    }
+  }
+
+  /**
+   * Returns the number of coefficients up to the last non-zero one.
+   *
+   * @return the degree of this polynomial plus one.
+   */
+  private int trimmedLength() {
+    int n = length;
+    while (n > 1 && coefficient[n - 1] == 0) n--;
+    return n;
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero
+   *     polynomial.
+   */
+  public int degree() {
+    return trimmedLength() - 1;
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   */
+  public int coeff(int d) {
+    return d < 0 || d >= length ? 0 : coefficient[d];
+  }
+
+  /**
+   * Adds a polynomial to this one.
+   *
+   * @param q the polynomial to add.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public PolyAccumulator addInPlace(Poly q) throws NullPointerException {
+    return addScaledInPlace(q, 1, 0);
+  }
+
+  /**
+   * Subtracts a polynomial from this one.
+   *
+   * @param q the polynomial to subtract.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public PolyAccumulator subInPlace(Poly q) throws NullPointerException {
+    return addScaledInPlace(q, -1, 0);
+  }
+
+  /**
+   * Adds a multiple of a polynomial, shifted by a power of \( x \), to this one.
+   *
+   * <p>If \( p \) is this polynomial, it becomes \( p + c x^s q \).
+   *
+   * @param q the polynomial to scale and add.
+   * @param c the scale factor \( c \).
+   * @param shift the exponent \( s \) of the power of \( x \).
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws NegativeExponentException if {@code shift} &lt; 0.
+   * @throws IllegalArgumentException if the degree of the result does not fit in an array.
+   */
+  public PolyAccumulator addScaledInPlace(Poly q, int c, int shift)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (shift < 0) throw new NegativeExponentException("The shift cannot be negative.");
+    if (q.degree() >= Integer.MAX_VALUE - 8 - shift)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final int[] a = q.coefficientArray();
+    if (c == 0 || a.length == 1 && a[0] == 0) return this;
+    ensure(a.length + shift);
+    for (int i = 0; i < a.length; i++) coefficient[i + shift] += c * a[i];
+    return this;
+  }
+
+  /**
+   * Multiplies this polynomial by another one.
+   *
+   * <p>The product is computed by {@link PolyMultiplier#DEFAULT} and its array becomes the new
+   * buffer of this accumulator.
+   *
+   * @param q the polynomial to multiply by.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public PolyAccumulator mulInPlace(Poly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final int[] b = q.coefficientArray();
+    final int n = trimmedLength();
+    if (b.length == 1 && b[0] == 0 || n == 1 && coefficient[0] == 0) return clear();
+    final int[] a = n == coefficient.length ? coefficient : Arrays.copyOf(coefficient, n);
+    coefficient = PolyMultiplier.DEFAULT.multiply(a, b);
+    length = coefficient.length;
+    shared = false;
+    return this;
+  }
+
+  /**
+   * Sets this polynomial to zero.
+   *
+   * @return this accumulator.
+   */
+  public PolyAccumulator clear() {
+    ensure(1);
+    length = 1;
+    coefficient[0] = 0;
+    return this;
+  }
+
+  /**
+   * Returns the accumulated polynomial.
+   *
+   * <p>If the buffer has exactly the size of the result, it is not copied but shared with the
+   * returned {@link Poly}; in this case it will be copied by the next modification of this
+   * accumulator, that can hence be used after this call.
+   *
+   * @return the immutable polynomial equal to this one.
+   */
+  public Poly freeze() {
+    final int n = trimmedLength();
+    if (n < coefficient.length) return new Poly(Arrays.copyOf(coefficient, n));
+    shared = true;
+    return new Poly(coefficient);
+  }
+
+  @Override
+  public String toString() {
+    final int degree = trimmedLength() - 1;
+    final StringBuilder out = new StringBuilder("PolyAccumulator: ");
+    try { // the buffer is formatted directly, since freeze would mark it as shared
+      if (degree == 0) PolyFormat.appendInt(out, coefficient[0]);
+      else {
+        PolyFormat.appendTerm(out, coefficient[degree], degree, true);
+        for (int d = degree - 1; d >= 0; d--)
+          if (coefficient[d] != 0) PolyFormat.appendTerm(out, coefficient[d], d, false);
+      }
+    } catch (IOException cantHappen) { // a StringBuilder never throws IOException
+      throw new UncheckedIOException(cantHappen);
+    }
+    return out.toString();
+  }
+}
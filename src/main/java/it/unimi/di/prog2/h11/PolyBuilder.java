@@ -0,0 +1,160 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.util.Arrays;
+
+/**
+ * A mutable accumulator of terms, used to build a {@link Poly} or a {@link SparsePoly} out of a
+ * long sequence of terms in linear time.
+ *
+ * <p>Adding a term to a polynomial with {@link SparsePoly#add(SparsePoly)} takes time proportional
+ * to the number of terms of the polynomial, so that building a polynomial one term at a time takes
+ * quadratic time. A builder instead appends the terms to a buffer of primitive {@code long}s, and
+ * sorts and merges them once, when the polynomial is requested.
+ */
+public class PolyBuilder {
+
+  /** The number of bits of a digit of the radix sort. */
+  private static final int RADIX_BITS = 16;
+
+  /** The terms, each packed as its degree in the upper 32 bits and its coefficient in the lower. */
+  private long[] term = new long[16];
+
+  /** The number of terms in {@link #term}. */
+  private int size;
+
+  /** The largest degree of a term in the buffer (or 0). */
+  private int maxDegree;
+
+  /*-
+   * AF:
+   *
+   *  AF(term, size) = \sum_{i < size} (int) term[i] x^(term[i] >>> 32)
+   *
+   * RI:
+   *
+   *  - term != null and size <= term.length,
+   *  - term[i] >>> 32 is in [0, maxDegree] and (int) term[i] != 0 for every i < size.
+   */
+
+  /** Builds an empty builder, that is, one representing the polynomial \( 0 \). */
+  public PolyBuilder() {}
+
+  /**
+   * Adds a term to this builder.
+   *
+   * @param c the coefficient (if 0, the term is ignored).
+   * @param n the degree.
+   * @return this builder.
+   * @throws NegativeExponentException if {@code c} is not zero and {@code n} &lt; 0.
+   */
+  public PolyBuilder add(int c, int n) throws NegativeExponentException {
+    if (c == 0) return this;
+    if (n < 0) throw new NegativeExponentException("A term cannot have a negative exponent.");
+    if (size == term.length) term = Arrays.copyOf(term, 2 * size);
+    term[size++] = (long) n << 32 | c & 0xFFFFFFFFL;
+    if (n > maxDegree) maxDegree = n;
+    return this;
+  }
+
+  /**
+   * Returns the number of terms added to this builder (and not yet merged).
+   *
+   * @return the number of terms in the buffer.
+   */
+  public int size() {
+    return size;
+  }
+
+  /** Removes all the terms from this builder. */
+  public void clear() {
+    size = maxDegree = 0;
+  }
+
+  /**
+   * Returns the (dense) polynomial equal to the sum of the terms added to this builder.
+   *
+   * <p>The coefficients are accumulated directly in the array of the result, in time linear in the
+   * number of terms plus the degree.
+   *
+   * @return the polynomial.
+   */
+  public Poly toPoly() {
+    final int[] c = new int[maxDegree + 1];
+    for (int i = 0; i < size; i++) c[(int) (term[i] >>> 32)] += (int) term[i];
+    return new Poly(c);
+  }
+
+  /**
+   * Returns the sparse polynomial equal to the sum of the terms added to this builder.
+   *
+   * <p>The buffer is sorted by degree with a radix sort (that takes linear time) and the terms
+   * with the same degree are merged; the buffer is left sorted and merged, so that the builder can
+   * still be used.
+   *
+   * @return the polynomial.
+   */
+  public SparsePoly toSparsePoly() {
+    sort();
+    int k = 0;
+    for (int i = 0; i < size; ) {
+      final long d = term[i] >>> 32;
+      int c = 0;
+      do c += (int) term[i++];
+      while (i < size && term[i] >>> 32 == d);
+      if (c != 0) term[k++] = d << 32 | c & 0xFFFFFFFFL;
+    }
+    size = k;
+    final int[] rd = new int[k], rc = new int[k];
+    for (int i = 0; i < k; i++) {
+      rd[i] = (int) (term[i] >>> 32);
+      rc[i] = (int) term[i];
+    }
+    return new SparsePoly(rd, rc, k);
+  }
+
+  /** Sorts the buffer by degree, with an LSD radix sort on the digits of the degrees. */
+  private void sort() {
+    long[] from = term, to = null;
+    final int mask = (1 << RADIX_BITS) - 1;
+    final int[] count = new int[1 << RADIX_BITS];
+    for (int shift = 32; shift < Long.SIZE; shift += RADIX_BITS) {
+      if (maxDegree >>> (shift - 32) == 0) break; // the remaining digits are all zero
+      Arrays.fill(count, 0);
+      for (int i = 0; i < size; i++) count[(int) (from[i] >>> shift) & mask]++;
+      if (count[(int) (from[0] >>> shift) & mask] == size) continue; // a single digit value
+      for (int i = 0, sum = 0; i < count.length; i++) {
+        final int t = count[i];
+        count[i] = sum;
+        sum += t;
+      }
+      if (to == null) to = new long[from.length];
+      for (int i = 0; i < size; i++) to[count[(int) (from[i] >>> shift) & mask]++] = from[i];
+      final long[] t = from;
+      from = to;
+      to = t;
+    }
+    term = from;
+  }
+}
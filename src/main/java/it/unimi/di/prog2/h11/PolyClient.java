@@ -21,7 +21,8 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 
 package it.unimi.di.prog2.h11;
 
-import java.util.Scanner;
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.io.IOException;
 
 /** A class to test some methods of {@link Poly}. */
 public class PolyClient {
@@ -37,16 +38,22 @@ public class PolyClient {
    * \), emitting in the standard output the pairs "coefficient degree" for every term in the result
    * (in increasing order of degree).
    *
+   * <p>The terms are read by a {@link TermReader} and summed by a {@link PolyBuilder}, so that the
+   * time is linear in the size of the input (plus the degree of the result).
+   *
    * @param args not used.
+   * @throws IOException if an I/O error occurs.
    */
-  public static void main(String[] args) {
-    Poly result = new Poly();
-    try (Scanner s = new Scanner(System.in)) {
-      while (s.hasNextInt()) {
-        Poly term = new Poly(s.nextInt(), s.nextInt());
-        result = result.add(term);
+  public static void main(String[] args) throws IOException {
+    final PolyBuilder builder = new PolyBuilder();
+    try (TermReader in = new TermReader(System.in)) {
+      while (in.next()) {
+        if (in.degree() < 0)
+          throw new NegativeExponentException("Can't create a monomial with negative exponent");
+        builder.add(in.coefficient(), in.degree());
       }
     }
+    final Poly result = builder.toPoly();
     for (int d = 0; d <= result.degree(); d++) System.out.println(result.coeff(d) + " " + d);
   }
 }
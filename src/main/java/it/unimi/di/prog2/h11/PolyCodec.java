@@ -0,0 +1,392 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A compact binary encoding of {@link Poly}s and {@link SparsePoly}s.
+ *
+ * <p>An encoded polynomial is made of:
+ *
+ * <ul>
+ *   <li>a flag byte, that is {@value #DENSE} for a dense polynomial and {@value #SPARSE} for a
+ *       sparse one,
+ *   <li>the degree, as a varint,
+ *   <li>for a dense polynomial, the degree + 1 coefficients (in increasing degree order) as
+ *       zig-zag varints,
+ *   <li>for a sparse polynomial, the number of terms as a varint followed, for every term (in
+ *       increasing degree order), by the difference among its degree and the degree of the
+ *       previous term (or 0, for the first term) as a varint and by its coefficient as a zig-zag
+ *       varint.
+ * </ul>
+ *
+ * <p>A <em>varint</em> is the usual little-endian base 128 encoding of an unsigned {@code int},
+ * where the most significant bit of every byte tells whether another byte follows; a
+ * <em>zig-zag</em> varint is the varint of \( 2c \) if \( c \ge 0 \) and of \( -2c - 1 \)
+ * otherwise, so that small negative coefficients take few bytes.
+ *
+ * <p>Since the degree precedes the coefficients, it can be read without decoding the whole
+ * polynomial; the same holds for single coefficients, see {@link #coeff(ByteBuffer, int, int)}.
+ */
+public class PolyCodec {
+
+  /** The flag of a dense polynomial. */
+  public static final byte DENSE = 1;
+
+  /** The flag of a sparse polynomial. */
+  public static final byte SPARSE = 2;
+
+  /** . */
+  private PolyCodec() {}
+
+  /**
+   * Returns the length of the varint encoding of an {@code int}.
+   *
+   * @param x the value, interpreted as unsigned.
+   * @return the number of bytes of its encoding.
+   */
+  private static int varintLength(int x) {
+    return (Integer.SIZE - Integer.numberOfLeadingZeros(x | 1) + 6) / 7;
+  }
+
+  /**
+   * Returns the zig-zag encoding of an {@code int}.
+   *
+   * @param c the value.
+   * @return its zig-zag encoding.
+   */
+  private static int zigZag(int c) {
+    return (c << 1) ^ (c >> 31);
+  }
+
+  /**
+   * Writes a varint.
+   *
+   * @param x the value, interpreted as unsigned.
+   * @param out the buffer where to write it.
+   */
+  private static void writeVarint(int x, ByteBuffer out) {
+    while ((x & ~0x7F) != 0) {
+      out.put((byte) (x & 0x7F | 0x80));
+      x >>>= 7;
+    }
+    out.put((byte) x);
+  }
+
+  /**
+   * Reads a varint.
+   *
+   * @param in the buffer where to read it.
+   * @return the value.
+   * @throws IllegalArgumentException if the varint is longer than 5 bytes.
+   */
+  private static int readVarint(ByteBuffer in) throws IllegalArgumentException {
+    int x = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      final byte b = in.get();
+      x |= (b & 0x7F) << shift;
+      if (b >= 0) return x;
+    }
+    throw new IllegalArgumentException("Malformed varint.");
+  }
+
+  /**
+   * Reads a zig-zag varint.
+   *
+   * @param in the buffer where to read it.
+   * @return the value.
+   * @throws IllegalArgumentException if the varint is longer than 5 bytes.
+   */
+  private static int readZigZag(ByteBuffer in) throws IllegalArgumentException {
+    final int x = readVarint(in);
+    return (x >>> 1) ^ -(x & 1);
+  }
+
+  /**
+   * Returns the length of the encoding of a polynomial.
+   *
+   * @param p the polynomial.
+   * @return the number of bytes of its encoding.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public static int encodedLength(Poly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    int length = 1 + varintLength(p.degree());
+    for (int d = 0; d <= p.degree(); d++) length += varintLength(zigZag(p.coeff(d)));
+    return length;
+  }
+
+  /**
+   * Returns the length of the encoding of a polynomial.
+   *
+   * @param p the polynomial.
+   * @return the number of bytes of its encoding.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public static int encodedLength(SparsePoly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    int length = 1 + varintLength(p.degree()) + varintLength(p.termCount());
+    for (int i = 0, prev = 0; i < p.termCount(); prev = p.degreeAt(i++))
+      length += varintLength(p.degreeAt(i) - prev) + varintLength(zigZag(p.coefficientAt(i)));
+    return length;
+  }
+
+  /**
+   * Encodes a polynomial.
+   *
+   * @param p the polynomial.
+   * @return its encoding.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public static byte[] encode(Poly p) throws NullPointerException {
+    final byte[] a = new byte[encodedLength(p)];
+    encode(p, ByteBuffer.wrap(a));
+    return a;
+  }
+
+  /**
+   * Encodes a polynomial.
+   *
+   * @param p the polynomial.
+   * @return its encoding.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public static byte[] encode(SparsePoly p) throws NullPointerException {
+    final byte[] a = new byte[encodedLength(p)];
+    encode(p, ByteBuffer.wrap(a));
+    return a;
+  }
+
+  /**
+   * Encodes a polynomial into a buffer, starting from its current position.
+   *
+   * @param p the polynomial.
+   * @param out the buffer, with at least {@link #encodedLength(Poly)} remaining bytes.
+   * @throws NullPointerException if {@code p} or {@code out} is {@code null}.
+   * @throws java.nio.BufferOverflowException if there is not enough space in the buffer.
+   */
+  public static void encode(Poly p, ByteBuffer out) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    Objects.requireNonNull(out, "The buffer must not be null.");
+    out.put(DENSE);
+    writeVarint(p.degree(), out);
+    for (int d = 0; d <= p.degree(); d++) writeVarint(zigZag(p.coeff(d)), out);
+  }
+
+  /**
+   * Encodes a polynomial into a buffer, starting from its current position.
+   *
+   * @param p the polynomial.
+   * @param out the buffer, with at least {@link #encodedLength(SparsePoly)} remaining bytes.
+   * @throws NullPointerException if {@code p} or {@code out} is {@code null}.
+   * @throws java.nio.BufferOverflowException if there is not enough space in the buffer.
+   */
+  public static void encode(SparsePoly p, ByteBuffer out) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    Objects.requireNonNull(out, "The buffer must not be null.");
+    out.put(SPARSE);
+    writeVarint(p.degree(), out);
+    writeVarint(p.termCount(), out);
+    for (int i = 0, prev = 0; i < p.termCount(); prev = p.degreeAt(i++)) {
+      writeVarint(p.degreeAt(i) - prev, out);
+      writeVarint(zigZag(p.coefficientAt(i)), out);
+    }
+  }
+
+  /**
+   * Reads the flag byte of an encoded polynomial, advancing the buffer past it.
+   *
+   * @param in the buffer.
+   * @return whether the polynomial is dense.
+   * @throws IllegalArgumentException if the flag is not valid.
+   */
+  private static boolean readHeader(ByteBuffer in) throws IllegalArgumentException {
+    final byte flag = in.get();
+    if (flag != DENSE && flag != SPARSE)
+      throw new IllegalArgumentException("Unknown polynomial flag " + flag + ".");
+    return flag == DENSE;
+  }
+
+  /**
+   * Decodes the dense coefficients of an encoded polynomial, reading it from the current position
+   * of a buffer (and advancing it past the encoding).
+   *
+   * @param in the buffer.
+   * @return the coefficients, in the trimmed form used by {@link Poly#Poly(int[])}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   */
+  private static int[] decodeCoefficients(ByteBuffer in) throws IllegalArgumentException {
+    final boolean dense = readHeader(in);
+    final int degree = readVarint(in);
+    if (degree < 0) throw new IllegalArgumentException("Malformed degree.");
+    if (dense) {
+      // every coefficient takes at least a byte, so the degree is checked before allocating
+      if (degree >= in.remaining()) throw new IllegalArgumentException("Malformed degree.");
+      final int[] c = new int[degree + 1];
+      for (int d = 0; d <= degree; d++) c[d] = readZigZag(in);
+      if (degree > 0 && c[degree] == 0) throw new IllegalArgumentException("Malformed degree.");
+      return c;
+    }
+    final int n = readVarint(in);
+    if (n < 0 || n > in.remaining() / 2) throw new IllegalArgumentException("Malformed length.");
+    // the terms are scanned before allocating, so that the degree is checked against the last one
+    final ByteBuffer terms = in.duplicate();
+    int last = 0;
+    for (int i = 0; i < n; i++) {
+      last += readVarint(terms);
+      readZigZag(terms);
+      if (last < 0 || last > degree) throw new IllegalArgumentException("Malformed degree.");
+    }
+    if (last != degree) throw new IllegalArgumentException("Malformed degree.");
+    if (degree == Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The degree is too large for a dense polynomial.");
+    final int[] c = new int[degree + 1];
+    int d = 0;
+    for (int i = 0; i < n; i++) {
+      d += readVarint(in);
+      c[d] = readZigZag(in);
+    }
+    if (degree > 0 && c[degree] == 0) throw new IllegalArgumentException("Malformed degree.");
+    return c;
+  }
+
+  /**
+   * Decodes a {@link Poly}, reading it from the current position of a buffer (and advancing it past
+   * the encoding).
+   *
+   * <p>Sparse encodings are converted to the dense representation.
+   *
+   * @param in the buffer.
+   * @return the decoded polynomial.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   * @throws java.nio.BufferUnderflowException if the encoding is truncated.
+   */
+  public static Poly decodePoly(ByteBuffer in)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(in, "The buffer must not be null.");
+    return new Poly(decodeCoefficients(in));
+  }
+
+  /**
+   * Decodes a {@link SparsePoly}, reading it from the current position of a buffer (and advancing
+   * it past the encoding).
+   *
+   * <p>Dense encodings are converted to the sparse representation.
+   *
+   * @param in the buffer.
+   * @return the decoded polynomial.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   * @throws java.nio.BufferUnderflowException if the encoding is truncated.
+   */
+  public static SparsePoly decodeSparsePoly(ByteBuffer in)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(in, "The buffer must not be null.");
+    final int start = in.position();
+    if (readHeader(in)) {
+      in.position(start);
+      return SparsePoly.fromDense(decodeCoefficients(in));
+    }
+    final int degree = readVarint(in), n = readVarint(in);
+    if (n < 0 || n > in.remaining() / 2) throw new IllegalArgumentException("Malformed length.");
+    final int[] rd = new int[n], rc = new int[n];
+    for (int i = 0, d = 0; i < n; i++) {
+      d += readVarint(in);
+      rc[i] = readZigZag(in);
+      if (d < 0 || i > 0 && d <= rd[i - 1] || rc[i] == 0)
+        throw new IllegalArgumentException("Malformed term.");
+      rd[i] = d;
+    }
+    if (n > 0 ? rd[n - 1] != degree : degree != 0)
+      throw new IllegalArgumentException("Malformed degree.");
+    return new SparsePoly(rd, rc, n);
+  }
+
+  /**
+   * Tells whether the polynomial encoded at a given offset of a buffer is dense.
+   *
+   * @param in the buffer (whose position is not changed).
+   * @param offset the offset of the encoding.
+   * @return whether the encoded polynomial is dense.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   */
+  public static boolean isDense(ByteBuffer in, int offset)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(in, "The buffer must not be null.");
+    return readHeader(in.duplicate().position(offset));
+  }
+
+  /**
+   * Returns the degree of the polynomial encoded at a given offset of a buffer.
+   *
+   * @param in the buffer (whose position is not changed).
+   * @param offset the offset of the encoding.
+   * @return the degree of the encoded polynomial.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   */
+  public static int degree(ByteBuffer in, int offset)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(in, "The buffer must not be null.");
+    final ByteBuffer b = in.duplicate().position(offset);
+    readHeader(b);
+    return readVarint(b);
+  }
+
+  /**
+   * Returns a coefficient of the polynomial encoded at a given offset of a buffer.
+   *
+   * <p>The encoding is scanned just up to the requested coefficient, without allocating the
+   * coefficients of the polynomial.
+   *
+   * @param in the buffer (whose position is not changed).
+   * @param offset the offset of the encoding.
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   * @throws IllegalArgumentException if the encoding is malformed.
+   */
+  public static int coeff(ByteBuffer in, int offset, int d)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(in, "The buffer must not be null.");
+    final ByteBuffer b = in.duplicate().position(offset);
+    final boolean dense = readHeader(b);
+    final int degree = readVarint(b);
+    if (d < 0 || d > degree) return 0;
+    if (dense) {
+      for (int i = 0; i < d; i++) readVarint(b);
+      return readZigZag(b);
+    }
+    final int n = readVarint(b);
+    for (int i = 0, e = 0; i < n; i++) {
+      e += readVarint(b);
+      if (e > d) return 0;
+      final int c = readZigZag(b);
+      if (e == d) return c;
+    }
+    return 0;
+  }
+}
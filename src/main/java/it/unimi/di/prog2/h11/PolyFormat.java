@@ -0,0 +1,90 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.io.IOException;
+
+/**
+ * Utility methods to write the textual representation of polynomials, shared by {@link
+ * Poly#appendTo(Appendable)} and {@link SparsePoly#appendTo(Appendable)}.
+ *
+ * <p>The methods write directly to an {@link Appendable} one character (or constant string) at a
+ * time, so that no temporary string is created.
+ */
+class PolyFormat {
+
+  /** . */
+  private PolyFormat() {}
+
+  /**
+   * Writes the decimal representation of an {@code int}, as {@link Integer#toString(int)}.
+   *
+   * @param out where to write.
+   * @param v the value.
+   * @throws IOException if {@code out} throws it.
+   */
+  static void appendInt(Appendable out, int v) throws IOException {
+    long x = v;
+    if (x < 0) {
+      out.append('-');
+      x = -x;
+    }
+    long p = 1;
+    while (p * 10 <= x) p *= 10;
+    for (; p > 0; p /= 10) out.append((char) ('0' + x / p % 10));
+  }
+
+  /**
+   * Writes a non-zero term of a polynomial of positive degree.
+   *
+   * <p>The leading term is written with its sign only if negative, the other ones are preceded by
+   * {@code " + "} or {@code " - "}; coefficients equal to \( \pm 1 \) are omitted (but for the
+   * constant term), as is the exponent 1.
+   *
+   * @param out where to write.
+   * @param c the coefficient.
+   * @param d the degree, positive if {@code leading}.
+   * @param leading whether the term is the leading one.
+   * @throws IOException if {@code out} throws it.
+   */
+  static void appendTerm(Appendable out, int c, int d, boolean leading) throws IOException {
+    if (d == 0) {
+      out.append(c > 0 ? " + " : " - ");
+      appendInt(out, c > 0 ? c : -c);
+      return;
+    }
+    if (leading) {
+      if (c < 0) out.append('-');
+      if (c < -1) appendInt(out, -c);
+      else if (c > 1) appendInt(out, c);
+    } else {
+      out.append(c < 0 ? " - " : " + ");
+      if (c < -1) appendInt(out, -c);
+      else if (c > 1) appendInt(out, c);
+    }
+    out.append('x');
+    if (d > 1) {
+      out.append('^');
+      appendInt(out, d);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Scanner;
+
+/** A class to test the multiplication of {@link Poly}. */
+public class PolyMulClient {
+
+  /** . */
+  private PolyMulClient() {}
+
+  /**
+   * Tests the multiplication of {@link Poly}.
+   *
+   * <p>This method reads from standard input two polynomials \( p \) and \( q \), given as lists of
+   * (coefficient, degree) pairs separated by a {@code *}, and emits in the standard output the
+   * pairs "coefficient degree" for every term with non-zero coefficient (in increasing order of
+   * degree) of the product \( p \cdot q \). The degrees can be large, so that the product is
+   * computed with the NTT.
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final PolyBuilder p = new PolyBuilder(), q = new PolyBuilder();
+    try (Scanner s = new Scanner(System.in)) {
+      while (s.hasNextInt()) p.add(s.nextInt(), s.nextInt());
+      if (s.hasNext()) s.next(); // the separator
+      while (s.hasNextInt()) q.add(s.nextInt(), s.nextInt());
+    }
+    final Poly result = p.toPoly().mul(q.toPoly());
+    for (int d = 0; d <= result.degree(); d++)
+      if (result.coeff(d) != 0) System.out.println(result.coeff(d) + " " + d);
+  }
+}
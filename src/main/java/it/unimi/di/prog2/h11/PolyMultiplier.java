@@ -0,0 +1,563 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@code PolyMultiplier} computes the product of two coefficient arrays choosing among
+ * <em>schoolbook</em>, <em>Karatsuba</em> and <em>number-theoretic transform</em> (NTT)
+ * multiplication according to the length of the operands.
+ *
+ * <p>All the algorithms compute the coefficients of the product exactly modulo \( 2^{32} \), that
+ * is they return exactly the same (possibly overflown) {@code int}s that the schoolbook algorithm
+ * would compute. The NTT is performed modulo three primes and the result is reconstructed via the
+ * Chinese remainder theorem (using Garner's algorithm).
+ *
+ * <p>Instances are immutable and hence can be shared among threads.
+ */
+public class PolyMultiplier {
+
+  /** The multiplier used by default by {@link Poly#mul(Poly)}. */
+  public static final PolyMultiplier DEFAULT = new PolyMultiplier(32, 1024);
+
+  /**
+   * The minimum length of the shorter operand for {@link #multiplyParallel(int[], int[],
+   * ForkJoinPool)} to split the product in parallel tasks.
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  /** The NTT primes, their product exceeds \( 2^{92} \). */
+  private static final long[] PRIME = {2013265921L, 1811939329L, 2113929217L};
+
+  /** A primitive root for each of the {@link #PRIME}s. */
+  private static final long[] ROOT = {31, 13, 5};
+
+  /** The longest transform supported by all the {@link #PRIME}s (that is \( 2^{25} \)). */
+  static final int MAX_NTT_LENGTH = 1 << 25;
+
+  /** The inverse of {@code PRIME[0]} modulo {@code PRIME[1]}. */
+  private static final long INV_P0_MOD_P1 = powMod(PRIME[0] % PRIME[1], PRIME[1] - 2, PRIME[1]);
+
+  /** The inverse of {@code PRIME[0] * PRIME[1]} modulo {@code PRIME[2]}. */
+  private static final long INV_P0P1_MOD_P2 =
+      powMod((PRIME[0] % PRIME[2]) * (PRIME[1] % PRIME[2]) % PRIME[2], PRIME[2] - 2, PRIME[2]);
+
+  /** The product of the {@link #PRIME}s. */
+  private static final BigInteger MODULUS =
+      BigInteger.valueOf(PRIME[0]).multiply(BigInteger.valueOf(PRIME[1] * PRIME[2]));
+
+  /** The lower 64 bits of {@link #MODULUS}. */
+  private static final long MODULUS_LO = MODULUS.longValue();
+
+  /** The upper 64 bits of {@link #MODULUS}. */
+  private static final long MODULUS_HI = MODULUS.shiftRight(Long.SIZE).longValue();
+
+  /** The lower 64 bits of half of {@link #MODULUS}. */
+  private static final long HALF_LO = MODULUS.shiftRight(1).longValue();
+
+  /** The upper 64 bits of half of {@link #MODULUS}. */
+  private static final long HALF_HI = MODULUS.shiftRight(Long.SIZE + 1).longValue();
+
+  /** The minimum length of the shorter operand for Karatsuba to be used. */
+  private final int karatsubaThreshold;
+
+  /** The minimum length of the shorter operand for the NTT to be used. */
+  private final int nttThreshold;
+
+  /*-
+   * AF:
+   *
+   *  AF(karatsubaThreshold, nttThreshold) = the multiplier using schoolbook
+   *    multiplication if the shorter operand is shorter than karatsubaThreshold, the
+   *    NTT if it is at least nttThreshold long and Karatsuba otherwise.
+   *
+   * RI:
+   *
+   *  - karatsubaThreshold >= 2,
+   *  - nttThreshold >= 1.
+   *
+   */
+
+  /**
+   * Builds a multiplier with the given crossover points.
+   *
+   * <p>If the shorter operand has less than {@code karatsubaThreshold} coefficients the schoolbook
+   * algorithm is used; otherwise, if it has at least {@code nttThreshold} coefficients (and the
+   * product is not too long) the NTT is used, and Karatsuba in all the other cases. To disable
+   * Karatsuba (or the NTT) it is hence sufficient to use {@link Integer#MAX_VALUE} as the
+   * corresponding threshold.
+   *
+   * @param karatsubaThreshold the Karatsuba crossover, must be at least 2.
+   * @param nttThreshold the NTT crossover, must be positive.
+   * @throws IllegalArgumentException if the thresholds are out of range.
+   */
+  public PolyMultiplier(int karatsubaThreshold, int nttThreshold) throws IllegalArgumentException {
+    if (karatsubaThreshold < 2)
+      throw new IllegalArgumentException("The Karatsuba threshold must be at least 2.");
+    if (nttThreshold < 1) throw new IllegalArgumentException("The NTT threshold must be positive.");
+    this.karatsubaThreshold = karatsubaThreshold;
+    this.nttThreshold = nttThreshold;
+  }
+
+  /**
+   * Returns the Karatsuba crossover point of this multiplier.
+   *
+   * @return the minimum length of the shorter operand for Karatsuba to be used.
+   */
+  public int karatsubaThreshold() {
+    return karatsubaThreshold;
+  }
+
+  /**
+   * Returns the NTT crossover point of this multiplier.
+   *
+   * @return the minimum length of the shorter operand for the NTT to be used.
+   */
+  public int nttThreshold() {
+    return nttThreshold;
+  }
+
+  /**
+   * Computes the product of two polynomials given as coefficient arrays.
+   *
+   * <p>The coefficient of index {@code i} is the coefficient of \( x^i \); the result has length
+   * {@code a.length + b.length - 1} and its coefficients are computed modulo \( 2^{32} \) (exactly
+   * as the {@code int} arithmetic of the schoolbook algorithm would do). The arguments are not
+   * modified.
+   *
+   * @param a the first operand, must be non empty.
+   * @param b the second operand, must be non empty.
+   * @return the coefficients of the product.
+   * @throws NullPointerException if {@code a} or {@code b} is {@code null}.
+   * @throws IllegalArgumentException if {@code a} or {@code b} is empty.
+   */
+  public int[] multiply(int[] a, int[] b) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(a, "The first operand must not be null.");
+    Objects.requireNonNull(b, "The second operand must not be null.");
+    if (a.length == 0 || b.length == 0)
+      throw new IllegalArgumentException("The operands must not be empty.");
+    final int shorter = Math.min(a.length, b.length);
+    if (shorter < karatsubaThreshold) return schoolbook(a, b);
+    if (shorter >= nttThreshold && a.length + b.length - 1 <= MAX_NTT_LENGTH) return ntt(a, b);
+    return karatsuba(a, b);
+  }
+
+  /**
+   * Multiplies two non empty coefficient arrays with the quadratic algorithm.
+   *
+   * @param a the first operand.
+   * @param b the second operand.
+   * @return the coefficients of the product.
+   */
+  static int[] schoolbook(int[] a, int[] b) {
+    final int[] r = new int[a.length + b.length - 1];
+    for (int i = 0; i < a.length; i++) {
+      final int ai = a[i];
+      if (ai == 0) continue;
+      for (int j = 0; j < b.length; j++) r[i + j] += ai * b[j];
+    }
+    return r;
+  }
+
+  /**
+   * Multiplies two non empty coefficient arrays with Karatsuba's algorithm.
+   *
+   * <p>Unbalanced operands are handled by slicing the longer one in chunks as long as the shorter
+   * one; the recursion stops (switching to {@link #schoolbook(int[], int[])}) once the shorter
+   * operand is below {@link #karatsubaThreshold}. Since the algorithm uses only additions,
+   * subtractions and products, the result is exact modulo \( 2^{32} \).
+   *
+   * @param a the first operand.
+   * @param b the second operand.
+   * @return the coefficients of the product.
+   */
+  int[] karatsuba(int[] a, int[] b) {
+    if (a.length < b.length) return karatsuba(b, a);
+    final int n = a.length, m = b.length;
+    if (m < karatsubaThreshold) return schoolbook(a, b);
+    final int[] r = new int[n + m - 1];
+    if (n >= 2 * m) {
+      for (int off = 0; off < n; off += m) {
+        final int[] part = karatsuba(Arrays.copyOfRange(a, off, Math.min(n, off + m)), b);
+        for (int i = 0; i < part.length; i++) r[off + i] += part[i];
+      }
+      return r;
+    }
+    final int h = n / 2; // since m > n / 2 >= h both halves of b are non empty
+    final int[] a0 = Arrays.copyOfRange(a, 0, h), a1 = Arrays.copyOfRange(a, h, n);
+    final int[] b0 = Arrays.copyOfRange(b, 0, h), b1 = Arrays.copyOfRange(b, h, m);
+    final int[] z0 = karatsuba(a0, b0);
+    final int[] z2 = karatsuba(a1, b1);
+    final int[] z1 = karatsuba(sum(a0, a1), sum(b0, b1));
+    return combine(r, h, z0, z1, z2);
+  }
+
+  /**
+   * Combines the three partial products of a Karatsuba step.
+   *
+   * @param r the array where to store the result, filled with zeros.
+   * @param h the length of the lower halves of the operands.
+   * @param z0 the product of the lower halves.
+   * @param z1 the product of the sums of the halves (modified by this method).
+   * @param z2 the product of the upper halves.
+   * @return the array {@code r}.
+   */
+  private static int[] combine(int[] r, int h, int[] z0, int[] z1, int[] z2) {
+    for (int i = 0; i < z0.length; i++) {
+      r[i] += z0[i];
+      z1[i] -= z0[i];
+    }
+    for (int i = 0; i < z2.length; i++) {
+      r[2 * h + i] += z2[i];
+      z1[i] -= z2[i];
+    }
+    for (int i = 0; i < z1.length && h + i < r.length; i++) r[h + i] += z1[i];
+    return r;
+  }
+
+  /**
+   * Computes the product of two polynomials given as coefficient arrays using a pool of threads.
+   *
+   * <p>The recursion of Karatsuba's algorithm is performed by {@link RecursiveTask}s, so that the
+   * three products of every step (or the products of the chunks of unbalanced operands) are
+   * computed in parallel; once the shorter operand is below {@link #PARALLEL_THRESHOLD}, or there
+   * are at least as many tasks as the parallelism of the pool (since splitting increases the total
+   * work with respect to the NTT), the product is computed sequentially by {@link #multiply(int[],
+   * int[])}. Since the coefficients are exact modulo \( 2^{32} \), the result is identical to the
+   * one of {@link #multiply(int[], int[])}.
+   *
+   * @param a the first operand, must be non empty.
+   * @param b the second operand, must be non empty.
+   * @param pool the pool where to run the tasks.
+   * @return the coefficients of the product.
+   * @throws NullPointerException if {@code a}, {@code b} or {@code pool} is {@code null}.
+   * @throws IllegalArgumentException if {@code a} or {@code b} is empty.
+   */
+  public int[] multiplyParallel(int[] a, int[] b, ForkJoinPool pool)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(a, "The first operand must not be null.");
+    Objects.requireNonNull(b, "The second operand must not be null.");
+    Objects.requireNonNull(pool, "The pool must not be null.");
+    if (a.length == 0 || b.length == 0)
+      throw new IllegalArgumentException("The operands must not be empty.");
+    if (Math.min(a.length, b.length) < PARALLEL_THRESHOLD || pool.getParallelism() == 1)
+      return multiply(a, b);
+    return pool.invoke(new KaratsubaTask(a, b, pool.getParallelism()));
+  }
+
+  /** A task computing a product by the (parallel) Karatsuba's algorithm. */
+  private class KaratsubaTask extends RecursiveTask<int[]> {
+
+    /** The serial version. */
+    static final long serialVersionUID = 1L;
+
+    /** The first operand. */
+    private final int[] a;
+
+    /** The second operand. */
+    private final int[] b;
+
+    /** The number of threads available to this task and its subtasks. */
+    private final int threads;
+
+    /**
+     * Builds a task.
+     *
+     * @param a the first operand.
+     * @param b the second operand.
+     * @param threads the number of threads available to this task and its subtasks.
+     */
+    KaratsubaTask(int[] a, int[] b, int threads) {
+      this.a = a.length >= b.length ? a : b;
+      this.b = a.length >= b.length ? b : a;
+      this.threads = threads;
+    }
+
+    @Override
+    protected int[] compute() {
+      final int n = a.length, m = b.length;
+      if (m < PARALLEL_THRESHOLD || threads <= 1) return multiply(a, b);
+      final int[] r = new int[n + m - 1];
+      if (n >= 2 * m) {
+        final KaratsubaTask[] part = new KaratsubaTask[(n + m - 1) / m];
+        final int t = (threads + part.length - 1) / part.length;
+        for (int k = 0; k < part.length; k++)
+          part[k] = new KaratsubaTask(Arrays.copyOfRange(a, k * m, Math.min(n, k * m + m)), b, t);
+        invokeAll(part);
+        for (int k = 0; k < part.length; k++) {
+          final int[] z = part[k].join();
+          for (int i = 0; i < z.length; i++) r[k * m + i] += z[i];
+        }
+        return r;
+      }
+      final int h = n / 2;
+      final int[] a0 = Arrays.copyOfRange(a, 0, h), a1 = Arrays.copyOfRange(a, h, n);
+      final int[] b0 = Arrays.copyOfRange(b, 0, h), b1 = Arrays.copyOfRange(b, h, m);
+      final int t = (threads + 2) / 3;
+      final KaratsubaTask t0 = new KaratsubaTask(a0, b0, t), t2 = new KaratsubaTask(a1, b1, t);
+      final KaratsubaTask t1 = new KaratsubaTask(sum(a0, a1), sum(b0, b1), t);
+      invokeAll(t0, t1, t2);
+      return combine(r, h, t0.join(), t1.join(), t2.join());
+    }
+  }
+
+  /**
+   * Returns the coefficient-wise sum of two arrays.
+   *
+   * @param a the first array.
+   * @param b the second array.
+   * @return an array as long as the longest among {@code a} and {@code b} with their sum.
+   */
+  private static int[] sum(int[] a, int[] b) {
+    final int[] s = Arrays.copyOf(a, Math.max(a.length, b.length));
+    for (int i = 0; i < b.length; i++) s[i] += b[i];
+    return s;
+  }
+
+  /**
+   * Computes the product of two polynomials given as coefficient arrays modulo a prime.
+   *
+   * <p>The coefficient of index {@code i} is the coefficient of \( x^i \); the result has length
+   * {@code a.length + b.length - 1} and its coefficients are reduced modulo {@code p}. The
+   * arguments are not modified.
+   *
+   * <p>Long products are computed with the NTT: a single one modulo {@code p} if a large enough
+   * power of two divides \( p - 1 \) (see {@link Montgomery#supportsNtt(int, int)}), otherwise the
+   * three primes one followed by a reduction modulo {@code p}. Short products are computed by the
+   * schoolbook method, accumulating the products of the Montgomery form of {@code a} by {@code b}
+   * and performing a single Montgomery reduction per coefficient.
+   *
+   * @param a the first operand, must be non empty and with coefficients in \( [0, p) \).
+   * @param b the second operand, must be non empty and with coefficients in \( [0, p) \).
+   * @param p the modulus, a prime.
+   * @return the coefficients of the product, in \( [0, p) \).
+   */
+  int[] multiplyMod(int[] a, int[] b, int p) {
+    final int len = a.length + b.length - 1;
+    if (Math.min(a.length, b.length) >= nttThreshold) {
+      if (Montgomery.supportsNtt(p, len)) return Montgomery.of(p).multiply(a, b);
+      if (len <= MAX_NTT_LENGTH) return ntt(a, b, p);
+    }
+    final int[] result = new int[len];
+    if (p == 2) { // the coefficients are bits, and adding is xoring
+      for (int i = 0; i < a.length; i++)
+        if (a[i] != 0) for (int j = 0; j < b.length; j++) result[i + j] ^= b[j];
+      return result;
+    }
+    final Montgomery field = Montgomery.of(p);
+    final long bound = (long) p << 31; // every product is less than p^2 < bound
+    final long[] r = new long[len]; // r[k] < bound, so r[k] + a product is less than p 2^32
+    for (int i = 0; i < a.length; i++) {
+      final long ai = field.toMontgomery(a[i]);
+      if (ai == 0) continue;
+      for (int j = 0; j < b.length; j++) {
+        final long v = r[i + j] + ai * b[j];
+        r[i + j] = v >= bound ? v - bound : v;
+      }
+    }
+    // a is in Montgomery form, so the reduction gives the usual form of the sums
+    for (int i = 0; i < len; i++) result[i] = field.reduce(r[i]);
+    return result;
+  }
+
+  /**
+   * Multiplies two non empty coefficient arrays with a three primes NTT.
+   *
+   * <p>The coefficients are interpreted as unsigned 32 bits values, so that every coefficient of
+   * the exact product is non negative and less than \( \min(n, m) 2^{64} \le 2^{89} \), which is
+   * smaller than the product of the three {@link #PRIME}s; the exact value can hence be
+   * reconstructed via the CRT, and its lower 32 bits coincide with the {@code int} result.
+   *
+   * @param a the first operand.
+   * @param b the second operand, {@code a.length + b.length - 1} must not exceed {@link
+   *     #MAX_NTT_LENGTH}.
+   * @return the coefficients of the product.
+   */
+  static int[] ntt(int[] a, int[] b) {
+    return ntt(a, b, 0);
+  }
+
+  /**
+   * Multiplies two non empty coefficient arrays with a three primes NTT, reducing the result.
+   *
+   * <p>The exact coefficients of the product (of the unsigned interpretation of the operands) are
+   * reconstructed in mixed radix form via Garner's algorithm and then reduced modulo \( 2^{32} \)
+   * (if {@code m} is 0), or modulo {@code m}.
+   *
+   * @param a the first operand.
+   * @param b the second operand, {@code a.length + b.length - 1} must not exceed {@link
+   *     #MAX_NTT_LENGTH}.
+   * @param m the modulus, 0 to mean \( 2^{32} \).
+   * @return the coefficients of the product.
+   */
+  private static int[] ntt(int[] a, int[] b, int m) {
+    final int len = a.length + b.length - 1;
+    final long[][] residue = residues(a, b, false);
+    final long p0 = PRIME[0], p1 = PRIME[1], p2 = PRIME[2];
+    final long p0p1 = p0 * p1; // fits in a long, wraps only in the final reconstruction
+    final int[] r = new int[len];
+    for (int i = 0; i < len; i++) {
+      final long v0 = residue[0][i];
+      final long v1 = Math.floorMod(residue[1][i] - v0, p1) * INV_P0_MOD_P1 % p1;
+      final long t = (v0 % p2 + (p0 % p2) * v1) % p2;
+      final long v2 = Math.floorMod(residue[2][i] - t, p2) * INV_P0P1_MOD_P2 % p2;
+      if (m == 0) r[i] = (int) (v0 + p0 * v1 + p0p1 * v2); // only the lower 32 bits matter
+      else r[i] = (int) ((v0 % m + (p0 % m) * v1 % m + (p0p1 % m) * v2 % m) % m);
+    }
+    return r;
+  }
+
+  /**
+   * Computes the coefficients of the product of two non empty arrays modulo the {@link #PRIME}s.
+   *
+   * @param a the first operand.
+   * @param b the second operand, {@code a.length + b.length - 1} must not exceed {@link
+   *     #MAX_NTT_LENGTH}.
+   * @param signed whether the coefficients are interpreted as signed, or unsigned, 32 bits values.
+   * @return the residues, {@code residue[k][i]} is the coefficient of \( x^i \) modulo {@code
+   *     PRIME[k]}.
+   */
+  private static long[][] residues(int[] a, int[] b, boolean signed) {
+    final int len = a.length + b.length - 1;
+    final int size = Integer.highestOneBit(len) == len ? len : Integer.highestOneBit(len) << 1;
+    final long[][] residue = new long[PRIME.length][];
+    for (int k = 0; k < PRIME.length; k++) {
+      final long p = PRIME[k];
+      final long[] fa = new long[size], fb = new long[size];
+      for (int i = 0; i < a.length; i++)
+        fa[i] = Math.floorMod(signed ? a[i] : a[i] & 0xFFFFFFFFL, p);
+      for (int i = 0; i < b.length; i++)
+        fb[i] = Math.floorMod(signed ? b[i] : b[i] & 0xFFFFFFFFL, p);
+      transform(fa, false, p, ROOT[k]);
+      transform(fb, false, p, ROOT[k]);
+      for (int i = 0; i < size; i++) fa[i] = fa[i] * fb[i] % p;
+      transform(fa, true, p, ROOT[k]);
+      residue[k] = fa;
+    }
+    return residue;
+  }
+
+  /**
+   * Multiplies two non empty coefficient arrays exactly, with a three primes NTT.
+   *
+   * <p>The coefficients of the exact product are less than \( \min(n, m) 2^{62} \le 2^{87} \) in
+   * absolute value, hence smaller than half of the product of the {@link #PRIME}s; they are
+   * reconstructed via Garner's algorithm as non negative 128 bits values and then moved to the
+   * symmetric range, so that no overflow can go undetected and no {@link BigInteger} is needed.
+   *
+   * @param a the first operand.
+   * @param b the second operand, {@code a.length + b.length - 1} must not exceed {@link
+   *     #MAX_NTT_LENGTH}.
+   * @return the exact coefficients of the product as 128 bits two's complement values, the lower
+   *     64 bits in {@code result[0]} and the upper ones in {@code result[1]}.
+   */
+  static long[][] multiplyExact(int[] a, int[] b) {
+    final int len = a.length + b.length - 1;
+    final long[][] residue = residues(a, b, true);
+    final long p0 = PRIME[0], p1 = PRIME[1], p2 = PRIME[2];
+    final long p0p1 = p0 * p1;
+    final long[] lo = new long[len], hi = new long[len];
+    for (int i = 0; i < len; i++) {
+      final long v0 = residue[0][i];
+      final long v1 = Math.floorMod(residue[1][i] - v0, p1) * INV_P0_MOD_P1 % p1;
+      final long t = (v0 % p2 + (p0 % p2) * v1) % p2;
+      final long v2 = Math.floorMod(residue[2][i] - t, p2) * INV_P0P1_MOD_P2 % p2;
+      // v0 + p0 v1 < p0 p1 < 2^62, to which p0 p1 v2 < 2^93 is added in 128 bits
+      final long low = v0 + p0 * v1, prodLo = p0p1 * v2;
+      long l = prodLo + low, h = Math.multiplyHigh(p0p1, v2);
+      if (Long.compareUnsigned(l, prodLo) < 0) h++;
+      if (h > HALF_HI || h == HALF_HI && Long.compareUnsigned(l, HALF_LO) > 0) {
+        final long borrow = Long.compareUnsigned(l, MODULUS_LO) < 0 ? 1 : 0;
+        l -= MODULUS_LO;
+        h -= MODULUS_HI + borrow;
+      }
+      lo[i] = l;
+      hi[i] = h;
+    }
+    return new long[][] {lo, hi};
+  }
+
+  /**
+   * Performs in place an iterative radix-2 NTT (or its inverse) modulo a prime.
+   *
+   * @param f the values, reduced modulo {@code p}, whose length is a power of two dividing {@code p
+   *     - 1}.
+   * @param invert whether to compute the inverse transform.
+   * @param p the prime, less than \( 2^{31} \).
+   * @param g a primitive root modulo {@code p}.
+   */
+  static void transform(long[] f, boolean invert, long p, long g) {
+    final int n = f.length;
+    for (int i = 1, j = 0; i < n; i++) {
+      int bit = n >> 1;
+      for (; (j & bit) != 0; bit >>= 1) j ^= bit;
+      j ^= bit;
+      if (i < j) {
+        final long t = f[i];
+        f[i] = f[j];
+        f[j] = t;
+      }
+    }
+    for (int len = 2; len <= n; len <<= 1) {
+      long w = powMod(g, (p - 1) / len, p);
+      if (invert) w = powMod(w, p - 2, p);
+      final int half = len >> 1;
+      final long[] pw = new long[half];
+      pw[0] = 1;
+      for (int k = 1; k < half; k++) pw[k] = pw[k - 1] * w % p;
+      for (int i = 0; i < n; i += len)
+        for (int k = 0; k < half; k++) {
+          final long u = f[i + k], v = f[i + k + half] * pw[k] % p;
+          f[i + k] = u + v < p ? u + v : u + v - p;
+          f[i + k + half] = u - v >= 0 ? u - v : u - v + p;
+        }
+    }
+    if (invert) {
+      final long inv = powMod(n, p - 2, p);
+      for (int i = 0; i < n; i++) f[i] = f[i] * inv % p;
+    }
+  }
+
+  /**
+   * Computes a modular power by repeated squaring.
+   *
+   * @param b the base, non negative and less than {@code p}.
+   * @param e the exponent, non negative.
+   * @param p the modulus, less than \( 2^{31} \).
+   * @return \( b^e \bmod p \).
+   */
+  static long powMod(long b, long e, long p) {
+    long r = 1 % p;
+    b %= p;
+    while (e > 0) {
+      if ((e & 1) != 0) r = r * b % p;
+      b = b * b % p;
+      e >>= 1;
+    }
+    return r;
+  }
+}
@@ -0,0 +1,316 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * An append-only file of polynomials, read through a memory mapping.
+ *
+ * <p>The file is a sequence of records, each made of the length of the encoding of a polynomial
+ * (as a 4 bytes big-endian {@code int}) followed by the encoding itself, see {@link PolyCodec}.
+ * Polynomials are appended with {@link #append(Poly)} (or {@link #append(SparsePoly)}) and are
+ * identified by their (0-based) index in the file; {@link #get(int)} returns an {@link Entry}
+ * whose degree and coefficients are read directly from the mapped file, without decoding the
+ * whole polynomial.
+ *
+ * <p>Since the file is never modified but at its end, the entries remain valid after further
+ * appends (and even after the store is closed). Instances are not thread safe.
+ */
+public class PolyStore implements Closeable {
+
+  /** The length of the header of a record. */
+  private static final int HEADER = Integer.BYTES;
+
+  /** The minimum length of an encoding (the flag, the degree and a coefficient, or the count). */
+  private static final int MIN_ENCODING = 3;
+
+  /** The channel of the file. */
+  private final FileChannel channel;
+
+  /** The offsets of the records in the file. */
+  private long[] offset = new long[16];
+
+  /** The number of records. */
+  private int size;
+
+  /** The length of the file. */
+  private long length;
+
+  /** The current mapping of (a portion of) the file, or {@code null}. */
+  private MappedByteBuffer mapped;
+
+  /** The offset in the file of the first byte of {@link #mapped}. */
+  private long mappedStart;
+
+  /*-
+   * AF:
+   *
+   *  AF(channel, offset, size) = the sequence of the size polynomials encoded in the records
+   *    of the file starting at offset[0], ..., offset[size - 1].
+   *
+   * RI:
+   *
+   *  - channel is open, offset != null and offset.length >= size,
+   *  - offset[0] = 0 (if size > 0) and offset[i + 1] = offset[i] + HEADER + the length of
+   *    the i-th record,
+   *  - length is the offset of the end of the last record, that is the length of the file,
+   *  - mapped != null ⇒ mapped maps the bytes of the file from mappedStart on.
+   */
+
+  /**
+   * Opens (or creates) a store.
+   *
+   * <p>If the file exists its records are scanned to locate them, checking that their lengths and
+   * flags are plausible; a truncated last record (as left by an interrupted append) is discarded.
+   * If some other record is not valid, the file is left untouched and an exception is thrown.
+   *
+   * @param path the path of the file.
+   * @throws NullPointerException if {@code path} is {@code null}.
+   * @throws IOException if an I/O error occurs, or if the file is not a store (or it is corrupted).
+   */
+  public PolyStore(Path path) throws NullPointerException, IOException {
+    Objects.requireNonNull(path, "The path must not be null.");
+    channel =
+        FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      scan();
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Locates the records of the file, discarding a truncated last record.
+   *
+   * @throws IOException if an I/O error occurs, or if some record (but a truncated last one) is not
+   *     valid.
+   */
+  private void scan() throws IOException {
+    final long fileLength = channel.size();
+    final ByteBuffer header = ByteBuffer.allocate(HEADER + 1); // the length and the flag
+    while (length < fileLength) {
+      header.clear();
+      header.limit((int) Math.min(header.capacity(), fileLength - length));
+      while (header.hasRemaining()) channel.read(header, length + header.position());
+      if (header.position() < HEADER) break; // a truncated header
+      final int len = header.getInt(0);
+      final boolean hasFlag = header.position() > HEADER;
+      final byte flag = hasFlag ? header.get(HEADER) : PolyCodec.DENSE;
+      if (len < MIN_ENCODING || flag != PolyCodec.DENSE && flag != PolyCodec.SPARSE)
+        throw new IOException("Not a valid record at offset " + length + ".");
+      if (length + HEADER + len > fileLength) break; // a truncated record
+      addOffset(length);
+      length += HEADER + len;
+    }
+    if (length < fileLength) channel.truncate(length);
+  }
+
+  /**
+   * Records the offset of a new record.
+   *
+   * @param off the offset.
+   */
+  private void addOffset(long off) {
+    if (size == offset.length) offset = Arrays.copyOf(offset, 2 * size);
+    offset[size++] = off;
+  }
+
+  /**
+   * Returns the number of polynomials in this store.
+   *
+   * @return the number of polynomials.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Appends a polynomial to this store.
+   *
+   * @param p the polynomial.
+   * @return the index of the polynomial in the store.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public int append(Poly p) throws NullPointerException, IOException {
+    final ByteBuffer record = ByteBuffer.allocate(HEADER + PolyCodec.encodedLength(p));
+    record.putInt(record.capacity() - HEADER);
+    PolyCodec.encode(p, record);
+    return write(record);
+  }
+
+  /**
+   * Appends a polynomial to this store.
+   *
+   * @param p the polynomial.
+   * @return the index of the polynomial in the store.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public int append(SparsePoly p) throws NullPointerException, IOException {
+    final ByteBuffer record = ByteBuffer.allocate(HEADER + PolyCodec.encodedLength(p));
+    record.putInt(record.capacity() - HEADER);
+    PolyCodec.encode(p, record);
+    return write(record);
+  }
+
+  /**
+   * Writes a record at the end of the file.
+   *
+   * @param record the record, filled up to its capacity.
+   * @return the index of the record.
+   * @throws IOException if an I/O error occurs.
+   */
+  private int write(ByteBuffer record) throws IOException {
+    record.flip();
+    while (record.hasRemaining()) channel.write(record, length + record.position());
+    addOffset(length);
+    length += record.limit();
+    return size - 1;
+  }
+
+  /**
+   * Forces the appended polynomials to be written to the storage device.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  public void flush() throws IOException {
+    channel.force(false);
+  }
+
+  /**
+   * Returns a view of a polynomial in this store.
+   *
+   * <p>The file is mapped (again) only if the record is not in the portion of the file currently
+   * mapped; since a single mapping cannot exceed \( 2^{31} - 1 \) bytes, larger files are mapped in
+   * windows starting from the requested record.
+   *
+   * @param index the index of the polynomial.
+   * @return a view of the polynomial.
+   * @throws IndexOutOfBoundsException if {@code index} is not in {@code [0, size())}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public Entry get(int index) throws IndexOutOfBoundsException, IOException {
+    Objects.checkIndex(index, size);
+    final long start = offset[index] + HEADER;
+    final long end = index + 1 < size ? offset[index + 1] : length;
+    if (mapped == null || start < mappedStart || end > mappedStart + mapped.capacity()) {
+      mappedStart = offset[index];
+      mapped =
+          channel.map(
+              FileChannel.MapMode.READ_ONLY,
+              mappedStart,
+              Math.min(length - mappedStart, Integer.MAX_VALUE));
+    }
+    return new Entry(mapped, (int) (start - mappedStart));
+  }
+
+  @Override
+  public void close() throws IOException {
+    mapped = null;
+    channel.close();
+  }
+
+  /**
+   * A view of a polynomial stored in a {@link PolyStore}.
+   *
+   * <p>The degree and the coefficients are read directly from the mapped file, see {@link
+   * PolyCodec#degree(ByteBuffer, int)} and {@link PolyCodec#coeff(ByteBuffer, int, int)}.
+   */
+  public static class Entry {
+
+    /** The buffer containing the encoding. */
+    private final ByteBuffer buffer;
+
+    /** The offset of the encoding in the buffer. */
+    private final int offset;
+
+    /**
+     * Builds a view.
+     *
+     * @param buffer the buffer containing the encoding.
+     * @param offset the offset of the encoding in the buffer.
+     */
+    private Entry(ByteBuffer buffer, int offset) {
+      this.buffer = buffer;
+      this.offset = offset;
+    }
+
+    /**
+     * Tells whether the polynomial has been stored as dense.
+     *
+     * @return whether the polynomial has been appended as a {@link Poly}.
+     */
+    public boolean isDense() {
+      return PolyCodec.isDense(buffer, offset);
+    }
+
+    /**
+     * Returns the degree of the polynomial.
+     *
+     * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero
+     *     polynomial.
+     */
+    public int degree() {
+      return PolyCodec.degree(buffer, offset);
+    }
+
+    /**
+     * Returns the coefficient of the term of given exponent.
+     *
+     * @param d the exponent of the term to consider.
+     * @return the coefficient of the considered term.
+     */
+    public int coeff(int d) {
+      return PolyCodec.coeff(buffer, offset, d);
+    }
+
+    /**
+     * Decodes the polynomial as a {@link Poly}.
+     *
+     * @return the polynomial.
+     */
+    public Poly toPoly() {
+      return PolyCodec.decodePoly(buffer.duplicate().position(offset));
+    }
+
+    /**
+     * Decodes the polynomial as a {@link SparsePoly}.
+     *
+     * @return the polynomial.
+     */
+    public SparsePoly toSparsePoly() {
+      return PolyCodec.decodeSparsePoly(buffer.duplicate().position(offset));
+    }
+  }
+}
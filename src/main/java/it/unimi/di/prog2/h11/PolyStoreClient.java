@@ -0,0 +1,151 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Scanner;
+
+/** A class to test {@link PolyCodec} and {@link PolyStore}. */
+public class PolyStoreClient {
+
+  /** . */
+  private PolyStoreClient() {}
+
+  /**
+   * Tests {@link PolyCodec} and {@link PolyStore}.
+   *
+   * <p>This method reads from standard input a list of commands, one per line, applied to a store
+   * in a temporary file: {@code dense} and {@code sparse}, followed by a list of (coefficient,
+   * degree) pairs, emit the encoding of the polynomial (as a {@link Poly} or a {@link SparsePoly})
+   * and its decoding in both representations (or {@code none}, if the degree is too large for a
+   * dense one), and then append it to the store emitting its index; {@code get i} and {@code coeff
+   * i d} emit whether the {@code i}-th polynomial is dense, its degree and the polynomial itself
+   * (or its coefficient of degree {@code d}); {@code size} emits the number of polynomials and the
+   * length of the file; {@code reopen} closes and reopens the store, while {@code tear k} and
+   * {@code garbage b1 b2 ...} do the same after removing the last {@code k} bytes of the file (or
+   * appending the given bytes, in hexadecimal). The result {@code none} is emitted for a missing
+   * polynomial, or if the store can't be reopened (and then the method stops).
+   *
+   * @param args not used.
+   * @throws IOException if an I/O error occurs.
+   */
+  public static void main(String[] args) throws IOException {
+    final Path path = Files.createTempFile("PolyStoreClient", ".store");
+    PolyStore store = new PolyStore(path);
+    try (Scanner sc = new Scanner(System.in)) {
+      while (sc.hasNextLine()) {
+        final String line = sc.nextLine().trim();
+        if (line.isEmpty()) continue;
+        final String[] token = line.split("\\s+");
+        switch (token[0]) {
+          case "dense", "sparse" -> {
+            final PolyBuilder b = new PolyBuilder();
+            for (int i = 1; i + 1 < token.length; i += 2)
+              b.add(Integer.parseInt(token[i]), Integer.parseInt(token[i + 1]));
+            final boolean dense = token[0].equals("dense");
+            final byte[] encoding =
+                dense ? PolyCodec.encode(b.toPoly()) : PolyCodec.encode(b.toSparsePoly());
+            System.out.println(line + ": " + HexFormat.ofDelimiter(" ").formatHex(encoding));
+            System.out.println("  " + decode(encoding, true));
+            System.out.println("  " + decode(encoding, false));
+            final int index = dense ? store.append(b.toPoly()) : store.append(b.toSparsePoly());
+            System.out.println("  index " + index);
+          }
+          case "get", "coeff" -> {
+            String result;
+            try {
+              final PolyStore.Entry e = store.get(Integer.parseInt(token[1]));
+              result =
+                  token[0].equals("coeff")
+                      ? Integer.toString(e.coeff(Integer.parseInt(token[2])))
+                      : describe(e);
+            } catch (IndexOutOfBoundsException e) {
+              result = "none";
+            }
+            System.out.println(line + ": " + result);
+          }
+          case "size" ->
+              System.out.println(line + ": " + store.size() + ", length " + Files.size(path));
+          case "reopen", "tear", "garbage" -> {
+            store.close();
+            if (token[0].equals("tear"))
+              try (FileChannel c = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                c.truncate(Math.max(0, c.size() - Integer.parseInt(token[1])));
+              }
+            else if (token[0].equals("garbage"))
+              Files.write(
+                  path,
+                  HexFormat.of().parseHex(String.join("", token).substring("garbage".length())),
+                  StandardOpenOption.APPEND);
+            try {
+              store = new PolyStore(path);
+            } catch (IOException e) {
+              System.out.println(line + ": none");
+              return;
+            }
+            System.out.println(line + ": " + store.size() + ", length " + Files.size(path));
+          }
+          default -> throw new IllegalArgumentException("Unknown command: " + token[0]);
+        }
+      }
+    } finally {
+      store.close();
+      Files.delete(path);
+    }
+  }
+
+  /**
+   * Decodes a polynomial.
+   *
+   * @param encoding the encoding of the polynomial.
+   * @param dense whether to decode it as a {@link Poly} or as a {@link SparsePoly}.
+   * @return the textual representation of the decoded polynomial, or {@code none} if it can't be
+   *     decoded.
+   */
+  private static String decode(byte[] encoding, boolean dense) {
+    try {
+      return dense
+          ? PolyCodec.decodePoly(ByteBuffer.wrap(encoding)).toString()
+          : PolyCodec.decodeSparsePoly(ByteBuffer.wrap(encoding)).toString();
+    } catch (IllegalArgumentException e) {
+      return "none";
+    }
+  }
+
+  /**
+   * Describes a polynomial in a store.
+   *
+   * @param e the view of the polynomial.
+   * @return whether the polynomial is dense, its degree and the polynomial itself.
+   */
+  private static String describe(PolyStore.Entry e) {
+    return e.isDense()
+        ? "dense, degree " + e.degree() + ", " + e.toPoly()
+        : "sparse, degree " + e.degree() + ", " + e.toSparsePoly();
+  }
+}
@@ -0,0 +1,365 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.s10.RationalNumber;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * {@code RationalPoly}s are immutable polynomials with rational coefficients.
+ *
+ * <p>A typical {@code RationalPoly} is \( p = c_0 + c_1 x + c_2 x^2 + \cdots + c_n x^n \) where the
+ * \( c_i \) are {@link RationalNumber}s; they are the exact results of the division of integer
+ * polynomials (see {@link Poly#divRem(Poly)} and {@link SparsePoly#divRem(SparsePoly)}).
+ *
+ * <p>Observe that {@link RationalNumber}s have {@code int} numerators and denominators, so every
+ * operation throws {@link IllegalArgumentException} if some coefficient of the result (or of an
+ * intermediate value) does not fit in such representation.
+ */
+public class RationalPoly {
+
+  /**
+   * The maximum degree of a {@code RationalPoly} built from a {@link SparsePoly}.
+   *
+   * <p>Since a {@code RationalPoly} stores a coefficient for every power of \( x \), converting a
+   * sparse polynomial of (much) larger degree would exhaust the memory.
+   */
+  public static final int MAX_SPARSE_DEGREE = 1 << 22;
+
+  /** The rational number zero. */
+  private static final RationalNumber ZERO = new RationalNumber(0);
+
+  /** The rational number one. */
+  private static final RationalNumber ONE = new RationalNumber(1);
+
+  /** The rational number minus one. */
+  private static final RationalNumber MINUS_ONE = new RationalNumber(-1);
+
+  /** The array of coefficients, the {@code coeff[i]} is the coefficient of \( x^i \). */
+  private final RationalNumber[] coefficient;
+
+  /*-
+   * AF:
+   *
+   *  AF(coefficient) = \sum coefficient[i] x^i
+   *
+   * RI:
+   *
+   *  - coefficient is not null and does not contain nulls,
+   *  - coefficient.length is equal to the degree + 1, so coefficient.length > 0,
+   *  - coefficient.length > 1 ⇒ coefficient[coefficient.length - 1] is not zero.
+   *
+   */
+
+  /** Initializes this to be the zero polynomial, that is \( p = 0 \). */
+  public RationalPoly() {
+    coefficient = new RationalNumber[] {ZERO};
+  }
+
+  /**
+   * Initializes this to be the (rational) polynomial equal to a given integer one.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public RationalPoly(Poly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    coefficient = new RationalNumber[p.degree() + 1];
+    for (int i = 0; i <= p.degree(); i++) coefficient[i] = new RationalNumber(p.coeff(i));
+  }
+
+  /**
+   * Initializes this to be the (rational) polynomial equal to a given sparse integer one.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   * @throws IllegalArgumentException if the degree of {@code p} exceeds {@link
+   *     #MAX_SPARSE_DEGREE}.
+   */
+  public RationalPoly(SparsePoly p) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    if (p.degree() > MAX_SPARSE_DEGREE)
+      throw new IllegalArgumentException("The degree is too large for a dense polynomial.");
+    coefficient = new RationalNumber[p.degree() + 1];
+    Arrays.fill(coefficient, ZERO);
+    for (SparsePoly.Term t : p) coefficient[t.degree()] = new RationalNumber(t.coefficient());
+  }
+
+  /**
+   * Initializes a polynomial given its coefficients, trimming the (possible) trailing zeros.
+   *
+   * <p>The array is not copied (if it has no trailing zeros), so it must not be modified after this
+   * call.
+   *
+   * @param coefficient the non empty array of coefficients, not containing {@code null}s.
+   */
+  RationalPoly(RationalNumber[] coefficient) {
+    int n = coefficient.length - 1;
+    while (n > 0 && coefficient[n].isZero()) n--;
+    this.coefficient =
+        n == coefficient.length - 1 ? coefficient : Arrays.copyOf(coefficient, n + 1);
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero {@code
+   *     RationalPoly}.
+   */
+  public int degree() {
+    return coefficient.length - 1;
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   */
+  public RationalNumber coeff(int d) {
+    if (d < 0 || d >= coefficient.length) return ZERO;
+    else return coefficient[d];
+  }
+
+  /**
+   * Tells whether this is the zero polynomial.
+   *
+   * @return {@code true} if and only if this polynomial is \( 0 \).
+   */
+  public boolean isZero() {
+    return coefficient.length == 1 && coefficient[0].isZero();
+  }
+
+  /**
+   * Returns the opposite of a rational number.
+   *
+   * @param r the number.
+   * @return the number \( -r \).
+   */
+  private static RationalNumber negate(RationalNumber r) {
+    return r.mul(MINUS_ONE);
+  }
+
+  /**
+   * Returns the reciprocal of a non-zero rational number.
+   *
+   * @param r the number, must not be zero.
+   * @return the number \( 1 / r \).
+   */
+  private static RationalNumber reciprocal(RationalNumber r) {
+    return new RationalNumber(r.denominator, r.numerator);
+  }
+
+  /**
+   * Performs polynomial addition.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p + q \).
+   *
+   * @param q the polynomial to add to this one.
+   * @return the sum among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public RationalPoly add(RationalPoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final RationalNumber[] r =
+        new RationalNumber[Math.max(coefficient.length, q.coefficient.length)];
+    for (int i = 0; i < r.length; i++) r[i] = coeff(i).add(q.coeff(i));
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Performs polynomial subtraction.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p - q \).
+   *
+   * @param q the polynomial to subtract from this one.
+   * @return the subtraction among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public RationalPoly sub(RationalPoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final RationalNumber[] r =
+        new RationalNumber[Math.max(coefficient.length, q.coefficient.length)];
+    for (int i = 0; i < r.length; i++) r[i] = coeff(i).add(negate(q.coeff(i)));
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Performs polynomial multiplication.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \).
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public RationalPoly mul(RationalPoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (isZero() || q.isZero()) return new RationalPoly();
+    final RationalNumber[] r = new RationalNumber[degree() + q.degree() + 1];
+    Arrays.fill(r, ZERO);
+    for (int i = 0; i <= degree(); i++)
+      if (!coefficient[i].isZero())
+        for (int j = 0; j <= q.degree(); j++)
+          r[i + j] = r[i + j].add(coefficient[i].mul(q.coefficient[j]));
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Multiplies this polynomial by a rational number.
+   *
+   * @param c the number.
+   * @return the polynomial \( c p \), where \( p \) is this polynomial.
+   * @throws NullPointerException if {@code c} is {@code null}.
+   */
+  public RationalPoly scale(RationalNumber c) throws NullPointerException {
+    Objects.requireNonNull(c, "The scale factor must not be null.");
+    final RationalNumber[] r = new RationalNumber[coefficient.length];
+    for (int i = 0; i < r.length; i++) r[i] = coefficient[i].mul(c);
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Returns the negate polynomial.
+   *
+   * <p>If \( p \) is this polynomial, returns \( -p \).
+   *
+   * @return this polynomial multiplied by \( -1 \).
+   */
+  public RationalPoly minus() {
+    return scale(MINUS_ONE);
+  }
+
+  /**
+   * Returns the monic polynomial associated to this one.
+   *
+   * @return this polynomial divided by its leading coefficient, or the zero polynomial if this is
+   *     zero.
+   */
+  public RationalPoly monic() {
+    if (isZero()) return this;
+    return scale(reciprocal(coefficient[degree()]));
+  }
+
+  /**
+   * Performs polynomial division.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \), that is the only polynomials such that \( p = q d + r \) and
+   * the degree of \( r \) is less than the one of \( d \) (or \( r = 0 \)); they are computed with
+   * the classical long division algorithm.
+   *
+   * @param d the divisor.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   */
+  public DivRem<RationalPoly> divRem(RationalPoly d) throws NullPointerException {
+    Objects.requireNonNull(d, "The divisor must not be null.");
+    if (d.isZero()) throw new ArithmeticException("Division by the zero polynomial.");
+    final int n = degree(), m = d.degree();
+    if (n < m || isZero()) return new DivRem<>(new RationalPoly(), this);
+    final RationalNumber[] r = coefficient.clone(), q = new RationalNumber[n - m + 1];
+    final RationalNumber lead = reciprocal(d.coefficient[m]);
+    for (int i = n - m; i >= 0; i--) {
+      final RationalNumber c = r[i + m].mul(lead);
+      q[i] = c;
+      if (c.isZero()) continue;
+      final RationalNumber nc = negate(c);
+      for (int j = 0; j <= m; j++) r[i + j] = r[i + j].add(nc.mul(d.coefficient[j]));
+    }
+    return new DivRem<>(
+        new RationalPoly(q), new RationalPoly(Arrays.copyOf(r, Math.max(m, 1))));
+  }
+
+  /**
+   * Returns the remainder of the polynomial division.
+   *
+   * @param d the divisor.
+   * @return the remainder of the division of this polynomial by {@code d}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @see #divRem(RationalPoly)
+   */
+  public RationalPoly mod(RationalPoly d) throws NullPointerException {
+    return divRem(d).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial.
+   *
+   * <p>The result is computed with Euclid's algorithm, normalizing the remainders to be monic at
+   * every step to reduce the growth of the coefficients.
+   *
+   * @param q the other polynomial.
+   * @return the monic greatest common divisor, or the zero polynomial if both polynomials are
+   *     zero.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public RationalPoly gcd(RationalPoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    RationalPoly a = monic(), b = q.monic();
+    while (!b.isZero()) {
+      final RationalPoly r = a.mod(b).monic();
+      a = b;
+      b = r;
+    }
+    return a;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) return true;
+    if (!(obj instanceof RationalPoly other)) return false;
+    return Arrays.equals(coefficient, other.coefficient);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(coefficient);
+  }
+
+  @Override
+  public String toString() {
+    if (degree() > 0) {
+      StringBuilder sb = new StringBuilder("RationalPoly: ");
+      RationalNumber c = coefficient[degree()];
+      if (c.equals(MINUS_ONE)) sb.append("-");
+      else if (!c.equals(ONE)) sb.append(c);
+      sb.append("x" + (degree() > 1 ? "^" + degree() : ""));
+      for (int d = degree() - 1; d > 0; d--) {
+        c = coefficient[d];
+        if (c.isZero()) continue;
+        if (c.isPositive()) sb.append(" + ");
+        else sb.append(" - ");
+        c = c.isPositive() ? c : negate(c);
+        if (!c.equals(ONE)) sb.append(c);
+        sb.append("x" + (d > 1 ? "^" + d : ""));
+      }
+      c = coefficient[0];
+      if (c.isPositive()) sb.append(" + " + c);
+      else if (!c.isZero()) sb.append(" - " + negate(c));
+      return sb.toString();
+    } else return "RationalPoly: " + coefficient[0];
+  }
+}
@@ -0,0 +1,697 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The real roots of a {@link Poly}, isolated once and then refined to any precision.
+ *
+ * <p>The roots are isolated exactly: first the <em>squarefree part</em> \( s = p / \gcd(p, p') \)
+ * (that has the same roots of \( p \), all simple) is computed with {@link BigInteger}
+ * coefficients; then the Vincent-Collins-Akritas method bisects the interval \( (0, B) \), where
+ * \( B \) is a power of two bounding the absolute value of the roots, using Descartes' rule of
+ * signs to count the roots in every subinterval, until every root is alone in its own interval
+ * (the same is done for the negative roots). Every step is a change of variable of an integer
+ * polynomial, so no rounding is involved.
+ *
+ * <p>The roots are then refined, to the precision given by the caller, with Newton's method kept
+ * inside the isolating interval by bisection (as in the bisection used by {@code
+ * h06.Radici.radiceParziale}, but with a sign change guaranteed by the isolation); the
+ * polynomials are evaluated in {@code double} arithmetic together with a bound on the rounding
+ * error, and the sign is computed exactly only when such bound does not allow to determine it.
+ * The intervals are independent, so they can be refined in parallel by {@link
+ * #rootsParallel(double, ForkJoinPool)}.
+ *
+ * <p>Instances are immutable, so they can be built once and used for many queries.
+ */
+public class RealRoots {
+
+  /** The maximum number of roots refined sequentially by {@link RefineTask}. */
+  private static final int PARALLEL_THRESHOLD = 8;
+
+  /** The primes used by {@link #isSquarefree(int[])} (the first is NTT-friendly). */
+  private static final int[] SQUAREFREE_PRIMES = {2013265921, 2147483647};
+
+  /** The unit roundoff of {@code double} arithmetic, that is \( 2^{-53} \). */
+  private static final double UNIT_ROUNDOFF = 0x1p-53;
+
+  /** The exact coefficients of the (primitive) squarefree part of the polynomial. */
+  private final BigInteger[] exact;
+
+  /** The exact coefficients of the derivative of {@link #exact}. */
+  private final BigInteger[] exactDerivative;
+
+  /** The coefficients of {@link #exact}, divided by a power of two so that they are finite. */
+  private final double[] approx;
+
+  /** The coefficients of the derivative of {@link #approx}. */
+  private final double[] approxDerivative;
+
+  /** The left endpoints of the isolating intervals. */
+  private final double[] lo;
+
+  /** The right endpoints of the isolating intervals. */
+  private final double[] hi;
+
+  /*-
+   * AF:
+   *
+   *  AF(exact, lo, hi) = the real roots of exact, the i-th (in increasing order) of which is the
+   *    only root in [lo[i], hi[i]]
+   *
+   * RI:
+   *
+   *  - exact is a squarefree primitive polynomial of positive degree (or the constant 1) with
+   *    positive leading coefficient, and exactDerivative is its derivative,
+   *  - approx[i] and approxDerivative[i] are the (rounded) values of exact[i] and
+   *    exactDerivative[i] multiplied by the same power of two, and are finite,
+   *  - lo.length == hi.length, and lo[i] <= hi[i] <= lo[i + 1] for every i,
+   *  - exact has exactly one root in [lo[i], hi[i]], and if lo[i] < hi[i] it is in the interior.
+   */
+
+  /**
+   * An interval containing exactly one real root.
+   *
+   * @param lo the left endpoint.
+   * @param hi the right endpoint.
+   */
+  public record Interval(double lo, double hi) {
+
+    /**
+     * Builds an interval.
+     *
+     * @param lo the left endpoint.
+     * @param hi the right endpoint.
+     * @throws IllegalArgumentException if {@code lo} &gt; {@code hi}.
+     */
+    public Interval { // using the compact constructor, cannot declare throws
+      if (!(lo <= hi)) throw new IllegalArgumentException("The endpoints are not in order.");
+    }
+  }
+
+  /**
+   * Isolates the real roots of a polynomial.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   * @throws IllegalArgumentException if {@code p} is the zero polynomial.
+   */
+  public RealRoots(Poly p) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    if (p.degree() == 0 && p.coeff(0) == 0)
+      throw new IllegalArgumentException("The zero polynomial has infinitely many roots.");
+    final int[] c = p.coefficientArray();
+    final BigInteger[] a = new BigInteger[c.length];
+    for (int i = 0; i < c.length; i++) a[i] = BigInteger.valueOf(c[i]);
+    exact = isSquarefree(c) ? primitive(trim(a, a.length)) : squarefree(a);
+    exactDerivative = derivative(exact);
+    int bits = 0;
+    for (BigInteger b : exact) bits = Math.max(bits, b.bitLength());
+    final int scale = Math.max(0, bits - 960); // so that even the derivative stays finite
+    approx = new double[exact.length];
+    for (int i = 0; i < exact.length; i++) approx[i] = scaled(exact[i], scale);
+    approxDerivative = new double[Math.max(exact.length - 1, 1)];
+    for (int i = 1; i < exact.length; i++) approxDerivative[i - 1] = i * approx[i];
+    final List<Interval> positive = new ArrayList<>(), negative = new ArrayList<>();
+    BigInteger[] s = exact;
+    final boolean zero = s.length > 1 && s[0].signum() == 0;
+    if (zero) s = Arrays.copyOfRange(s, 1, s.length);
+    if (s.length > 1) {
+      int maxBits = 0;
+      for (int i = 0; i < s.length - 1; i++) maxBits = Math.max(maxBits, s[i].bitLength());
+      final int e = Math.max(1, maxBits - s[s.length - 1].bitLength() + 2); // Cauchy's bound
+      final BigInteger[] pos = new BigInteger[s.length], neg = new BigInteger[s.length];
+      for (int i = 0; i < s.length; i++) {
+        pos[i] = s[i].shiftLeft(e * i); // s(2^e x), whose roots in (0, 1) are the positive ones
+        neg[i] = (i & 1) == 0 ? pos[i] : pos[i].negate(); // s(-2^e x)
+      }
+      isolate(pos, BigInteger.ZERO, 0, e, positive);
+      isolate(neg, BigInteger.ZERO, 0, e, negative);
+    }
+    final int n = positive.size() + negative.size() + (zero ? 1 : 0);
+    lo = new double[n];
+    hi = new double[n];
+    int k = 0;
+    Collections.reverse(negative);
+    for (Interval i : negative) {
+      lo[k] = -i.hi();
+      hi[k++] = -i.lo();
+    }
+    if (zero) lo[k] = hi[k++] = 0;
+    for (Interval i : positive) {
+      lo[k] = i.lo();
+      hi[k++] = i.hi();
+    }
+  }
+
+  /**
+   * Returns the number of (distinct) real roots.
+   *
+   * @return the number of roots.
+   */
+  public int count() {
+    return lo.length;
+  }
+
+  /**
+   * Returns the isolating intervals of the roots.
+   *
+   * <p>The intervals are in increasing order and their interiors are disjoint (but an endpoint can
+   * be shared by two consecutive intervals); every interval contains exactly one root, and if it
+   * has positive length, the root is in its interior. The endpoints are rounded
+   * outwards to {@code double}s, so roots closer than the precision of a {@code double} may end
+   * up in the same interval.
+   *
+   * @return the list of the isolating intervals.
+   */
+  public List<Interval> intervals() {
+    final List<Interval> result = new ArrayList<>(lo.length);
+    for (int i = 0; i < lo.length; i++) result.add(new Interval(lo[i], hi[i]));
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns a root to the given precision.
+   *
+   * @param i the index of the root (in increasing order).
+   * @param precision the maximum distance of the result from the root.
+   * @return a value whose distance from the {@code i}-th root is at most {@code precision} (or
+   *     than the precision of a {@code double}, if larger).
+   * @throws IndexOutOfBoundsException if {@code i} is not the index of a root.
+   * @throws IllegalArgumentException if {@code precision} is not positive.
+   */
+  public double root(int i, double precision)
+      throws IndexOutOfBoundsException, IllegalArgumentException {
+    Objects.checkIndex(i, lo.length);
+    return refine(i, requirePrecision(precision));
+  }
+
+  /**
+   * Returns all the roots to the given precision.
+   *
+   * @param precision the maximum distance of every result from the corresponding root.
+   * @return the roots, in increasing order, as in {@link #root(int, double)}.
+   * @throws IllegalArgumentException if {@code precision} is not positive.
+   */
+  public double[] roots(double precision) throws IllegalArgumentException {
+    requirePrecision(precision);
+    final double[] result = new double[lo.length];
+    for (int i = 0; i < lo.length; i++) result[i] = refine(i, precision);
+    return result;
+  }
+
+  /**
+   * Returns all the roots to the given precision, refining them in parallel in the common pool.
+   *
+   * @param precision the maximum distance of every result from the corresponding root.
+   * @return the roots, in increasing order, as in {@link #root(int, double)}.
+   * @throws IllegalArgumentException if {@code precision} is not positive.
+   */
+  public double[] rootsParallel(double precision) throws IllegalArgumentException {
+    return rootsParallel(precision, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Returns all the roots to the given precision, refining them in parallel in the given pool.
+   *
+   * @param precision the maximum distance of every result from the corresponding root.
+   * @param pool the pool where to run the refinement.
+   * @return the roots, in increasing order, as in {@link #root(int, double)}.
+   * @throws NullPointerException if {@code pool} is {@code null}.
+   * @throws IllegalArgumentException if {@code precision} is not positive.
+   */
+  public double[] rootsParallel(double precision, ForkJoinPool pool)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(pool, "The pool must not be null.");
+    requirePrecision(precision);
+    final double[] result = new double[lo.length];
+    pool.invoke(new RefineTask(this, precision, result, 0, lo.length));
+    return result;
+  }
+
+  /**
+   * Checks that a precision is positive.
+   *
+   * @param precision the precision.
+   * @return {@code precision}.
+   * @throws IllegalArgumentException if {@code precision} is not positive.
+   */
+  private static double requirePrecision(double precision) throws IllegalArgumentException {
+    if (!(precision > 0)) throw new IllegalArgumentException("The precision must be positive.");
+    return precision;
+  }
+
+  /** A task refining a range of roots. */
+  private static class RefineTask extends RecursiveAction {
+
+    /** The serial version. */
+    static final long serialVersionUID = 1L;
+
+    /** The roots. */
+    private final transient RealRoots roots;
+
+    /** The precision. */
+    private final double precision;
+
+    /** Where to store the refined roots. */
+    private final double[] result;
+
+    /** The index of the first root to refine. */
+    private final int from;
+
+    /** The index following the one of the last root to refine. */
+    private final int to;
+
+    /**
+     * Builds a task.
+     *
+     * @param roots the roots.
+     * @param precision the precision.
+     * @param result where to store the refined roots.
+     * @param from the index of the first root to refine.
+     * @param to the index following the one of the last root to refine.
+     */
+    RefineTask(RealRoots roots, double precision, double[] result, int from, int to) {
+      this.roots = roots;
+      this.precision = precision;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        for (int i = from; i < to; i++) result[i] = roots.refine(i, precision);
+        return;
+      }
+      final int mid = (from + to) >>> 1;
+      invokeAll(
+          new RefineTask(roots, precision, result, from, mid),
+          new RefineTask(roots, precision, result, mid, to));
+    }
+  }
+
+  /**
+   * Refines a root with Newton's method, safeguarded by bisection.
+   *
+   * <p>The interval \( [a, b] \) containing the root is shrunk at every step using the sign of the
+   * polynomial at the current point; the Newton step is taken if it stays inside the interval and
+   * the previous step at least halved it, otherwise the midpoint is taken. Once the Newton step is
+   * shorter than the precision, the signs at its distance from the current point are checked, so
+   * that the interval can be shrunk to twice the precision.
+   *
+   * @param i the index of the root.
+   * @param precision the precision, must be positive.
+   * @return the midpoint of an interval of length at most {@code 2 * precision} containing the
+   *     root (or of an interval whose endpoints are consecutive {@code double}s).
+   */
+  private double refine(int i, double precision) {
+    double a = lo[i], b = hi[i];
+    if (a == b) return a;
+    final int sa = endpointSign(a, 1), sb = endpointSign(b, -1);
+    if (sa == sb || sa == 0) return (a + b) / 2; // roots closer than a double, see intervals()
+    double x = (a + b) / 2, width = b - a;
+    while (b - a > 2 * precision) {
+      final int s = sign(x);
+      if (s == 0) return x;
+      if (s == sa) a = x;
+      else b = x;
+      double next = x - horner(approx, x) / horner(approxDerivative, x);
+      if (Math.abs(next - x) < precision && next > a && next < b) {
+        final double l = Math.max(a, next - precision), r = Math.min(b, next + precision);
+        if (l > a && sign(l) == sa) a = l;
+        if (r < b && sign(r) != sa) b = r;
+        next = (a + b) / 2;
+      } else if (!(next > a && next < b) || b - a > width / 2) next = (a + b) / 2;
+      width = b - a;
+      if (next == a || next == b) break; // no double in between
+      x = next;
+    }
+    return (a + b) / 2;
+  }
+
+  /**
+   * Returns the sign of the polynomial just inside an isolating interval.
+   *
+   * @param x the endpoint.
+   * @param direction 1 for the left endpoint, -1 for the right one.
+   * @return the sign of the polynomial at {@code x}, or (if {@code x} is a root, hence another
+   *     simple root) at the points of the interval close to {@code x}.
+   */
+  private int endpointSign(double x, int direction) {
+    final int s = sign(x);
+    return s != 0 ? s : direction * exactSign(exactDerivative, x);
+  }
+
+  /**
+   * Returns the sign of the squarefree part at a point.
+   *
+   * <p>The value is computed with Horner's scheme in {@code double} arithmetic; if its absolute
+   * value is smaller than the bound \( \gamma_{2n + 2} \sum |a_i| |x|^i \) (where \( \gamma_k = k u
+   * / (1 - k u) \) and \( u \) is the unit roundoff) on the error due to the rounding of the
+   * coefficients and of the operations, the sign is computed exactly.
+   *
+   * @param x the point.
+   * @return the sign of the polynomial at {@code x}.
+   */
+  private int sign(double x) {
+    final double v = horner(approx, x);
+    final double ax = Math.abs(x);
+    double bound = 0;
+    for (int i = approx.length - 1; i >= 0; i--) bound = bound * ax + Math.abs(approx[i]);
+    final double k = 2 * approx.length + 2;
+    bound *= 2 * k * UNIT_ROUNDOFF / (1 - k * UNIT_ROUNDOFF); // twice, for safety
+    if (Math.abs(v) > bound) return v > 0 ? 1 : -1;
+    return exactSign(exact, x);
+  }
+
+  /**
+   * Evaluates a polynomial with Horner's scheme in {@code double} arithmetic.
+   *
+   * @param a the coefficients.
+   * @param x the point.
+   * @return the (approximate) value of the polynomial at {@code x}.
+   */
+  private static double horner(double[] a, double x) {
+    double r = 0;
+    for (int i = a.length - 1; i >= 0; i--) r = r * x + a[i];
+    return r;
+  }
+
+  /**
+   * Computes exactly the sign of an integer polynomial at a {@code double}.
+   *
+   * <p>Writing \( x = m 2^{-f} \), with \( m \) an integer, the value \( 2^{n f} a(x) \) is
+   * computed with integer arithmetic as \( (\cdots (a_n m + a_{n - 1} 2^f) m + \cdots) m + a_0 2^{n
+   * f} \) (if \( f &lt; 0 \), then \( m \) is shifted and \( f \) is taken equal to 0).
+   *
+   * @param a the coefficients.
+   * @param x the point, must be finite.
+   * @return the sign of the polynomial at {@code x}.
+   */
+  private static int exactSign(BigInteger[] a, double x) {
+    final long bits = Double.doubleToLongBits(Math.abs(x));
+    final int raw = (int) (bits >>> 52);
+    final long mantissa = raw == 0 ? bits : bits & ((1L << 52) - 1) | 1L << 52;
+    final int exp = raw == 0 ? -1074 : raw - 1075; // |x| = mantissa 2^exp
+    BigInteger m = BigInteger.valueOf(x < 0 ? -mantissa : mantissa);
+    if (exp > 0) m = m.shiftLeft(exp);
+    final int f = Math.max(-exp, 0), n = a.length - 1;
+    BigInteger r = a[n];
+    for (int i = n - 1; i >= 0; i--) r = r.multiply(m).add(a[i].shiftLeft(f * (n - i)));
+    return r.signum();
+  }
+
+  /**
+   * Isolates the roots in \( (0, 1) \) of an integer polynomial with the Vincent-Collins-Akritas
+   * method.
+   *
+   * <p>The polynomial is the squarefree part \( s \) after the change of variable mapping \( (0, 1)
+   * \) to the interval \( (c 2^{e - k}, (c + 1) 2^{e - k}) \); the isolating intervals (or points,
+   * for the roots found at a midpoint) are added to {@code out} in increasing order.
+   *
+   * @param q the polynomial, whose roots in \( (0, 1) \) are all simple.
+   * @param c the numerator of the left endpoint.
+   * @param k the depth of the bisection.
+   * @param e the logarithm of the bound on the roots.
+   * @param out where to add the intervals.
+   */
+  private static void isolate(BigInteger[] q, BigInteger c, int k, int e, List<Interval> out) {
+    final int v = descartes(q);
+    if (v == 0) return;
+    if (v == 1) {
+      out.add(new Interval(dyadic(c, e - k, false), dyadic(c.add(BigInteger.ONE), e - k, true)));
+      return;
+    }
+    final int n = q.length - 1;
+    BigInteger[] left = new BigInteger[n + 1];
+    for (int i = 0; i <= n; i++) left[i] = q[i].shiftLeft(n - i); // 2^n q(x / 2)
+    left = removePowerOfTwo(left);
+    BigInteger[] right = taylorShift(left); // 2^n q((x + 1) / 2)
+    final BigInteger c2 = c.shiftLeft(1);
+    final boolean midpoint = right[0].signum() == 0;
+    if (midpoint) {
+      left = divideByXMinusOne(left);
+      right = Arrays.copyOfRange(right, 1, right.length);
+    }
+    isolate(left, c2, k + 1, e, out);
+    if (midpoint) {
+      final BigInteger m = c2.add(BigInteger.ONE);
+      out.add(new Interval(dyadic(m, e - k - 1, false), dyadic(m, e - k - 1, true)));
+    }
+    isolate(right, c2.add(BigInteger.ONE), k + 1, e, out);
+  }
+
+  /**
+   * Bounds the number of roots in \( (0, 1) \) with Descartes' rule of signs.
+   *
+   * @param q the polynomial.
+   * @return 0, 1, or 2 if the number of sign variations of the coefficients of \( (x + 1)^n q(1 /
+   *     (x + 1)) \) is (respectively) zero, one or more than one.
+   */
+  private static int descartes(BigInteger[] q) {
+    final BigInteger[] r = new BigInteger[q.length];
+    for (int i = 0; i < q.length; i++) r[i] = q[q.length - 1 - i];
+    final BigInteger[] t = taylorShift(r);
+    int variations = 0, last = 0;
+    for (BigInteger b : t) {
+      final int s = b.signum();
+      if (s == 0) continue;
+      if (last != 0 && s != last && ++variations > 1) return 2;
+      last = s;
+    }
+    return variations;
+  }
+
+  /**
+   * Computes the Taylor shift by one of a polynomial.
+   *
+   * @param q the polynomial.
+   * @return the polynomial \( q(x + 1) \), computed with \( O(n^2) \) additions.
+   */
+  private static BigInteger[] taylorShift(BigInteger[] q) {
+    final BigInteger[] r = q.clone();
+    final int n = r.length - 1;
+    for (int i = 0; i < n; i++) for (int j = n - 1; j >= i; j--) r[j] = r[j].add(r[j + 1]);
+    return r;
+  }
+
+  /**
+   * Divides a polynomial by the largest power of two dividing all its coefficients.
+   *
+   * @param q the polynomial, not zero.
+   * @return the polynomial divided by such power (possibly {@code q} itself).
+   */
+  private static BigInteger[] removePowerOfTwo(BigInteger[] q) {
+    int shift = Integer.MAX_VALUE;
+    for (BigInteger b : q) if (b.signum() != 0) shift = Math.min(shift, b.getLowestSetBit());
+    if (shift == 0) return q;
+    final BigInteger[] r = new BigInteger[q.length];
+    for (int i = 0; i < q.length; i++) r[i] = q[i].shiftRight(shift);
+    return r;
+  }
+
+  /**
+   * Divides a polynomial by \( x - 1 \), that must divide it.
+   *
+   * @param q the polynomial.
+   * @return the quotient, computed by synthetic division.
+   */
+  private static BigInteger[] divideByXMinusOne(BigInteger[] q) {
+    final BigInteger[] r = new BigInteger[q.length - 1];
+    BigInteger carry = BigInteger.ZERO;
+    for (int i = q.length - 1; i > 0; i--) r[i - 1] = carry = carry.add(q[i]);
+    return r;
+  }
+
+  /**
+   * Converts a dyadic number to {@code double}.
+   *
+   * @param c the numerator, non negative.
+   * @param exp the exponent.
+   * @param up whether to round up (or down), if the value is not exactly representable.
+   * @return the value \( c 2^{exp} \), rounded in the given direction.
+   */
+  private static double dyadic(BigInteger c, int exp, boolean up) {
+    final double d = Math.scalb(c.doubleValue(), exp);
+    if (c.signum() == 0 || c.bitLength() <= 53 && Math.getExponent(d) >= Double.MIN_EXPONENT)
+      return d;
+    return up ? Math.nextUp(d) : Math.nextDown(d);
+  }
+
+  /**
+   * Converts an integer to {@code double}, dividing it by a power of two.
+   *
+   * @param a the integer.
+   * @param scale the logarithm of the divisor.
+   * @return the value \( a 2^{-scale} \), rounded.
+   */
+  private static double scaled(BigInteger a, int scale) {
+    final int shift = Math.max(a.bitLength() - 63, 0);
+    return Math.scalb((double) a.shiftRight(shift).longValue(), shift - scale);
+  }
+
+  /**
+   * Returns the derivative of an integer polynomial.
+   *
+   * @param a the polynomial.
+   * @return its derivative.
+   */
+  private static BigInteger[] derivative(BigInteger[] a) {
+    if (a.length == 1) return new BigInteger[] {BigInteger.ZERO};
+    final BigInteger[] r = new BigInteger[a.length - 1];
+    for (int i = 1; i < a.length; i++) r[i - 1] = a[i].multiply(BigInteger.valueOf(i));
+    return r;
+  }
+
+  /**
+   * Tells whether an integer polynomial is squarefree, by a modular test.
+   *
+   * <p>If a prime \( q \) does not divide the leading coefficient of \( p \), the degree of \(
+   * \gcd(p, p') \bmod q \) is at least the one of \( \gcd(p, p') \); if the former is zero,
+   * hence, \( p \) is squarefree. This is the case for most polynomials and primes, and saves the
+   * (much more expensive) exact computation of the greatest common divisor.
+   *
+   * @param c the coefficients of the polynomial, without trailing zeros.
+   * @return {@code true} if the polynomial has positive degree and is surely squarefree, {@code
+   *     false} if it may not be.
+   */
+  private static boolean isSquarefree(int[] c) {
+    final int n = c.length - 1;
+    if (n == 0) return false;
+    for (int q : SQUAREFREE_PRIMES) {
+      if (c[n] % q == 0 || n % q == 0) continue;
+      final int[] d = new int[n];
+      for (int i = 1; i <= n; i++) d[i - 1] = (int) ((long) i * Math.floorMod(c[i], q) % q);
+      return ModArithmetic.gcd(ModArithmetic.reduce(c, q), ModArithmetic.trim(d, n), q).length == 1;
+    }
+    return false;
+  }
+
+  /**
+   * Returns the squarefree part of an integer polynomial.
+   *
+   * @param a the polynomial, not zero.
+   * @return the primitive polynomial with positive leading coefficient \( a / \gcd(a, a') \).
+   */
+  private static BigInteger[] squarefree(BigInteger[] a) {
+    a = primitive(a);
+    if (a.length == 1) return new BigInteger[] {BigInteger.ONE};
+    final BigInteger[] g = gcd(a, derivative(a));
+    return g.length == 1 ? a : primitive(exactQuotient(a, g));
+  }
+
+  /**
+   * Returns the primitive part of an integer polynomial.
+   *
+   * @param a the polynomial, without trailing zeros.
+   * @return the polynomial divided by the greatest common divisor of its coefficients, with the
+   *     sign chosen so that the leading coefficient is positive.
+   */
+  private static BigInteger[] primitive(BigInteger[] a) {
+    BigInteger g = BigInteger.ZERO;
+    for (BigInteger b : a) g = g.gcd(b);
+    if (a[a.length - 1].signum() < 0) g = g.negate();
+    if (g.equals(BigInteger.ONE)) return a;
+    final BigInteger[] r = new BigInteger[a.length];
+    for (int i = 0; i < a.length; i++) r[i] = a[i].divide(g);
+    return r;
+  }
+
+  /**
+   * Returns the greatest common divisor of two integer polynomials with the primitive polynomial
+   * remainder sequence.
+   *
+   * @param a the first polynomial, primitive.
+   * @param b the second polynomial, primitive.
+   * @return the primitive greatest common divisor, with positive leading coefficient.
+   */
+  private static BigInteger[] gcd(BigInteger[] a, BigInteger[] b) {
+    while (b.length > 1 || b[0].signum() != 0) {
+      final BigInteger[] r = pseudoRemainder(a, b);
+      a = b;
+      b = r.length == 1 && r[0].signum() == 0 ? r : primitive(r);
+    }
+    return primitive(a);
+  }
+
+  /**
+   * Computes the pseudo-remainder of the division of two integer polynomials.
+   *
+   * @param a the dividend.
+   * @param b the divisor, not zero.
+   * @return the remainder of the division of \( \ell^{n - m + 1} a \) by \( b \), where \( \ell \)
+   *     is the leading coefficient of \( b \) and \( n, m \) are the degrees, without trailing
+   *     zeros.
+   */
+  private static BigInteger[] pseudoRemainder(BigInteger[] a, BigInteger[] b) {
+    final int m = b.length - 1;
+    final BigInteger lead = b[m];
+    final BigInteger[] r = a.clone();
+    for (int i = r.length - 1 - m; i >= 0; i--) {
+      final BigInteger t = r[i + m];
+      for (int j = 0; j < r.length; j++) r[j] = r[j].multiply(lead);
+      for (int j = 0; j <= m; j++) r[i + j] = r[i + j].subtract(t.multiply(b[j]));
+    }
+    return trim(r, Math.min(m, r.length));
+  }
+
+  /**
+   * Divides two integer polynomials, when the quotient has integer coefficients.
+   *
+   * @param a the dividend.
+   * @param b the divisor, dividing {@code a}.
+   * @return the quotient.
+   */
+  private static BigInteger[] exactQuotient(BigInteger[] a, BigInteger[] b) {
+    final int m = b.length - 1;
+    final BigInteger[] r = a.clone();
+    final BigInteger[] q = new BigInteger[a.length - m];
+    for (int i = q.length - 1; i >= 0; i--) {
+      q[i] = r[i + m].divide(b[m]);
+      for (int j = 0; j <= m; j++) r[i + j] = r[i + j].subtract(q[i].multiply(b[j]));
+    }
+    return q;
+  }
+
+  /**
+   * Removes the trailing zeros of an integer polynomial.
+   *
+   * @param a the coefficients.
+   * @param len the number of coefficients to consider.
+   * @return the first {@code len} coefficients without the trailing zeros (but for the constant
+   *     one).
+   */
+  private static BigInteger[] trim(BigInteger[] a, int len) {
+    while (len > 1 && a[len - 1].signum() == 0) len--;
+    return len == 0 ? new BigInteger[] {BigInteger.ZERO} : Arrays.copyOf(a, len);
+  }
+}
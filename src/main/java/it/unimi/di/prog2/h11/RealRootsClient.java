@@ -0,0 +1,52 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Locale;
+import java.util.Scanner;
+
+/** A class to test {@link RealRoots}. */
+public class RealRootsClient {
+
+  /** . */
+  private RealRootsClient() {}
+
+  /**
+   * Tests {@link RealRoots}.
+   *
+   * <p>This method reads from standard input a polynomial, given as a list of (coefficient, degree)
+   * pairs, and emits in the standard output the number of its distinct real roots, followed by the
+   * roots (in increasing order, refined in parallel and rounded to six decimal places).
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final PolyBuilder builder = new PolyBuilder();
+    try (Scanner s = new Scanner(System.in)) {
+      while (s.hasNextInt()) builder.add(s.nextInt(), s.nextInt());
+    }
+    final RealRoots roots = new RealRoots(builder.toPoly());
+    System.out.println("Roots: " + roots.count());
+    for (double x : roots.rootsParallel(1e-9))
+      System.out.println(String.format(Locale.ROOT, "%.6f", x));
+  }
+}
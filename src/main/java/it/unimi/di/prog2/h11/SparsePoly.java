@@ -22,18 +22,27 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 package it.unimi.di.prog2.h11;
 
 import it.unimi.di.prog2.h08.impl.NegativeExponentException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import it.unimi.di.prog2.s10.RationalNumber;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * {@code SparsePoly}s are immutable polynomials with integer coefficients such that the number of
  * nonzero coefficient is small with respect to the degree.
  *
  * <p>A typical {@code Poly} is \( p = c_0 + c_1 x + c_2 x^2 + \cdots + c_n x^n \).
+ *
+ * <p>The terms are stored in two parallel arrays of {@code int}s, the {@link Term} record is used
+ * just as a view to iterate over them (in increasing degree order).
  */
-public class SparsePoly {
+public class SparsePoly implements Iterable<SparsePoly.Term> {
 
   /**
    * A record holding a non-zero term of the polynomial.
@@ -69,23 +78,53 @@ public class SparsePoly {
     }
   }
 
-  /** The array of terms (in increasing degree). */
-  private final List<Term> terms;
+  /**
+   * The maximum ratio among the degree of the dividend and the number of terms of the operands for
+   * {@link #divRem(SparsePoly, int)} to switch to the dense representation.
+   */
+  private static final int DENSE_DIVISION_RATIO = 8;
+
+  /**
+   * The maximum number of partial products computed sequentially by {@link
+   * #mulParallel(SparsePoly, ForkJoinPool)}.
+   */
+  public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  /** An empty array, shared by all the zero polynomials. */
+  private static final int[] EMPTY = new int[0];
+
+  /** The degrees of the terms (in increasing order). */
+  private final int[] degree;
+
+  /** The coefficients of the terms, {@code coefficient[i]} is the one of {@code degree[i]}. */
+  private final int[] coefficient;
 
-  /*
+  /** The canonical instances returned by {@link #intern()}. */
+  private static final Interner<SparsePoly> INTERNED = new Interner<>();
+
+  /** The hash code of this polynomial, or 0 if it has not been computed yet. */
+  private int hash;
+
+  /*-
    * AF:
    *
-   *  AF(terms) = \sum terms.get(i).coefficient x^terms.get(i).degree
+   *  AF(degree, coefficient) = \sum coefficient[i] x^degree[i]
    *
    * RI:
    *
-   *  - terms != null and does not contain null
-   *  - terms is in strictly increasing degree order
+   *  - degree != null and coefficient != null,
+   *  - degree.length == coefficient.length,
+   *  - degree[0] >= 0 and degree is in strictly increasing order,
+   *  - coefficient[i] != 0 for every i,
+   *  - hash == 0 or hash is the value computed by hashCode.
+   *
+   * Observe that the arrays are never modified, so they can be shared among instances; hash is
+   * not part of the abstract state, it is just a cache lazily computed by hashCode.
    */
 
   /** Initializes this to be the zero polynomial, that is \( p = 0 \). */
   public SparsePoly() {
-    terms = Collections.emptyList();
+    degree = coefficient = EMPTY;
   }
 
   /**
@@ -96,17 +135,32 @@ public class SparsePoly {
    * @throws NegativeExponentException if {@code n} &lt; 0.
    */
   public SparsePoly(final int c, final int n) throws IllegalArgumentException {
-    terms = c == 0 ? Collections.emptyList() : List.of(new Term(c, n));
+    if (c == 0) degree = coefficient = EMPTY;
+    else {
+      if (n < 0) throw new NegativeExponentException("A term cannot have a negative exponent.");
+      degree = new int[] {n};
+      coefficient = new int[] {c};
+    }
   }
 
   /**
-   * Initializes this to be the polynomial from a list of terms in increasing degree order.
+   * Initializes this to be the polynomial given by the first {@code size} elements of two parallel
+   * arrays of degrees and coefficients.
    *
-   * @param lst the not {@code null} list, not containing {@code null}s and in increasing degree
-   *     order.
+   * <p>The arrays are not copied if their length is {@code size}, so they must not be modified
+   * after this call.
+   *
+   * @param degree the degrees, in strictly increasing order.
+   * @param coefficient the coefficients, all different from zero.
+   * @param size the number of terms.
    */
-  private SparsePoly(final List<Term> lst) {
-    terms = Collections.unmodifiableList(lst);
+  SparsePoly(final int[] degree, final int[] coefficient, final int size) {
+    if (size == 0) this.degree = this.coefficient = EMPTY;
+    else {
+      this.degree = size == degree.length ? degree : Arrays.copyOf(degree, size);
+      this.coefficient =
+          size == coefficient.length ? coefficient : Arrays.copyOf(coefficient, size);
+    }
   }
 
   /**
@@ -117,8 +171,8 @@ public class SparsePoly {
    */
   public int coeff(final int d) {
     if (d > degree()) return 0;
-    final int i = findByDegree(terms, d);
-    return i >= 0 ? terms.get(i).coefficient : 0;
+    final int i = Arrays.binarySearch(degree, d);
+    return i >= 0 ? coefficient[i] : 0;
   }
 
   /**
@@ -128,54 +182,80 @@ public class SparsePoly {
    *     Poly}.
    */
   public int degree() {
-    return terms.isEmpty() ? 0 : terms.get(terms.size() - 1).degree;
+    return degree.length == 0 ? 0 : degree[degree.length - 1];
+  }
+
+  /**
+   * Returns the number of (non-zero) terms of this polynomial.
+   *
+   * @return the number of terms.
+   */
+  public int termCount() {
+    return degree.length;
   }
 
   /**
-   * Finds the index (or insertion point) of a term of given degree in a list of terms in increasing
-   * degree order.
+   * Returns the degree of the {@code i}-th term (in increasing degree order) of this polynomial.
    *
-   * <p>If the list contains a term of given degree, returns its index. Otherwise, returns {@code
-   * -(insertion_point) - 1} where {@code insertion_point} is the index of the first term with
-   * degree greater than {@code d}; note that this implies that the return value is non-negative iff
-   * the list contains a term of given degree.
+   * @param i the index of the term, in \( [0, t) \) where \( t \) is the number of terms.
+   * @return the degree of the term.
+   */
+  int degreeAt(final int i) {
+    return degree[i];
+  }
+
+  /**
+   * Returns the coefficient of the {@code i}-th term (in increasing degree order) of this
+   * polynomial.
    *
-   * @see Collections#binarySearch(List, Object)
-   * @param lst the not {@code null} list of not {@code null} terms in increasing degree order.
-   * @param d the degree.
-   * @return the index of the term of given degree, or {@code -insertion_point - 1} if none is
-   *     present.
-   */
-  private static int findByDegree(final List<Term> lst, final int d) {
-    int lo = 0;
-    int hi = lst.size() - 1;
-    while (lo <= hi) {
-      int mid = lo + (hi - lo) / 2;
-      int midDegree = lst.get(mid).degree;
-      if (d < midDegree) hi = mid - 1;
-      else if (d > midDegree) lo = mid + 1;
-      else return mid;
-    }
-    return -lo - 1;
+   * @param i the index of the term, in \( [0, t) \) where \( t \) is the number of terms.
+   * @return the coefficient of the term.
+   */
+  int coefficientAt(final int i) {
+    return coefficient[i];
+  }
+
+  /**
+   * Converts this polynomial to a (dense) {@link Poly}.
+   *
+   * <p>Observe that the space required by the result is proportional to the degree of this
+   * polynomial, and not to its number of terms.
+   *
+   * @return the dense polynomial with the same coefficients.
+   */
+  public Poly toPoly() {
+    final int[] c = new int[degree() + 1];
+    for (int i = 0; i < degree.length; i++) c[degree[i]] = coefficient[i];
+    return new Poly(c);
   }
 
   /**
-   * Adds a term to a list of terms in increasing degree order.
+   * Returns an iterator over the terms of this polynomial, in increasing degree order.
    *
-   * <p>The list will remain in increasing degree order, in case a term with the same degree was
-   * present, the two will be added (and removed if the coefficient will become 0).
+   * <p>The terms are built on the fly, as views of the internal representation.
    *
-   * @param lst the not {@code null} list of not {@code null} terms in increasing degree order.
-   * @param term the not {@code null} term.
+   * @return the iterator.
    */
-  private static void addTerm(final List<Term> lst, final Term term) {
-    if (term.coefficient == 0) return;
-    final int i = findByDegree(lst, term.degree);
-    if (i >= 0) {
-      final int c = lst.get(i).coefficient + term.coefficient;
-      if (c != 0) lst.set(i, new Term(c, term.degree));
-      else lst.remove(i);
-    } else lst.add(-i - 1, term);
+  @Override
+  public Iterator<Term> iterator() {
+    return new Iterator<>() {
+
+      /** The index of the next term to return. */
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < degree.length;
+      }
+
+      @Override
+      public Term next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        final Term t = new Term(coefficient[i], degree[i]);
+        i++;
+        return t;
+      }
+    };
   }
 
   /**
@@ -189,9 +269,67 @@ public class SparsePoly {
    */
   public SparsePoly add(SparsePoly q) throws NullPointerException {
     Objects.requireNonNull(q, "The polynomial to add cannot be null.");
-    List<Term> result = new ArrayList<>(this.terms);
-    for (Term t : q.terms) addTerm(result, t);
-    return new SparsePoly(result);
+    return merge(this, q, 1, 0);
+  }
+
+  /**
+   * Adds a multiple of a polynomial, shifted by a power of \( x \), to this one.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p + c x^s q \); this is the kernel of long
+   * division (and of the evaluation of polynomials with polynomial coefficients) and it is
+   * performed in a single pass, without computing \( c x^s q \) first.
+   *
+   * @param q the polynomial to scale and add to this one.
+   * @param c the scale factor \( c \).
+   * @param shift the exponent \( s \) of the power of \( x \).
+   * @return the polynomial \( p + c x^s q \).
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws NegativeExponentException if {@code shift} &lt; 0.
+   * @throws IllegalArgumentException if the degree of the result does not fit in an {@code int}.
+   */
+  public SparsePoly addScaled(SparsePoly q, int c, int shift)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial to add cannot be null.");
+    if (shift < 0) throw new NegativeExponentException("The shift cannot be negative.");
+    if (q.degree() > Integer.MAX_VALUE - shift)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    return merge(this, q, c, shift);
+  }
+
+  /**
+   * Computes \( p + c x^s q \) merging the terms of the two polynomials.
+   *
+   * <p>The terms are merged in a single pass, as in the <em>merge</em> step of merge sort, so this
+   * takes time linear in the number of terms of {@code p} and {@code q}.
+   *
+   * @param p the first polynomial.
+   * @param q the polynomial to scale and shift.
+   * @param c the scale factor.
+   * @param shift the non negative shift, such that the degree of {@code q} plus it fits in an
+   *     {@code int}.
+   * @return the polynomial \( p + c x^s q \).
+   */
+  private static SparsePoly merge(SparsePoly p, SparsePoly q, int c, int shift) {
+    if (c == 0 || q.degree.length == 0) return p;
+    if (p.degree.length == 0 && c == 1 && shift == 0) return q;
+    final int n = p.degree.length, m = q.degree.length;
+    final int[] rd = new int[n + m], rc = new int[n + m];
+    int i = 0, j = 0, k = 0;
+    while (i < n || j < m) {
+      final int dq = j < m ? q.degree[j] + shift : Integer.MAX_VALUE;
+      if (i < n && (j == m || p.degree[i] < dq)) {
+        rd[k] = p.degree[i];
+        rc[k++] = p.coefficient[i++];
+      } else {
+        int s = c * q.coefficient[j++];
+        if (i < n && p.degree[i] == dq) s += p.coefficient[i++];
+        if (s != 0) {
+          rd[k] = dq;
+          rc[k++] = s;
+        }
+      }
+    }
+    return new SparsePoly(rd, rc, k);
   }
 
   /**
@@ -199,17 +337,380 @@ public class SparsePoly {
    *
    * <p>If \( p \) is this polynomial, returns \( p q \).
    *
+   * <p>The partial products are generated in increasing degree order by merging the "rows" \( t
+   * q \) (one for every term \( t \) of the polynomial with fewer terms) with a heap of cursors
+   * (Johnson's algorithm), so that the terms of the result are only appended; if the operands have
+   * \( n \le m \) terms, this takes \( O(n m \log n) \) time and \( O(n) \) additional space.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   */
+  public SparsePoly mul(SparsePoly q) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial to multiply cannot be null.");
+    if (degree.length == 0 || q.degree.length == 0) return new SparsePoly();
+    if ((long) degree() + q.degree() > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final SparsePoly rows = degree.length <= q.degree.length ? this : q;
+    return mulRange(rows, rows == this ? q : this, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Computes the terms of the product of two non zero polynomials with degree in a given range.
+   *
+   * <p>The partial products are generated in increasing degree order keeping a binary heap of the
+   * rows, each pointing to the next column to multiply (Johnson's algorithm); the products of the
+   * same degree are summed as they are extracted from the heap. The degree of the product must fit
+   * an {@code int}, as checked by the callers.
+   *
+   * @param rows the polynomial with less terms.
+   * @param cols the other polynomial.
+   * @param lo the smallest degree of the terms to compute.
+   * @param hi the largest degree of the terms to compute.
+   * @return the polynomial made of the terms of the product with degree in {@code [lo, hi]}.
+   */
+  private static SparsePoly mulRange(SparsePoly rows, SparsePoly cols, int lo, int hi) {
+    final int n = rows.degree.length, m = cols.degree.length;
+    final int[] cursor = new int[n]; // the column of the next product of every row
+    final int[] heapRow = new int[n], heapDegree = new int[n];
+    int size = 0;
+    for (int i = 0; i < n; i++) {
+      final int j = firstColumn(cols, (long) lo - rows.degree[i]);
+      if (j < m && rows.degree[i] + cols.degree[j] <= hi) {
+        cursor[i] = j;
+        heapRow[size] = i;
+        heapDegree[size++] = rows.degree[i] + cols.degree[j];
+      }
+    }
+    if (lo > 0) for (int i = size / 2 - 1; i >= 0; i--) siftDown(heapRow, heapDegree, size, i);
+    // else all the rows start from the first column, so this is already a heap
+    int k = 0;
+    int[] rd = new int[Math.max(n, m)], rc = new int[rd.length];
+    while (size > 0) {
+      final int d = heapDegree[0];
+      int c = 0;
+      do {
+        final int i = heapRow[0];
+        c += rows.coefficient[i] * cols.coefficient[cursor[i]];
+        if (++cursor[i] < m && rows.degree[i] + cols.degree[cursor[i]] <= hi)
+          heapDegree[0] = rows.degree[i] + cols.degree[cursor[i]];
+        else {
+          size--;
+          heapRow[0] = heapRow[size];
+          heapDegree[0] = heapDegree[size];
+        }
+        siftDown(heapRow, heapDegree, size, 0);
+      } while (size > 0 && heapDegree[0] == d);
+      if (c != 0) {
+        if (k == rd.length) {
+          rd = Arrays.copyOf(rd, 2 * k);
+          rc = Arrays.copyOf(rc, 2 * k);
+        }
+        rd[k] = d;
+        rc[k++] = c;
+      }
+    }
+    return new SparsePoly(rd, rc, k);
+  }
+
+  /**
+   * Returns the index of the first term of a polynomial with degree at least a given value.
+   *
+   * @param p the polynomial.
+   * @param d the degree.
+   * @return the smallest {@code j} such that the degree of the {@code j}-th term is at least {@code
+   *     d}, or the number of terms if there is no such term.
+   */
+  private static int firstColumn(SparsePoly p, long d) {
+    if (d <= 0) return 0;
+    if (d > Integer.MAX_VALUE) return p.degree.length;
+    final int j = Arrays.binarySearch(p.degree, (int) d);
+    return j >= 0 ? j : -j - 1;
+  }
+
+  /**
+   * Performs polynomial multiplication in parallel on the common pool.
+   *
    * @param q the polynomial to multiply by this one.
    * @return the product among this and the given polynomial.
    * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   * @see #mulParallel(SparsePoly, ForkJoinPool)
+   */
+  public SparsePoly mulParallel(SparsePoly q)
+      throws NullPointerException, IllegalArgumentException {
+    return mulParallel(q, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Performs polynomial multiplication in parallel on the given pool.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \). The range of the degrees of the product is
+   * recursively halved, and the terms of each half are computed by a separate task, until the
+   * number of partial products in a range is at most {@link #PARALLEL_THRESHOLD}; the terms are
+   * then concatenated in order, so that the result is identical to the one of {@link
+   * #mul(SparsePoly)}.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param pool the pool where to run the tasks.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} or {@code pool} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   */
+  public SparsePoly mulParallel(SparsePoly q, ForkJoinPool pool)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial to multiply cannot be null.");
+    Objects.requireNonNull(pool, "The pool cannot be null.");
+    if ((long) degree() + q.degree() > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    if ((long) degree.length * q.degree.length <= PARALLEL_THRESHOLD) return mul(q);
+    final SparsePoly rows = degree.length <= q.degree.length ? this : q;
+    final SparsePoly cols = rows == this ? q : this;
+    return pool.invoke(new MulTask(rows, cols, degree[0] + q.degree[0], degree() + q.degree()));
+  }
+
+  /** A task computing the terms of a product with degree in a given range. */
+  private static class MulTask extends RecursiveTask<SparsePoly> {
+
+    /** The serial version. */
+    static final long serialVersionUID = 1L;
+
+    /** The polynomial with less terms. */
+    private final transient SparsePoly rows;
+
+    /** The other polynomial. */
+    private final transient SparsePoly cols;
+
+    /** The smallest degree of the terms to compute. */
+    private final int lo;
+
+    /** The largest degree of the terms to compute. */
+    private final int hi;
+
+    /**
+     * Builds a task.
+     *
+     * @param rows the polynomial with less terms.
+     * @param cols the other polynomial.
+     * @param lo the smallest degree of the terms to compute.
+     * @param hi the largest degree of the terms to compute.
+     */
+    MulTask(SparsePoly rows, SparsePoly cols, int lo, int hi) {
+      this.rows = rows;
+      this.cols = cols;
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    protected SparsePoly compute() {
+      long products = 0;
+      for (int i = 0; i < rows.degree.length && products <= PARALLEL_THRESHOLD; i++)
+        products +=
+            firstColumn(cols, (long) hi + 1 - rows.degree[i])
+                - firstColumn(cols, (long) lo - rows.degree[i]);
+      if (lo == hi || products <= PARALLEL_THRESHOLD) return mulRange(rows, cols, lo, hi);
+      final int mid = lo + (hi - lo) / 2;
+      final MulTask left = new MulTask(rows, cols, lo, mid);
+      left.fork();
+      final SparsePoly high = new MulTask(rows, cols, mid + 1, hi).compute(), low = left.join();
+      final int n = low.degree.length, m = high.degree.length;
+      final int[] rd = Arrays.copyOf(low.degree, n + m), rc = Arrays.copyOf(low.coefficient, n + m);
+      System.arraycopy(high.degree, 0, rd, n, m);
+      System.arraycopy(high.coefficient, 0, rc, n, m);
+      return new SparsePoly(rd, rc, n + m);
+    }
+  }
+
+  /**
+   * Performs polynomial multiplication with a given coefficient width.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \) computed according to {@code width}: with
+   * {@link CoefficientWidth#INT} this is the same as {@link #mul(SparsePoly)}; with the other
+   * widths the product is computed exactly (see {@link WidePoly#mul(WidePoly)}) and an exception is
+   * thrown if it does not fit the given width.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param width the width of the coefficients of the result.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} or {@code width} is {@code null}.
+   * @throws ArithmeticException if some coefficient of the product does not fit {@code width}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
    */
-  public SparsePoly mul(SparsePoly q) throws NullPointerException {
+  public WidePoly mul(SparsePoly q, CoefficientWidth width)
+      throws NullPointerException, IllegalArgumentException {
     Objects.requireNonNull(q, "The polynomial to multiply cannot be null.");
-    List<Term> lst = new ArrayList<>();
-    for (Term tq : q.terms)
-      for (Term tt : terms)
-        addTerm(lst, new Term(tq.coefficient * tt.coefficient, tq.degree + tt.degree));
-    return new SparsePoly(lst);
+    Objects.requireNonNull(width, "The width cannot be null.");
+    if (width == CoefficientWidth.INT) return new WidePoly(mul(q));
+    return width.check(new WidePoly(this).mul(new WidePoly(q)));
+  }
+
+  /**
+   * Performs polynomial multiplication, throwing an exception on overflow.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws ArithmeticException if some coefficient of the product does not fit in an {@code int}.
+   * @see #mul(SparsePoly, CoefficientWidth)
+   */
+  public SparsePoly mulExact(SparsePoly q) throws NullPointerException {
+    return mul(q, CoefficientWidth.CHECKED_INT).toSparsePoly();
+  }
+
+  /**
+   * Restores the heap property of a binary min-heap of rows keyed by degree.
+   *
+   * @param row the rows in the heap.
+   * @param degree the keys of the rows in the heap.
+   * @param size the number of elements in the heap.
+   * @param i the position of the element that can violate the heap property.
+   */
+  static void siftDown(final int[] row, final int[] degree, final int size, int i) {
+    final int r = row[i], d = degree[i];
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) break;
+      if (child + 1 < size && degree[child + 1] < degree[child]) child++;
+      if (degree[child] >= d) break;
+      row[i] = row[child];
+      degree[i] = degree[child];
+      i = child;
+    }
+    row[i] = r;
+    degree[i] = d;
+  }
+
+  /**
+   * Raises this polynomial to a power.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p^k \), computed by repeated squaring (with
+   * \( O(\log k) \) multiplications); as for {@link #mul(SparsePoly)}, the coefficients are
+   * computed modulo \( 2^{32} \).
+   *
+   * @param k the exponent.
+   * @return this polynomial raised to the power {@code k}, in particular \( 1 \) if {@code k} is 0.
+   * @throws NegativeExponentException if {@code k} &lt; 0.
+   */
+  public SparsePoly pow(int k) throws NegativeExponentException {
+    if (k < 0)
+      throw new NegativeExponentException("A polynomial cannot be raised to a negative exponent.");
+    SparsePoly result = new SparsePoly(1, 0);
+    for (int bit = Integer.highestOneBit(k); bit != 0; bit >>>= 1) {
+      result = result.mul(result);
+      if ((k & bit) != 0) result = result.mul(this);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the derivative of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^{d_i} \) is this polynomial, returns \( p' = \sum_i d_i c_i x^{d_i -
+   * 1} \), computed in a single pass over the terms; as for {@link #mul(SparsePoly)}, the
+   * coefficients are computed modulo \( 2^{32} \).
+   *
+   * @return the derivative of this polynomial.
+   */
+  public SparsePoly derivative() {
+    return derivative(1);
+  }
+
+  /**
+   * Returns a derivative of given order of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^{d_i} \) is this polynomial, returns \( p^{(n)} = \sum_{d_i \ge n}
+   * c_i d_i (d_i - 1) \cdots (d_i - n + 1) x^{d_i - n} \), computed in a single pass over the
+   * terms. As for {@link Poly#derivative(int)}, the coefficients are computed modulo \( 2^{32} \),
+   * so the derivatives of order at least 34 are zero.
+   *
+   * @param n the order of the derivative.
+   * @return the {@code n}-th derivative of this polynomial, in particular this polynomial if {@code
+   *     n} is 0.
+   * @throws IllegalArgumentException if {@code n} &lt; 0.
+   */
+  public SparsePoly derivative(int n) throws IllegalArgumentException {
+    if (n < 0)
+      throw new IllegalArgumentException("The order of the derivative cannot be negative.");
+    if (n == 0) return this;
+    if (n >= ModArithmetic.INT_VANISHING_FACTORIAL) return new SparsePoly();
+    final int[] rd = new int[degree.length], rc = new int[degree.length];
+    int k = 0;
+    for (int i = 0; i < degree.length; i++) {
+      if (degree[i] < n) continue;
+      final int c = coefficient[i] * (int) ModArithmetic.fallingFactorial(degree[i], n);
+      if (c != 0) {
+        rd[k] = degree[i] - n;
+        rc[k++] = c;
+      }
+    }
+    return new SparsePoly(rd, rc, k);
+  }
+
+  /**
+   * Returns the antiderivative of this polynomial.
+   *
+   * <p>If \( p = \sum_i c_i x^{d_i} \) is this polynomial, returns the polynomial with rational
+   * coefficients \( \sum_i \frac{c_i}{d_i + 1} x^{d_i + 1} \), that is the antiderivative of \( p
+   * \) with zero constant term; it is computed in a single pass over the terms. Observe that the
+   * result is dense, as every {@link RationalPoly}, so its degree is limited to {@link
+   * RationalPoly#MAX_SPARSE_DEGREE}.
+   *
+   * @return the antiderivative of this polynomial.
+   * @throws IllegalArgumentException if the degree of the result exceeds {@link
+   *     RationalPoly#MAX_SPARSE_DEGREE}.
+   */
+  public RationalPoly antiderivative() throws IllegalArgumentException {
+    if (degree() >= RationalPoly.MAX_SPARSE_DEGREE)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final RationalNumber zero = new RationalNumber(0);
+    final RationalNumber[] r = new RationalNumber[degree() + 2];
+    Arrays.fill(r, zero);
+    for (int i = 0; i < degree.length; i++)
+      r[degree[i] + 1] = new RationalNumber(coefficient[i], degree[i] + 1L);
+    return new RationalPoly(r);
+  }
+
+  /**
+   * Returns the composition of this polynomial with another one.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(q(x)) \). The composition is computed by
+   * divide and conquer on the terms: splitting them in two halves, \( p = p_0 + x^h p_1 \) where \(
+   * h \) is the degree of the first term of the second half, it is \( p(q) = p_0(q) + q^h p_1(q)
+   * \); the gaps among the degrees are hence bridged by powers of \( q \) computed by repeated
+   * squaring, and most of the time is spent multiplying polynomials with many terms. As for {@link
+   * #mul(SparsePoly)}, the coefficients are computed modulo \( 2^{32} \).
+   *
+   * @param q the polynomial to substitute for \( x \).
+   * @return the composition of this polynomial with {@code q}.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result does not fit in an {@code int}.
+   */
+  public SparsePoly compose(SparsePoly q) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (degree() == 0) return this;
+    if (q.degree() == 0) return new SparsePoly((int) evaluate(q.coeff(0)), 0);
+    if ((long) degree() * q.degree() > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final SparsePoly r = compose(0, degree.length, q);
+    return degree[0] == 0 ? r : r.mul(q.pow(degree[0]));
+  }
+
+  /**
+   * Composes a range of terms of this polynomial with a polynomial \( q \).
+   *
+   * @param lo the index of the first term of the range.
+   * @param hi the index of the term following the last one of the range, greater than {@code lo}.
+   * @param q the polynomial.
+   * @return the polynomial \( \sum_{lo \le i &lt; hi} c_i q^{d_i - d_{lo}} \), where \( c_i \) and
+   *     \( d_i \) are the coefficient and the degree of the {@code i}-th term of this polynomial.
+   */
+  private SparsePoly compose(int lo, int hi, SparsePoly q) {
+    if (hi - lo == 1) return new SparsePoly(coefficient[lo], 0);
+    final int mid = (lo + hi) >>> 1;
+    final SparsePoly high = compose(mid, hi, q).mul(q.pow(degree[mid] - degree[lo]));
+    return merge(compose(lo, mid, q), high, 1, 0);
   }
 
   /**
@@ -223,7 +724,7 @@ public class SparsePoly {
    */
   public SparsePoly sub(SparsePoly q) throws NullPointerException {
     Objects.requireNonNull(q, "The polynomial to subtract cannot be null.");
-    return add(q.minus());
+    return merge(this, q, -1, 0);
   }
 
   /**
@@ -234,46 +735,405 @@ public class SparsePoly {
    * @return this polynomial multiplied by \( -1 \).
    */
   public SparsePoly minus() {
-    final List<Term> lst = new ArrayList<>();
-    for (Term t : terms) lst.add(new Term(-t.coefficient, t.degree));
-    return new SparsePoly(lst);
+    final int[] rc = new int[coefficient.length];
+    for (int i = 0; i < rc.length; i++) rc[i] = -coefficient[i];
+    return new SparsePoly(degree, rc, rc.length); // the degrees are shared
+  }
+
+  /**
+   * Performs polynomial division over the rationals.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \), that is the only polynomials with rational coefficients such
+   * that \( p = q d + r \) and the degree of \( r \) is less than the one of \( d \) (or \( r = 0
+   * \)). Observe that the result is a (dense) {@link RationalPoly}, so the degrees of the operands
+   * are limited to {@link RationalPoly#MAX_SPARSE_DEGREE}.
+   *
+   * @param d the divisor.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @throws IllegalArgumentException if the degree of this polynomial, or of {@code d}, exceeds
+   *     {@link RationalPoly#MAX_SPARSE_DEGREE}.
+   * @see RationalPoly#divRem(RationalPoly)
+   */
+  public DivRem<RationalPoly> divRem(SparsePoly d)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(d, "The divisor must not be null.");
+    return new RationalPoly(this).divRem(new RationalPoly(d));
+  }
+
+  /**
+   * Returns the remainder of the polynomial division over the rationals.
+   *
+   * @param d the divisor.
+   * @return the remainder of the division of this polynomial by {@code d}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws ArithmeticException if {@code d} is the zero polynomial.
+   * @throws IllegalArgumentException if the degree of this polynomial, or of {@code d}, exceeds
+   *     {@link RationalPoly#MAX_SPARSE_DEGREE}.
+   * @see #divRem(SparsePoly)
+   */
+  public RationalPoly mod(SparsePoly d) throws NullPointerException, IllegalArgumentException {
+    return divRem(d).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial over the rationals.
+   *
+   * @param q the other polynomial.
+   * @return the monic greatest common divisor, or the zero polynomial if both polynomials are
+   *     zero.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of this polynomial, or of {@code q}, exceeds
+   *     {@link RationalPoly#MAX_SPARSE_DEGREE}.
+   * @see RationalPoly#gcd(RationalPoly)
+   */
+  public RationalPoly gcd(SparsePoly q) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    return new RationalPoly(this).gcd(new RationalPoly(q));
+  }
+
+  /**
+   * Returns this polynomial with the coefficients reduced modulo a given number.
+   *
+   * @param m the modulus, must be positive.
+   * @return the polynomial with coefficients in \( [0, m) \) congruent to this one.
+   */
+  private SparsePoly reduceMod(int m) {
+    final int[] rd = new int[degree.length], rc = new int[degree.length];
+    int k = 0;
+    for (int i = 0; i < degree.length; i++) {
+      final int c = Math.floorMod(coefficient[i], m);
+      if (c != 0) {
+        rd[k] = degree[i];
+        rc[k++] = c;
+      }
+    }
+    return new SparsePoly(rd, rc, k);
+  }
+
+  /**
+   * Computes \( p + c x^s q \) modulo a given number, merging the terms of the two polynomials.
+   *
+   * @param p the first polynomial, with coefficients in \( [0, m) \).
+   * @param q the polynomial to scale and shift, with coefficients in \( [0, m) \).
+   * @param c the scale factor, in \( [0, m) \).
+   * @param shift the non negative shift, such that the degree of {@code q} plus it fits in an
+   *     {@code int}.
+   * @param m the modulus, must be positive.
+   * @return the polynomial \( p + c x^s q \bmod m \).
+   * @see #merge(SparsePoly, SparsePoly, int, int)
+   */
+  private static SparsePoly mergeMod(SparsePoly p, SparsePoly q, long c, int shift, int m) {
+    if (c == 0 || q.degree.length == 0) return p;
+    final int n = p.degree.length, l = q.degree.length;
+    final int[] rd = new int[n + l], rc = new int[n + l];
+    int i = 0, j = 0, k = 0;
+    while (i < n || j < l) {
+      final int dq = j < l ? q.degree[j] + shift : Integer.MAX_VALUE;
+      if (i < n && (j == l || p.degree[i] < dq)) {
+        rd[k] = p.degree[i];
+        rc[k++] = p.coefficient[i++];
+      } else {
+        long s = c * q.coefficient[j++] % m;
+        if (i < n && p.degree[i] == dq) s = (s + p.coefficient[i++]) % m;
+        if (s != 0) {
+          rd[k] = dq;
+          rc[k++] = (int) s;
+        }
+      }
+    }
+    return new SparsePoly(rd, rc, k);
+  }
+
+  /**
+   * Returns the coefficients of this polynomial as a dense array, in the format of {@link
+   * ModArithmetic}.
+   *
+   * @return the dense array of coefficients (that are assumed to be in \( [0, m) \)).
+   */
+  private int[] toDenseMod() {
+    if (degree.length == 0) return ModArithmetic.ZERO;
+    final int[] r = new int[degree() + 1];
+    for (int i = 0; i < degree.length; i++) r[degree[i]] = coefficient[i];
+    return r;
+  }
+
+  /**
+   * Builds a sparse polynomial from a dense array of coefficients.
+   *
+   * @param c the coefficients, possibly with zeros.
+   * @return the polynomial with the given coefficients.
+   */
+  static SparsePoly fromDense(int[] c) {
+    int n = 0;
+    for (int x : c) if (x != 0) n++;
+    final int[] rd = new int[n], rc = new int[n];
+    for (int i = 0, k = 0; i < c.length; i++)
+      if (c[i] != 0) {
+        rd[k] = i;
+        rc[k++] = c[i];
+      }
+    return new SparsePoly(rd, rc, n);
+  }
+
+  /**
+   * Performs polynomial division modulo a prime.
+   *
+   * <p>If \( p \) is this polynomial, returns the quotient \( q \) and remainder \( r \) of the
+   * division of \( p \) by \( d \) in \( \mathbb{Z}_m[x] \), with coefficients in \( [0, m) \).
+   *
+   * <p>If the operands are not too sparse (that is, if the degree of this polynomial is less than
+   * {@value #DENSE_DIVISION_RATIO} times the number of terms of the operands) the division is
+   * performed on the dense representation (hence using Newton's iteration, see {@link
+   * Poly#divRem(Poly, int)}); otherwise, a sparse long division is performed, where the remainder
+   * is updated as in {@link #addScaled(SparsePoly, int, int)}.
+   *
+   * @param d the divisor.
+   * @param m the modulus, must be a prime.
+   * @return the quotient and the remainder.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   * @throws ArithmeticException if {@code d} is zero modulo {@code m}.
+   */
+  public DivRem<SparsePoly> divRem(SparsePoly d, int m)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(d, "The divisor must not be null.");
+    ModArithmetic.requirePrime(m);
+    final SparsePoly b = d.reduceMod(m);
+    if (b.degree.length == 0) throw new ArithmeticException("Division by the zero polynomial.");
+    SparsePoly r = reduceMod(m);
+    if (r.degree() / DENSE_DIVISION_RATIO < r.degree.length + b.degree.length) {
+      final int[][] qr = ModArithmetic.divRem(r.toDenseMod(), b.toDenseMod(), m);
+      return new DivRem<>(fromDense(qr[0]), fromDense(qr[1]));
+    }
+    final int db = b.degree();
+    final long inv = ModArithmetic.inverseMod(b.coefficient[b.degree.length - 1], m);
+    int[] qd = new int[4], qc = new int[4]; // the quotient, in decreasing degree order
+    int k = 0;
+    while (r.degree.length > 0 && r.degree() >= db) {
+      final long c = r.coefficient[r.degree.length - 1] * inv % m;
+      if (k == qd.length) {
+        qd = Arrays.copyOf(qd, 2 * k);
+        qc = Arrays.copyOf(qc, 2 * k);
+      }
+      qd[k] = r.degree() - db;
+      qc[k++] = (int) c;
+      r = mergeMod(r, b, m - c, r.degree() - db, m);
+    }
+    final int[] rd = new int[k], rc = new int[k];
+    for (int i = 0; i < k; i++) {
+      rd[i] = qd[k - 1 - i];
+      rc[i] = qc[k - 1 - i];
+    }
+    return new DivRem<>(new SparsePoly(rd, rc, k), r);
+  }
+
+  /**
+   * Returns the remainder of the polynomial division modulo a prime.
+   *
+   * @param d the divisor.
+   * @param m the modulus, must be a prime.
+   * @return the remainder of the division of this polynomial by {@code d} modulo {@code m}.
+   * @throws NullPointerException if {@code d} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   * @throws ArithmeticException if {@code d} is zero modulo {@code m}.
+   * @see #divRem(SparsePoly, int)
+   */
+  public SparsePoly mod(SparsePoly d, int m) throws NullPointerException, IllegalArgumentException {
+    return divRem(d, m).remainder();
+  }
+
+  /**
+   * Returns the greatest common divisor among this and the given polynomial modulo a prime.
+   *
+   * @param q the other polynomial.
+   * @param m the modulus, must be a prime.
+   * @return the monic greatest common divisor in \( \mathbb{Z}_m[x] \), or the zero polynomial if
+   *     both polynomials are zero modulo {@code m}.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if {@code m} is not a prime.
+   */
+  public SparsePoly gcd(SparsePoly q, int m) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    ModArithmetic.requirePrime(m);
+    SparsePoly a = reduceMod(m), b = q.reduceMod(m);
+    while (b.degree.length > 0) {
+      final SparsePoly r = a.mod(b, m);
+      a = b;
+      b = r;
+    }
+    if (a.degree.length == 0) return a;
+    final long inv = ModArithmetic.inverseMod(a.coefficient[a.degree.length - 1], m);
+    return mergeMod(new SparsePoly(), a, inv, 0, m);
+  }
+
+  /**
+   * Evaluates this polynomial at a given point.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(x) \) computed with Horner's scheme on the
+   * terms using {@code long} arithmetic, that is modulo \( 2^{64} \); the powers of \( x \)
+   * corresponding to the gaps among consecutive degrees are computed by repeated squaring, so the
+   * time is \( O(t \log n) \) where \( t \) is the number of terms and \( n \) the degree.
+   *
+   * @param x the point.
+   * @return the value of this polynomial at {@code x}.
+   */
+  public long evaluate(long x) {
+    if (degree.length == 0) return 0;
+    int i = degree.length - 1;
+    long r = coefficient[i];
+    for (; i > 0; i--) r = r * ModArithmetic.pow(x, degree[i] - degree[i - 1]) + coefficient[i - 1];
+    return r * ModArithmetic.pow(x, degree[0]);
+  }
+
+  /**
+   * Evaluates this polynomial at a given point, modulo a given number.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p(x) \bmod m \) computed as in {@link
+   * #evaluate(long)} (without overflow, whatever the modulus).
+   *
+   * @param x the point.
+   * @param m the modulus.
+   * @return the value of this polynomial at {@code x} modulo {@code m}, in \( [0, m) \).
+   * @throws IllegalArgumentException if {@code m} is not positive.
+   */
+  public long evaluateMod(long x, long m) throws IllegalArgumentException {
+    if (m <= 0) throw new IllegalArgumentException("The modulus must be positive.");
+    if (degree.length == 0) return 0;
+    x = ModArithmetic.reduce(x, m);
+    int i = degree.length - 1;
+    long r = ModArithmetic.reduce(coefficient[i], m);
+    for (; i > 0; i--) {
+      r = ModArithmetic.mulMod(r, ModArithmetic.powMod(x, degree[i] - degree[i - 1], m), m);
+      r += ModArithmetic.reduce(coefficient[i - 1], m);
+      if (r >= m || r < 0) r -= m;
+    }
+    return ModArithmetic.mulMod(r, ModArithmetic.powMod(x, degree[0], m), m);
+  }
+
+  /**
+   * Evaluates this polynomial at many points.
+   *
+   * <p>Stores in {@code out[i]} the value {@link #evaluate(long) evaluate(xs[i])}; the points are
+   * processed four at a time, so that every term is read once for four independent (hence
+   * pipelined) Horner recurrences.
+   *
+   * @param xs the points.
+   * @param out the array where to store the values, at least as long as {@code xs}.
+   * @throws NullPointerException if {@code xs} or {@code out} is {@code null}.
+   * @throws IllegalArgumentException if {@code out} is shorter than {@code xs}.
+   */
+  public void evaluate(long[] xs, long[] out)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(xs, "The points must not be null.");
+    Objects.requireNonNull(out, "The output array must not be null.");
+    if (out.length < xs.length)
+      throw new IllegalArgumentException("The output array is shorter than the points one.");
+    int i = 0;
+    for (; i + 4 <= xs.length && degree.length > 0; i += 4) {
+      final long x0 = xs[i], x1 = xs[i + 1], x2 = xs[i + 2], x3 = xs[i + 3];
+      int k = degree.length - 1;
+      long r0 = coefficient[k], r1 = r0, r2 = r0, r3 = r0;
+      for (; k >= 0; k--) {
+        final int gap = k > 0 ? degree[k] - degree[k - 1] : degree[0];
+        final long c = k > 0 ? coefficient[k - 1] : 0;
+        if (gap == 1) {
+          r0 = r0 * x0 + c;
+          r1 = r1 * x1 + c;
+          r2 = r2 * x2 + c;
+          r3 = r3 * x3 + c;
+        } else {
+          r0 = r0 * ModArithmetic.pow(x0, gap) + c;
+          r1 = r1 * ModArithmetic.pow(x1, gap) + c;
+          r2 = r2 * ModArithmetic.pow(x2, gap) + c;
+          r3 = r3 * ModArithmetic.pow(x3, gap) + c;
+        }
+      }
+      out[i] = r0;
+      out[i + 1] = r1;
+      out[i + 2] = r2;
+      out[i + 3] = r3;
+    }
+    for (; i < xs.length; i++) out[i] = evaluate(xs[i]);
+  }
+
+  /**
+   * Returns the canonical instance equal to this polynomial.
+   *
+   * <p>Equal polynomials return the same instance, so that interned polynomials can be compared by
+   * reference; the canonical instances are kept in a weak table, hence they are reclaimed once they
+   * are no longer used.
+   *
+   * @return the canonical instance equal to this polynomial.
+   */
+  public SparsePoly intern() {
+    return INTERNED.intern(this);
   }
 
   @Override
   public boolean equals(Object obj) {
     if (this == obj) return true;
     if (!(obj instanceof SparsePoly other)) return false;
-    return terms.equals(other.terms);
+    if (hash != 0 && other.hash != 0 && hash != other.hash) return false;
+    return Arrays.equals(degree, other.degree) && Arrays.equals(coefficient, other.coefficient);
   }
 
   @Override
   public int hashCode() {
-    return terms.hashCode();
+    int h = hash;
+    if (h == 0) {
+      h = 1;
+      for (int i = 0; i < degree.length; i++) h = 31 * (31 * h + coefficient[i]) + degree[i];
+      hash = h;
+    }
+    return h;
+  }
+
+  /**
+   * Writes the textual representation of this polynomial (the same returned by {@link
+   * #toString()}) to an {@link Appendable}.
+   *
+   * <p>The representation is written term by term, without creating temporary strings.
+   *
+   * @param <A> the type of the appendable.
+   * @param out where to write.
+   * @return {@code out}.
+   * @throws NullPointerException if {@code out} is {@code null}.
+   * @throws IOException if {@code out} throws it.
+   */
+  public <A extends Appendable> A appendTo(A out) throws NullPointerException, IOException {
+    Objects.requireNonNull(out, "The appendable must not be null.");
+    out.append("SparsePoly: ");
+    if (degree() == 0) PolyFormat.appendInt(out, degree.length == 0 ? 0 : coefficient[0]);
+    else {
+      final int top = degree.length - 1;
+      PolyFormat.appendTerm(out, coefficient[top], degree[top], true);
+      for (int pos = top - 1; pos >= 0; pos--)
+        PolyFormat.appendTerm(out, coefficient[pos], degree[pos], false);
+    }
+    return out;
+  }
+
+  /**
+   * Writes the textual representation of this polynomial (the same returned by {@link
+   * #toString()}) to a {@link Writer}.
+   *
+   * @param out where to write.
+   * @throws NullPointerException if {@code out} is {@code null}.
+   * @throws IOException if {@code out} throws it.
+   */
+  public void writeTo(Writer out) throws NullPointerException, IOException {
+    appendTo(out);
   }
 
   @Override
   public String toString() {
-    if (degree() > 0) {
-      StringBuilder sb = new StringBuilder("SparsePoly: ");
-      int pos = terms.size() - 1;
-      Term t = terms.get(pos);
-      if (t.coefficient < -1) sb.append("-" + (-t.coefficient));
-      else if (t.coefficient == -1) sb.append("-");
-      else if (t.coefficient > 1) sb.append(t.coefficient);
-      sb.append("x" + (t.degree > 1 ? "^" + t.degree : ""));
-      while (--pos >= 0) {
-        t = terms.get(pos);
-        if (t.degree == 0) break;
-        if (t.coefficient < -1) sb.append(" - " + (-t.coefficient));
-        else if (t.coefficient == -1) sb.append(" - ");
-        else if (t.coefficient == 1) sb.append(" + ");
-        else sb.append(" + " + t.coefficient);
-        sb.append("x" + (t.degree > 1 ? "^" + t.degree : ""));
-      }
-      if (t.degree == 0)
-        if (t.coefficient > 0) sb.append(" + " + t.coefficient);
-        else if (t.coefficient < 0) sb.append(" - " + (-t.coefficient));
-      return sb.toString();
-    } else return "SparsePoly: " + (terms.isEmpty() ? 0 : terms.get(0).coefficient);
+    try {
+      return appendTo(new StringBuilder()).toString();
+    } catch (IOException cantHappen) { // a StringBuilder never throws IOException
+      throw new UncheckedIOException(cantHappen);
+    }
   }
 }
@@ -0,0 +1,282 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import it.unimi.di.prog2.h08.impl.NegativeExponentException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A mutable sparse polynomial, used to accumulate the result of many operations without
+ * allocating an intermediate {@link SparsePoly} for each of them.
+ *
+ * <p>The terms are kept in two growable parallel arrays of {@code int}s (as in {@link SparsePoly});
+ * the sums are merged into a second pair of arrays, that is then swapped with the first one, so
+ * that once the buffers are large enough no allocation takes place. {@link #freeze()} returns the
+ * accumulated value as an immutable {@link SparsePoly}. As in {@link SparsePoly}, the coefficients
+ * are computed modulo \( 2^{32} \).
+ */
+public class SparsePolyAccumulator {
+
+  /** The degrees of the terms (in increasing order). */
+  private int[] degree;
+
+  /** The coefficients of the terms. */
+  private int[] coefficient;
+
+  /** The number of terms. */
+  private int size;
+
+  /** The degrees of the buffer where the next merge is written, or {@code null}. */
+  private int[] nextDegree;
+
+  /** The coefficients of the buffer where the next merge is written, or {@code null}. */
+  private int[] nextCoefficient;
+
+  /** Whether {@link #degree} and {@link #coefficient} are shared with a {@link SparsePoly}. */
+  private boolean shared;
+
+  /*-
+   * AF:
+   *
+   *  AF(degree, coefficient, size) = \sum_{i < size} coefficient[i] x^degree[i]
+   *
+   * RI:
+   *
+   *  - degree, coefficient != null and size <= degree.length == coefficient.length,
+   *  - degree[0..size) is non negative and strictly increasing,
+   *  - coefficient[0..size) does not contain zeros,
+   *  - nextDegree == null iff nextCoefficient == null, and if not null they have the same length
+   *    and are different from degree and coefficient,
+   *  - shared ⇒ degree and coefficient must not be modified (they belong to a SparsePoly).
+   */
+
+  /** Builds an accumulator equal to the zero polynomial, that is \( p = 0 \). */
+  public SparsePolyAccumulator() {
+    degree = new int[16];
+    coefficient = new int[16];
+  }
+
+  /**
+   * Builds an accumulator equal to a given polynomial.
+   *
+   * @param p the initial value.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public SparsePolyAccumulator(SparsePoly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    size = p.termCount();
+    degree = new int[Math.max(size, 16)];
+    coefficient = new int[degree.length];
+    for (int i = 0; i < size; i++) {
+      degree[i] = p.degreeAt(i);
+      coefficient[i] = p.coefficientAt(i);
+    }
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero
+   *     polynomial.
+   */
+  public int degree() {
+    return size == 0 ? 0 : degree[size - 1];
+  }
+
+  /**
+   * Returns the number of (non-zero) terms of this polynomial.
+   *
+   * @return the number of terms.
+   */
+  public int termCount() {
+    return size;
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   */
+  public int coeff(int d) {
+    final int i = Arrays.binarySearch(degree, 0, size, d);
+    return i < 0 ? 0 : coefficient[i];
+  }
+
+  /**
+   * Adds a polynomial to this one.
+   *
+   * @param q the polynomial to add.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public SparsePolyAccumulator addInPlace(SparsePoly q) throws NullPointerException {
+    return addScaledInPlace(q, 1, 0);
+  }
+
+  /**
+   * Subtracts a polynomial from this one.
+   *
+   * @param q the polynomial to subtract.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public SparsePolyAccumulator subInPlace(SparsePoly q) throws NullPointerException {
+    return addScaledInPlace(q, -1, 0);
+  }
+
+  /**
+   * Adds a multiple of a polynomial, shifted by a power of \( x \), to this one.
+   *
+   * <p>If \( p \) is this polynomial, it becomes \( p + c x^s q \); the terms are merged in a
+   * single pass, as in {@link SparsePoly#addScaled(SparsePoly, int, int)}.
+   *
+   * @param q the polynomial to scale and add.
+   * @param c the scale factor \( c \).
+   * @param shift the exponent \( s \) of the power of \( x \).
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws NegativeExponentException if {@code shift} &lt; 0.
+   * @throws IllegalArgumentException if the degree of the result does not fit in an {@code int}.
+   */
+  public SparsePolyAccumulator addScaledInPlace(SparsePoly q, int c, int shift)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (shift < 0) throw new NegativeExponentException("The shift cannot be negative.");
+    if (q.degree() > Integer.MAX_VALUE - shift)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final int m = q.termCount();
+    if (c == 0 || m == 0) return this;
+    if (nextDegree == null || nextDegree.length < size + m) {
+      final int capacity = Math.max(size + m, 2 * degree.length);
+      nextDegree = new int[capacity];
+      nextCoefficient = new int[capacity];
+    }
+    final int[] rd = nextDegree, rc = nextCoefficient;
+    int i = 0, j = 0, k = 0;
+    while (i < size || j < m) {
+      final int dq = j < m ? q.degreeAt(j) + shift : Integer.MAX_VALUE;
+      if (i < size && (j == m || degree[i] < dq)) {
+        rd[k] = degree[i];
+        rc[k++] = coefficient[i++];
+      } else {
+        int s = c * q.coefficientAt(j++);
+        if (i < size && degree[i] == dq) s += coefficient[i++];
+        if (s != 0) {
+          rd[k] = dq;
+          rc[k++] = s;
+        }
+      }
+    }
+    adopt(rd, rc, k);
+    return this;
+  }
+
+  /**
+   * Makes the given buffer (that must be {@link #nextDegree} and {@link #nextCoefficient}) the
+   * current one, recycling the current one for the next merge unless it is shared.
+   *
+   * @param rd the degrees.
+   * @param rc the coefficients.
+   * @param k the number of terms.
+   */
+  private void adopt(int[] rd, int[] rc, int k) {
+    nextDegree = shared ? null : degree;
+    nextCoefficient = shared ? null : coefficient;
+    degree = rd;
+    coefficient = rc;
+    size = k;
+    shared = false;
+  }
+
+  /**
+   * Multiplies this polynomial by another one.
+   *
+   * <p>The product is computed by {@link SparsePoly#mul(SparsePoly)} and its terms are copied in
+   * the buffer of this accumulator.
+   *
+   * @param q the polynomial to multiply by.
+   * @return this accumulator.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   */
+  public SparsePolyAccumulator mulInPlace(SparsePoly q)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    final SparsePoly r = new SparsePoly(degree, coefficient, size).mul(q);
+    final int n = r.termCount();
+    if (nextDegree == null || nextDegree.length < n) {
+      nextDegree = new int[Math.max(n, 16)];
+      nextCoefficient = new int[nextDegree.length];
+    }
+    for (int i = 0; i < n; i++) {
+      nextDegree[i] = r.degreeAt(i);
+      nextCoefficient[i] = r.coefficientAt(i);
+    }
+    adopt(nextDegree, nextCoefficient, n);
+    return this;
+  }
+
+  /**
+   * Sets this polynomial to zero.
+   *
+   * @return this accumulator.
+   */
+  public SparsePolyAccumulator clear() {
+    size = 0;
+    return this;
+  }
+
+  /**
+   * Returns the accumulated polynomial.
+   *
+   * <p>If the buffer has exactly the size of the result, it is not copied but shared with the
+   * returned {@link SparsePoly}; in this case it is not reused by the following modifications of
+   * this accumulator, that can hence be used after this call.
+   *
+   * @return the immutable polynomial equal to this one.
+   */
+  public SparsePoly freeze() {
+    if (size == degree.length) shared = true;
+    return new SparsePoly(degree, coefficient, size);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder out = new StringBuilder("SparsePolyAccumulator: ");
+    try { // the buffers are formatted directly, since freeze would mark them as shared
+      if (size == 0 || degree[size - 1] == 0)
+        PolyFormat.appendInt(out, size == 0 ? 0 : coefficient[0]);
+      else {
+        PolyFormat.appendTerm(out, coefficient[size - 1], degree[size - 1], true);
+        for (int pos = size - 2; pos >= 0; pos--)
+          PolyFormat.appendTerm(out, coefficient[pos], degree[pos], false);
+      }
+    } catch (IOException cantHappen) { // a StringBuilder never throws IOException
+      throw new UncheckedIOException(cantHappen);
+    }
+    return out.toString();
+  }
+}
@@ -21,7 +21,7 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 
 package it.unimi.di.prog2.h11;
 
-import java.util.Scanner;
+import java.io.IOException;
 
 /** A class to test some methods of {@link SparsePoly}. */
 public class SparsePolyClient {
@@ -37,13 +37,16 @@ public class SparsePolyClient {
    * \codt t_i + t_i \) emitting in the standard output the pairs "coefficient degree" for every
    * term (in increasing order of degree) of the last computed polynomial.
    *
+   * <p>The terms are read from the standard input by a {@link TermReader}.
+   *
    * @param args not used.
+   * @throws IOException if an I/O error occurs.
    */
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException {
     SparsePoly result = new SparsePoly(1, 1).add(new SparsePoly(-1, 0));
-    try (Scanner s = new Scanner(System.in)) {
-      while (s.hasNextInt()) {
-        SparsePoly term = new SparsePoly(s.nextInt(), s.nextInt());
+    try (TermReader in = new TermReader(System.in)) {
+      while (in.next()) {
+        SparsePoly term = new SparsePoly(in.coefficient(), in.degree());
         result = result.mul(term).add(term);
       }
     }
@@ -0,0 +1,214 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Objects;
+
+/**
+ * A {@code SubproductTree} allows to evaluate polynomials at, and to interpolate polynomials
+ * through, a fixed set of points modulo a prime \( p \).
+ *
+ * <p>Given the points \( x_0, \ldots, x_{n-1} \), the tree has the polynomials \( x - x_i \) as
+ * leaves and, as internal nodes, the product of their children; the root is hence \( M(x) = \prod
+ * (x - x_i) \). To evaluate \( f \) at all the points, the remainder \( f \bmod M \) is pushed down
+ * the tree (taking remainders with respect to the children at every step), so that the leaves get
+ * \( f \bmod (x - x_i) = f(x_i) \). Since multiplication and division take quasi-linear time (see
+ * {@link PolyMultiplier}), both evaluation and interpolation take time \( O(n \log^2 n) \) for a
+ * polynomial of degree \( n \), instead of the \( O(n^2) \) of Horner's scheme (or Lagrange's
+ * formula).
+ *
+ * <p>Trees are immutable, so they can be built once and used for many polynomials.
+ */
+public class SubproductTree {
+
+  /** The prime modulus. */
+  private final int p;
+
+  /** The points, reduced modulo {@link #p}. */
+  private final int[] point;
+
+  /** The tree, {@code tree[h][i]} is the {@code i}-th node at height {@code h}. */
+  private final int[][][] tree;
+
+  /**
+   * The inverses of the reversed nodes, used to speed up the divisions in {@link
+   * #valuesAtLeaves(int[])}, or {@code null} for the root and the nodes equal to their parent.
+   */
+  private final int[][][] inverse;
+
+  /*-
+   * AF:
+   *
+   *  AF(p, point, tree) = the tree of the points point[0], ..., point[n - 1] modulo p
+   *
+   * RI:
+   *
+   *  - p is prime,
+   *  - point is not empty and 0 <= point[i] < p for every i,
+   *  - tree[0][i] is the polynomial x - point[i] (in the format of ModArithmetic),
+   *  - tree[h + 1].length == (tree[h].length + 1) / 2 and tree[h + 1][i] is the product of
+   *    tree[h][2 i] and tree[h][2 i + 1] (if present, otherwise it is just tree[h][2 i]),
+   *  - tree[tree.length - 1].length == 1,
+   *  - inverse[h][i] is null if h is the top height or tree[h][i] is equal to its parent,
+   *    otherwise it is the inverse of rev(tree[h][i]) modulo x^k where k is the difference
+   *    among the degree of the parent and the one of tree[h][i].
+   */
+
+  /**
+   * Builds the tree of the given points modulo the given prime.
+   *
+   * @param points the points, not necessarily reduced modulo {@code p}.
+   * @param p the modulus, must be a prime.
+   * @throws NullPointerException if {@code points} is {@code null}.
+   * @throws IllegalArgumentException if {@code points} is empty, or {@code p} is not prime.
+   */
+  public SubproductTree(long[] points, int p)
+      throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(points, "The points must not be null.");
+    if (points.length == 0) throw new IllegalArgumentException("There must be at least a point.");
+    ModArithmetic.requirePrime(p);
+    this.p = p;
+    point = new int[points.length];
+    for (int i = 0; i < points.length; i++) point[i] = (int) ModArithmetic.reduce(points[i], p);
+    int height = 1;
+    for (int n = point.length; n > 1; n = (n + 1) / 2) height++;
+    tree = new int[height][][];
+    tree[0] = new int[point.length][];
+    for (int i = 0; i < point.length; i++)
+      tree[0][i] = new int[] {point[i] == 0 ? 0 : p - point[i], 1};
+    for (int h = 1; h < height; h++) {
+      final int[][] below = tree[h - 1];
+      tree[h] = new int[(below.length + 1) / 2][];
+      for (int i = 0; i < tree[h].length; i++)
+        tree[h][i] =
+            2 * i + 1 < below.length
+                ? ModArithmetic.mul(below[2 * i], below[2 * i + 1], p)
+                : below[2 * i];
+    }
+    inverse = new int[height][][];
+    inverse[height - 1] = new int[1][];
+    for (int h = 0; h < height - 1; h++) {
+      inverse[h] = new int[tree[h].length][];
+      for (int i = 0; i < tree[h].length; i++) {
+        final int k = tree[h + 1][i / 2].length - tree[h][i].length;
+        if (k > 0) inverse[h][i] = ModArithmetic.reverseInverse(tree[h][i], k, p);
+      }
+    }
+  }
+
+  /**
+   * Returns the prime modulus of this tree.
+   *
+   * @return the modulus.
+   */
+  public int prime() {
+    return p;
+  }
+
+  /**
+   * Returns the number of points of this tree.
+   *
+   * @return the number of points.
+   */
+  public int size() {
+    return point.length;
+  }
+
+  /**
+   * Pushes a polynomial down the tree, computing its remainders modulo the leaves.
+   *
+   * @param f the polynomial, in the format of {@link ModArithmetic}.
+   * @return the array of the values \( f(x_i) \bmod p \).
+   */
+  private int[] valuesAtLeaves(int[] f) {
+    int[][] rem = {ModArithmetic.divRem(f, tree[tree.length - 1][0], p)[1]};
+    for (int h = tree.length - 2; h >= 0; h--) {
+      final int[][] below = new int[tree[h].length][];
+      for (int i = 0; i < below.length; i++)
+        below[i] = ModArithmetic.divRem(rem[i / 2], tree[h][i], inverse[h][i], p)[1];
+      rem = below;
+    }
+    final int[] values = new int[point.length];
+    for (int i = 0; i < values.length; i++) values[i] = rem[i].length == 0 ? 0 : rem[i][0];
+    return values;
+  }
+
+  /**
+   * Evaluates a polynomial at all the points of this tree.
+   *
+   * @param f the polynomial.
+   * @return the array whose element {@code i} is \( f(x_i) \bmod p \), in \( [0, p) \).
+   * @throws NullPointerException if {@code f} is {@code null}.
+   */
+  public int[] evaluate(Poly f) throws NullPointerException {
+    Objects.requireNonNull(f, "The polynomial must not be null.");
+    return valuesAtLeaves(f.coefficientsMod(p));
+  }
+
+  /**
+   * Computes the polynomial interpolating the given values at the points of this tree.
+   *
+   * <p>The interpolating polynomial is computed with Lagrange's formula \( f = \sum_i c_i M / (x -
+   * x_i) \) where \( c_i = y_i / M'(x_i) \); the values \( M'(x_i) \) are obtained by {@link
+   * #evaluate(Poly) evaluating} the derivative of the root, and the sum is computed bottom up
+   * combining the children \( l, r \) of every node as \( l M_r + r M_l \) (where \( M_l, M_r \)
+   * are the corresponding nodes of the tree).
+   *
+   * @param values the values \( y_i \), not necessarily reduced modulo {@code p}, there must be one
+   *     for every point.
+   * @return the unique polynomial \( f \) of degree less than the number of points such that \(
+   *     f(x_i) \equiv y_i \pmod{p} \), with coefficients in \( [0, p) \).
+   * @throws NullPointerException if {@code values} is {@code null}.
+   * @throws IllegalArgumentException if the number of values differs from the number of points, or
+   *     if the points are not distinct modulo {@code p}.
+   */
+  public Poly interpolate(long[] values) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(values, "The values must not be null.");
+    if (values.length != point.length)
+      throw new IllegalArgumentException("There must be a value for every point.");
+    final int[] m = tree[tree.length - 1][0];
+    final int[] dm = new int[m.length - 1];
+    for (int i = 1; i < m.length; i++) dm[i - 1] = (int) ((long) i % p * m[i] % p);
+    final int[] w = valuesAtLeaves(ModArithmetic.trim(dm, dm.length));
+    int[][] sum = new int[point.length][];
+    for (int i = 0; i < point.length; i++) {
+      if (w[i] == 0) throw new IllegalArgumentException("The points must be distinct modulo p.");
+      final long c =
+          ModArithmetic.mulMod(
+              ModArithmetic.reduce(values[i], p), ModArithmetic.inverseMod(w[i], p), p);
+      sum[i] = c == 0 ? ModArithmetic.ZERO : new int[] {(int) c};
+    }
+    for (int h = 0; h < tree.length - 1; h++) {
+      final int[][] above = new int[tree[h + 1].length][];
+      for (int i = 0; i < above.length; i++)
+        above[i] =
+            2 * i + 1 < sum.length
+                ? ModArithmetic.add(
+                    ModArithmetic.mul(sum[2 * i], tree[h][2 * i + 1], p),
+                    ModArithmetic.mul(sum[2 * i + 1], tree[h][2 * i], p),
+                    p)
+                : sum[2 * i];
+      sum = above;
+    }
+    return sum[0].length == 0 ? new Poly() : new Poly(sum[0]);
+  }
+}
@@ -0,0 +1,195 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A streaming reader of terms, given as whitespace separated (coefficient, degree) pairs of
+ * decimal integers, as in the input of {@link PolyClient} and {@link SparsePolyClient}.
+ *
+ * <p>The input is read in blocks into a byte buffer and parsed directly, without creating a string
+ * for every token; as with a {@link java.util.Scanner}, reading stops at the end of the input or at
+ * the first token that is not an {@code int}.
+ */
+public class TermReader implements Closeable {
+
+  /** The size of the input buffer. */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /** The input channel. */
+  private final ReadableByteChannel channel;
+
+  /** The input buffer. */
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).limit(0);
+
+  /** Whether the end of the input, or a token that is not an {@code int}, has been reached. */
+  private boolean done;
+
+  /** The last parsed {@code int}. */
+  private int value;
+
+  /** The coefficient of the last read term. */
+  private int coefficient;
+
+  /** The degree of the last read term. */
+  private int degree;
+
+  /**
+   * Builds a reader on an input stream.
+   *
+   * @param in the input stream.
+   * @throws NullPointerException if {@code in} is {@code null}.
+   */
+  public TermReader(InputStream in) throws NullPointerException {
+    this(Channels.newChannel(Objects.requireNonNull(in, "The stream must not be null.")));
+  }
+
+  /**
+   * Builds a reader on a channel.
+   *
+   * @param channel the channel.
+   * @throws NullPointerException if {@code channel} is {@code null}.
+   */
+  public TermReader(ReadableByteChannel channel) throws NullPointerException {
+    this.channel = Objects.requireNonNull(channel, "The channel must not be null.");
+  }
+
+  /**
+   * Reads the next byte of the input.
+   *
+   * @return the byte (as an unsigned value), or -1 at the end of the input.
+   * @throws IOException if an I/O error occurs.
+   */
+  private int read() throws IOException {
+    while (!buffer.hasRemaining()) {
+      buffer.clear();
+      final int n = channel.read(buffer);
+      buffer.flip();
+      if (n < 0) return -1;
+    }
+    return buffer.get() & 0xFF;
+  }
+
+  /**
+   * Tells whether a byte is a whitespace.
+   *
+   * @param b the byte.
+   * @return whether {@code b} is an ASCII whitespace.
+   */
+  private static boolean isWhitespace(int b) {
+    return b == ' ' || b >= '\t' && b <= '\r' || b >= 0x1C && b <= 0x1F;
+  }
+
+  /**
+   * Parses the next token as an {@code int}, storing it in {@link #value}.
+   *
+   * @return {@code true} if the token is an {@code int}, {@code false} if the input is over or the
+   *     token is not an {@code int} (in which case {@link #done} is set).
+   * @throws IOException if an I/O error occurs.
+   */
+  private boolean nextInt() throws IOException {
+    if (done) return false;
+    int b;
+    do b = read();
+    while (isWhitespace(b));
+    final boolean negative = b == '-';
+    if (b == '-' || b == '+') b = read();
+    long v = 0;
+    boolean valid = b >= '0' && b <= '9';
+    for (; b >= 0 && !isWhitespace(b); b = read())
+      if (b < '0' || b > '9' || v > Integer.MAX_VALUE + 1L) valid = false;
+      else v = 10 * v + b - '0';
+    if (negative) v = -v;
+    if (!valid || v < Integer.MIN_VALUE || v > Integer.MAX_VALUE) {
+      done = true;
+      return false;
+    }
+    value = (int) v;
+    return true;
+  }
+
+  /**
+   * Reads the next term.
+   *
+   * @return {@code true} if a term has been read, {@code false} if the input is over (or the next
+   *     token is not an {@code int}).
+   * @throws IOException if an I/O error occurs.
+   * @throws NoSuchElementException if a coefficient is not followed by a degree.
+   */
+  public boolean next() throws IOException, NoSuchElementException {
+    if (!nextInt()) return false;
+    coefficient = value;
+    if (!nextInt()) throw new NoSuchElementException("Missing degree after coefficient " + value);
+    degree = value;
+    return true;
+  }
+
+  /**
+   * Returns the coefficient of the last term read by {@link #next()}.
+   *
+   * @return the coefficient.
+   */
+  public int coefficient() {
+    return coefficient;
+  }
+
+  /**
+   * Returns the degree of the last term read by {@link #next()}.
+   *
+   * @return the degree.
+   */
+  public int degree() {
+    return degree;
+  }
+
+  /**
+   * Reads all the (remaining) terms, adding them to a builder.
+   *
+   * @param builder the builder.
+   * @return the number of terms read.
+   * @throws NullPointerException if {@code builder} is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @throws NoSuchElementException if a coefficient is not followed by a degree.
+   * @throws it.unimi.di.prog2.h08.impl.NegativeExponentException if a term with non-zero
+   *     coefficient has negative degree.
+   */
+  public long readInto(PolyBuilder builder)
+      throws NullPointerException, IOException, NoSuchElementException {
+    Objects.requireNonNull(builder, "The builder must not be null.");
+    long n = 0;
+    for (; next(); n++) builder.add(coefficient, degree);
+    return n;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,538 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * {@code WidePoly}s are immutable polynomials with arbitrary precision integer coefficients.
+ *
+ * <p>A typical {@code WidePoly} is \( p = c_0 + c_1 x + c_2 x^2 + \cdots + c_n x^n \).
+ *
+ * <p>As in {@link SparsePoly}, just the non-zero terms are stored; the coefficients are kept in an
+ * array of {@code long}s, unless some of them does not fit in a {@code long}, in which case all of
+ * them are stored as {@link BigInteger}s. The operations are performed with {@code long} arithmetic
+ * (detecting overflows with {@link Math#multiplyHigh(long, long)} and the sign of the sums) and the
+ * result is promoted to {@link BigInteger}s only if an overflow is actually detected, so that when
+ * the values fit no {@link BigInteger} is ever allocated.
+ */
+public class WidePoly {
+
+  /** An empty array, shared by all the zero polynomials. */
+  private static final int[] EMPTY = new int[0];
+
+  /** The degrees of the terms (in increasing order). */
+  private final int[] degree;
+
+  /** The coefficients of the terms, if they all fit in a {@code long}, or {@code null}. */
+  private final long[] small;
+
+  /** The coefficients of the terms, if some of them does not fit in a {@code long}, or null. */
+  private final BigInteger[] big;
+
+  /*-
+   * AF:
+   *
+   *  AF(degree, small, big) = \sum c_i x^degree[i] where c_i = small[i] if small != null,
+   *    or big[i] otherwise.
+   *
+   * RI:
+   *
+   *  - degree != null, degree[0] >= 0 and degree is in strictly increasing order,
+   *  - exactly one among small and big is null, and the other is as long as degree,
+   *  - all the coefficients are not zero,
+   *  - big != null ⇒ big does not contain nulls and some big[i] does not fit in a long.
+   *
+   * Observe that the arrays are never modified, so they can be shared among instances.
+   */
+
+  /** Initializes this to be the zero polynomial, that is \( p = 0 \). */
+  public WidePoly() {
+    degree = EMPTY;
+    small = new long[0];
+    big = null;
+  }
+
+  /**
+   * Initializes this to be the polynomial equal to a given {@link Poly}.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public WidePoly(Poly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    int n = 0;
+    for (int d = 0; d <= p.degree(); d++) if (p.coeff(d) != 0) n++;
+    degree = new int[n];
+    small = new long[n];
+    big = null;
+    for (int d = 0, k = 0; d <= p.degree(); d++)
+      if (p.coeff(d) != 0) {
+        degree[k] = d;
+        small[k++] = p.coeff(d);
+      }
+  }
+
+  /**
+   * Initializes this to be the polynomial equal to a given {@link SparsePoly}.
+   *
+   * @param p the polynomial.
+   * @throws NullPointerException if {@code p} is {@code null}.
+   */
+  public WidePoly(SparsePoly p) throws NullPointerException {
+    Objects.requireNonNull(p, "The polynomial must not be null.");
+    final int n = p.termCount();
+    degree = new int[n];
+    small = new long[n];
+    big = null;
+    for (int i = 0; i < n; i++) {
+      degree[i] = p.degreeAt(i);
+      small[i] = p.coefficientAt(i);
+    }
+  }
+
+  /**
+   * Initializes this to be the polynomial given by the first {@code size} elements of the given
+   * arrays.
+   *
+   * <p>If {@code big} is not {@code null} but all its coefficients fit in a {@code long} the
+   * representation is demoted to {@code long}s. The arrays are not copied if their length is {@code
+   * size}, so they must not be modified after this call.
+   *
+   * @param degree the degrees, in strictly increasing order.
+   * @param small the non-zero coefficients, or {@code null}.
+   * @param big the non-zero coefficients (used if {@code small} is {@code null}).
+   * @param size the number of terms.
+   */
+  private WidePoly(int[] degree, long[] small, BigInteger[] big, int size) {
+    this.degree = size == degree.length ? degree : Arrays.copyOf(degree, size);
+    if (small == null) {
+      boolean fits = true;
+      for (int i = 0; i < size && fits; i++) fits = big[i].bitLength() < Long.SIZE;
+      if (fits) {
+        small = new long[size];
+        for (int i = 0; i < size; i++) small[i] = big[i].longValue();
+        big = null;
+      }
+    }
+    this.small = small == null || size == small.length ? small : Arrays.copyOf(small, size);
+    this.big = big == null || size == big.length ? big : Arrays.copyOf(big, size);
+  }
+
+  /**
+   * Builds a polynomial from the dense array of its 128 bits coefficients.
+   *
+   * <p>The coefficients are stored as {@code long}s if they all fit, otherwise as {@link
+   * BigInteger}s.
+   *
+   * @param c the coefficients as returned by {@link PolyMultiplier#multiplyExact(int[], int[])},
+   *     {@code c[0][i]} and {@code c[1][i]} are the lower and upper 64 bits of the coefficient of
+   *     \( x^i \).
+   * @return the polynomial.
+   */
+  static WidePoly fromDense(long[][] c) {
+    final long[] lo = c[0], hi = c[1];
+    int n = 0;
+    boolean fits = true;
+    for (int i = 0; i < lo.length; i++) {
+      if (lo[i] != 0 || hi[i] != 0) n++;
+      fits &= hi[i] == lo[i] >> 63;
+    }
+    final int[] rd = new int[n];
+    final long[] small = fits ? new long[n] : null;
+    final BigInteger[] big = fits ? null : new BigInteger[n];
+    for (int i = 0, k = 0; i < lo.length; i++) {
+      if (lo[i] == 0 && hi[i] == 0) continue;
+      rd[k] = i;
+      if (fits) small[k++] = lo[i];
+      else {
+        final BigInteger low = new BigInteger(Long.toUnsignedString(lo[i]));
+        big[k++] = BigInteger.valueOf(hi[i]).shiftLeft(Long.SIZE).add(low);
+      }
+    }
+    return new WidePoly(rd, small, big, n);
+  }
+
+  /**
+   * Returns the degree of this polynomial.
+   *
+   * @return the largest exponent with a non-zero coefficient; returns 0 if this is the zero {@code
+   *     WidePoly}.
+   */
+  public int degree() {
+    return degree.length == 0 ? 0 : degree[degree.length - 1];
+  }
+
+  /**
+   * Returns the number of (non-zero) terms of this polynomial.
+   *
+   * @return the number of terms.
+   */
+  public int termCount() {
+    return degree.length;
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   */
+  public BigInteger coeff(int d) {
+    final int i = Arrays.binarySearch(degree, d);
+    if (i < 0) return BigInteger.ZERO;
+    return small != null ? BigInteger.valueOf(small[i]) : big[i];
+  }
+
+  /**
+   * Returns the coefficient of the term of given exponent as a {@code long}.
+   *
+   * @param d the exponent of the term to consider.
+   * @return the coefficient of the considered term.
+   * @throws ArithmeticException if the coefficient does not fit in a {@code long}.
+   */
+  public long longCoeff(int d) throws ArithmeticException {
+    final int i = Arrays.binarySearch(degree, d);
+    if (i < 0) return 0;
+    return small != null ? small[i] : big[i].longValueExact();
+  }
+
+  /**
+   * Returns the narrowest width that can represent the coefficients of this polynomial.
+   *
+   * @return {@link CoefficientWidth#INT} if all the coefficients fit in an {@code int}, {@link
+   *     CoefficientWidth#LONG} if they all fit in a {@code long}, or {@link
+   *     CoefficientWidth#BIG_INTEGER} otherwise.
+   */
+  public CoefficientWidth width() {
+    if (big != null) return CoefficientWidth.BIG_INTEGER;
+    for (long c : small) if ((int) c != c) return CoefficientWidth.LONG;
+    return CoefficientWidth.INT;
+  }
+
+  /**
+   * Returns the {@code i}-th coefficient as a {@link BigInteger}.
+   *
+   * @param i the index of the term.
+   * @return the coefficient.
+   */
+  private BigInteger bigAt(int i) {
+    return small != null ? BigInteger.valueOf(small[i]) : big[i];
+  }
+
+  /**
+   * Performs polynomial addition.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p + q \).
+   *
+   * @param q the polynomial to add to this one.
+   * @return the sum among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public WidePoly add(WidePoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    return merge(q, false);
+  }
+
+  /**
+   * Performs polynomial subtraction.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p - q \).
+   *
+   * @param q the polynomial to subtract from this one.
+   * @return the subtraction among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   */
+  public WidePoly sub(WidePoly q) throws NullPointerException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    return merge(q, true);
+  }
+
+  /**
+   * Returns the negate polynomial.
+   *
+   * <p>If \( p \) is this polynomial, returns \( -p \).
+   *
+   * @return this polynomial multiplied by \( -1 \).
+   */
+  public WidePoly minus() {
+    return new WidePoly().merge(this, true);
+  }
+
+  /**
+   * Merges the terms of this and another polynomial, adding or subtracting them.
+   *
+   * <p>The merge is first attempted with {@code long} arithmetic; if an overflow is detected, it is
+   * performed again with {@link BigInteger}s.
+   *
+   * @param q the other polynomial.
+   * @param negate whether to subtract {@code q}, instead of adding it.
+   * @return the polynomial \( p \pm q \).
+   */
+  private WidePoly merge(WidePoly q, boolean negate) {
+    final int n = degree.length, m = q.degree.length;
+    final int[] rd = new int[n + m];
+    if (small != null && q.small != null) {
+      final long[] rc = new long[n + m];
+      int i = 0, j = 0, k = 0;
+      boolean overflow = false;
+      while ((i < n || j < m) && !overflow) {
+        if (j == m || i < n && degree[i] < q.degree[j]) {
+          rd[k] = degree[i];
+          rc[k++] = small[i++];
+          continue;
+        }
+        final long a = i < n && degree[i] == q.degree[j] ? small[i++] : 0, b = q.small[j];
+        final long s = negate ? a - b : a + b;
+        overflow = negate ? ((a ^ b) & (a ^ s)) < 0 : ((a ^ s) & (b ^ s)) < 0;
+        if (s != 0) {
+          rd[k] = q.degree[j];
+          rc[k++] = s;
+        }
+        j++;
+      }
+      if (!overflow) return new WidePoly(rd, rc, null, k);
+    }
+    final BigInteger[] rc = new BigInteger[n + m];
+    int i = 0, j = 0, k = 0;
+    while (i < n || j < m) {
+      if (j == m || i < n && degree[i] < q.degree[j]) {
+        rd[k] = degree[i];
+        rc[k++] = bigAt(i++);
+        continue;
+      }
+      final BigInteger a = i < n && degree[i] == q.degree[j] ? bigAt(i++) : BigInteger.ZERO;
+      final BigInteger s = negate ? a.subtract(q.bigAt(j)) : a.add(q.bigAt(j));
+      if (s.signum() != 0) {
+        rd[k] = q.degree[j];
+        rc[k++] = s;
+      }
+      j++;
+    }
+    return new WidePoly(rd, null, rc, k);
+  }
+
+  /**
+   * Performs polynomial multiplication.
+   *
+   * <p>If \( p \) is this polynomial, returns \( p q \). If the product has few gaps the partial
+   * products are accumulated in a dense array, otherwise they are generated in increasing degree
+   * order as in {@link SparsePoly#mul(SparsePoly)}. In both cases {@code long} arithmetic is used
+   * first, and {@link BigInteger}s only if an overflow is detected.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product among this and the given polynomial.
+   * @throws NullPointerException if {@code q} is {@code null}.
+   * @throws IllegalArgumentException if the degree of the result is too large.
+   */
+  public WidePoly mul(WidePoly q) throws NullPointerException, IllegalArgumentException {
+    Objects.requireNonNull(q, "The polynomial must not be null.");
+    if (degree.length == 0 || q.degree.length == 0) return new WidePoly();
+    if ((long) degree() + q.degree() > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("The degree of the result is too large.");
+    final long len = (long) degree() + q.degree() + 1;
+    final boolean dense = len <= 4L * degree.length * q.degree.length;
+    if (small != null && q.small != null) {
+      final WidePoly r = dense ? mulDenseLong(q, (int) len) : mulSparseLong(q);
+      if (r != null) return r;
+    }
+    return mulBig(q, dense, (int) len);
+  }
+
+  /**
+   * Multiplies with {@code long} arithmetic, accumulating the partial products in a dense array.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param len the number of coefficients of the product.
+   * @return the product, or {@code null} if an overflow is detected.
+   */
+  private WidePoly mulDenseLong(WidePoly q, int len) {
+    final long[] acc = new long[len];
+    for (int i = 0; i < degree.length; i++)
+      for (int j = 0; j < q.degree.length; j++) {
+        final long a = small[i], b = q.small[j], lo = a * b;
+        if (Math.multiplyHigh(a, b) != lo >> 63) return null;
+        final int d = degree[i] + q.degree[j];
+        final long s = acc[d] + lo;
+        if (((acc[d] ^ s) & (lo ^ s)) < 0) return null;
+        acc[d] = s;
+      }
+    int n = 0;
+    for (long c : acc) if (c != 0) n++;
+    final int[] rd = new int[n];
+    final long[] rc = new long[n];
+    for (int d = 0, k = 0; d < len; d++)
+      if (acc[d] != 0) {
+        rd[k] = d;
+        rc[k++] = acc[d];
+      }
+    return new WidePoly(rd, rc, null, n);
+  }
+
+  /**
+   * Multiplies with {@code long} arithmetic, generating the partial products in increasing degree
+   * order with a heap of row cursors (Johnson's algorithm).
+   *
+   * @param q the polynomial to multiply by this one.
+   * @return the product, or {@code null} if an overflow is detected.
+   */
+  private WidePoly mulSparseLong(WidePoly q) {
+    final WidePoly rows = degree.length <= q.degree.length ? this : q;
+    final WidePoly cols = rows == this ? q : this;
+    final int n = rows.degree.length, m = cols.degree.length;
+    final int[] cursor = new int[n];
+    final int[] heapRow = new int[n], heapDegree = new int[n];
+    for (int i = 0; i < n; i++) {
+      heapRow[i] = i;
+      heapDegree[i] = rows.degree[i] + cols.degree[0];
+    }
+    int size = n, k = 0;
+    int[] rd = new int[Math.max(n, m)];
+    long[] rc = new long[rd.length];
+    while (size > 0) {
+      final int d = heapDegree[0];
+      long c = 0;
+      do {
+        final int i = heapRow[0];
+        final long a = rows.small[i], b = cols.small[cursor[i]], lo = a * b;
+        if (Math.multiplyHigh(a, b) != lo >> 63) return null;
+        final long s = c + lo;
+        if (((c ^ s) & (lo ^ s)) < 0) return null;
+        c = s;
+        if (++cursor[i] < m) heapDegree[0] = rows.degree[i] + cols.degree[cursor[i]];
+        else {
+          size--;
+          heapRow[0] = heapRow[size];
+          heapDegree[0] = heapDegree[size];
+        }
+        SparsePoly.siftDown(heapRow, heapDegree, size, 0);
+      } while (size > 0 && heapDegree[0] == d);
+      if (c != 0) {
+        if (k == rd.length) {
+          rd = Arrays.copyOf(rd, 2 * k);
+          rc = Arrays.copyOf(rc, 2 * k);
+        }
+        rd[k] = d;
+        rc[k++] = c;
+      }
+    }
+    return new WidePoly(rd, rc, null, k);
+  }
+
+  /**
+   * Multiplies with {@link BigInteger} arithmetic.
+   *
+   * @param q the polynomial to multiply by this one.
+   * @param dense whether to accumulate the partial products in a dense array.
+   * @param len the number of coefficients of the product (used only if {@code dense}).
+   * @return the product.
+   */
+  private WidePoly mulBig(WidePoly q, boolean dense, int len) {
+    final Map<Integer, BigInteger> sparse = dense ? null : new TreeMap<>();
+    final BigInteger[] acc = dense ? new BigInteger[len] : null;
+    for (int i = 0; i < degree.length; i++)
+      for (int j = 0; j < q.degree.length; j++) {
+        final BigInteger c = bigAt(i).multiply(q.bigAt(j));
+        final int d = degree[i] + q.degree[j];
+        if (dense) acc[d] = acc[d] == null ? c : acc[d].add(c);
+        else sparse.merge(d, c, BigInteger::add);
+      }
+    final int[] rd = new int[dense ? len : sparse.size()];
+    final BigInteger[] rc = new BigInteger[rd.length];
+    int k = 0;
+    if (dense) {
+      for (int d = 0; d < len; d++)
+        if (acc[d] != null && acc[d].signum() != 0) {
+          rd[k] = d;
+          rc[k++] = acc[d];
+        }
+    } else
+      for (Map.Entry<Integer, BigInteger> e : sparse.entrySet())
+        if (e.getValue().signum() != 0) {
+          rd[k] = e.getKey();
+          rc[k++] = e.getValue();
+        }
+    return new WidePoly(rd, null, rc, k);
+  }
+
+  /**
+   * Converts this polynomial to a {@link Poly}.
+   *
+   * @return the polynomial with the same coefficients.
+   * @throws ArithmeticException if some coefficient does not fit in an {@code int}.
+   */
+  public Poly toPoly() throws ArithmeticException {
+    CoefficientWidth.CHECKED_INT.check(this);
+    if (degree.length == 0) return new Poly();
+    final int[] c = new int[degree() + 1];
+    for (int i = 0; i < degree.length; i++) c[degree[i]] = (int) small[i];
+    return new Poly(c);
+  }
+
+  /**
+   * Converts this polynomial to a {@link SparsePoly}.
+   *
+   * @return the polynomial with the same coefficients.
+   * @throws ArithmeticException if some coefficient does not fit in an {@code int}.
+   */
+  public SparsePoly toSparsePoly() throws ArithmeticException {
+    CoefficientWidth.CHECKED_INT.check(this);
+    final int[] c = new int[degree.length];
+    for (int i = 0; i < c.length; i++) c[i] = (int) small[i];
+    return new SparsePoly(degree, c, c.length);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) return true;
+    if (!(obj instanceof WidePoly other)) return false;
+    return Arrays.equals(degree, other.degree)
+        && Arrays.equals(small, other.small)
+        && Arrays.equals(big, other.big);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = Arrays.hashCode(degree);
+    return 31 * result + (small != null ? Arrays.hashCode(small) : Arrays.hashCode(big));
+  }
+
+  @Override
+  public String toString() {
+    if (degree() > 0) {
+      StringBuilder sb = new StringBuilder("WidePoly: ");
+      for (int pos = degree.length - 1; pos >= 0; pos--) {
+        final BigInteger c = bigAt(pos);
+        final int d = degree[pos];
+        if (pos < degree.length - 1) sb.append(c.signum() < 0 ? " - " : " + ");
+        else if (c.signum() < 0) sb.append("-");
+        if (!c.abs().equals(BigInteger.ONE) || d == 0) sb.append(c.abs());
+        if (d > 0) sb.append("x" + (d > 1 ? "^" + d : ""));
+      }
+      return sb.toString();
+    } else return "WidePoly: " + (degree.length == 0 ? 0 : bigAt(0));
+  }
+}
@@ -0,0 +1,61 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h11;
+
+import java.util.Scanner;
+
+/** A class to test the multiplication of {@link WidePoly}. */
+public class WidePolyClient {
+
+  /** . */
+  private WidePolyClient() {}
+
+  /**
+   * Tests the multiplication of {@link WidePoly}.
+   *
+   * <p>This method reads from standard input two polynomials \( p \) and \( q \), given as lists of
+   * (coefficient, degree) pairs separated by a {@code *}, and emits in the standard output the
+   * degree and the terms of the product \( p \cdot q \) computed with {@link
+   * SparsePoly#mul(SparsePoly, CoefficientWidth)} for every {@link CoefficientWidth}, or {@code
+   * none} if the product does not fit the width or its degree is too large.
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    SparsePoly p = new SparsePoly(), q = new SparsePoly();
+    try (Scanner s = new Scanner(System.in)) {
+      while (s.hasNextInt()) p = p.add(new SparsePoly(s.nextInt(), s.nextInt()));
+      if (s.hasNext()) s.next(); // the separator
+      while (s.hasNextInt()) q = q.add(new SparsePoly(s.nextInt(), s.nextInt()));
+    }
+    for (CoefficientWidth width : CoefficientWidth.values()) {
+      String result;
+      try {
+        final WidePoly r = p.mul(q, width);
+        result = r.degree() + " " + r;
+      } catch (ArithmeticException | IllegalArgumentException e) {
+        result = "none";
+      }
+      System.out.println(width + ": " + result);
+    }
+  }
+}
@@ -21,12 +21,17 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 
 package it.unimi.di.prog2.h14;
 
-import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
-/** Generator (in Liskov parlance) of the ints contained in a {@link List}. */
-public class IntGenerator implements Iterator<Integer> {
+/**
+ * Generator (in Liskov parlance) of the ints contained in a {@link List}.
+ *
+ * <p>Being a {@link PrimitiveIterator.OfInt}, the elements can be obtained as {@code int}s by
+ * {@link #nextInt()}.
+ */
+public class IntGenerator implements PrimitiveIterator.OfInt {
 
   /** The list elements. */
   private final List<Integer> els;
@@ -50,7 +55,13 @@ public class IntGenerator implements Iterator<Integer> {
   }
 
   @Override
-  public Integer next() {
+  public int nextInt() {
+    if (!hasNext()) throw new NoSuchElementException();
+    return els.get(idx++);
+  }
+
+  @Override
+  public Integer next() { // the elements are already boxed in the list, no need to box them again
     if (!hasNext()) throw new NoSuchElementException();
     return els.get(idx++);
   }
@@ -29,6 +29,9 @@ import it.unimi.di.prog2.h14.IntSet;
  *
  * <p><b>Note</b>: this class extends {@link it.unimi.di.prog2.h14.IntSet} which corresponds to the
  * implementation of {@link it.unimi.di.prog2.h11.IntSet} with an added iterator.
+ *
+ * <p>Observe that {@link #remove(int)} scans the whole set when the maximum is removed; {@link
+ * it.unimi.di.prog2.h18.MinMaxIntSet} shows how to keep the extremes in logarithmic time.
  */
 public class MaxIntSet extends IntSet {
 
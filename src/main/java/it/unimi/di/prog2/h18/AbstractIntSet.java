@@ -21,13 +21,24 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 
 package it.unimi.di.prog2.h18;
 
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.StringJoiner;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * An {@code AbstractIntSet} is a mutable, unbounded set of integers.
  *
  * <p>A typical {@code AbstractIntSet} is \( S = \{x_1, \ldots, x_n \} \).
+ *
+ * <p>Besides the (boxed) {@link #iterator()}, the elements can be enumerated without boxing by
+ * {@link #intIterator()}, {@link #spliterator()} and {@link #stream()}; the methods of this class
+ * are implemented on top of {@link #intIterator()}, so subclasses storing {@code int}s should
+ * override it (and make {@link #iterator()} return it).
  */
 public abstract class AbstractIntSet implements Iterable<Integer> {
 
@@ -71,7 +82,8 @@ public abstract class AbstractIntSet implements Iterable<Integer> {
    * @return whether the given element belongs to this set, or not.
    */
   public boolean isIn(int x) {
-    for (int e : this) if (e == x) return true;
+    for (PrimitiveIterator.OfInt it = intIterator(); it.hasNext(); )
+      if (it.nextInt() == x) return true;
     return false;
   }
 
@@ -94,7 +106,73 @@ public abstract class AbstractIntSet implements Iterable<Integer> {
    */
   public int choose() throws NoSuchElementException {
     if (size == 0) throw new NoSuchElementException("Can't choose from an empty set");
-    return iterator().next();
+    return intIterator().nextInt();
+  }
+
+  /**
+   * Returns an iterator over the elements of this set that does not box them.
+   *
+   * <p>This implementation adapts {@link #iterator()}; the elements are returned in the same order.
+   *
+   * @return an iterator over the elements of this set.
+   */
+  public PrimitiveIterator.OfInt intIterator() {
+    final Iterator<Integer> it = iterator();
+    return new PrimitiveIterator.OfInt() {
+      @Override
+      public boolean hasNext() {
+        return it.hasNext();
+      }
+
+      @Override
+      public int nextInt() {
+        return it.next();
+      }
+    };
+  }
+
+  /**
+   * Returns the characteristics of the spliterator of this set.
+   *
+   * <p>This implementation returns {@link Spliterator#DISTINCT}; sets iterating in ascending order
+   * should add {@link Spliterator#ORDERED} and {@link Spliterator#SORTED}.
+   *
+   * @return the characteristics, besides {@link Spliterator#SIZED} and {@link
+   *     Spliterator#SUBSIZED}.
+   */
+  protected int characteristics() {
+    return Spliterator.DISTINCT;
+  }
+
+  /**
+   * Returns a spliterator over the elements of this set that does not box them.
+   *
+   * <p>The spliterator is {@link Spliterator#SIZED}, and has the {@link #characteristics()} of this
+   * set; it is based on {@link #intIterator()}.
+   *
+   * @return a spliterator over the elements of this set.
+   */
+  @Override
+  public Spliterator.OfInt spliterator() {
+    return Spliterators.spliterator(intIterator(), size, characteristics());
+  }
+
+  /**
+   * Returns a sequential stream of the elements of this set.
+   *
+   * @return a stream of the elements of this set.
+   */
+  public IntStream stream() {
+    return StreamSupport.intStream(spliterator(), false);
+  }
+
+  /**
+   * Returns a (possibly) parallel stream of the elements of this set.
+   *
+   * @return a stream of the elements of this set.
+   */
+  public IntStream parallelStream() {
+    return StreamSupport.intStream(spliterator(), true);
   }
 
   @Override
@@ -102,21 +180,24 @@ public abstract class AbstractIntSet implements Iterable<Integer> {
     if (this == obj) return true;
     if (!(obj instanceof AbstractIntSet other)) return false;
     if (size != other.size) return false;
-    for (int e : this) if (!other.isIn(e)) return false;
+    for (PrimitiveIterator.OfInt it = intIterator(); it.hasNext(); )
+      if (!other.isIn(it.nextInt())) return false;
     return true;
   }
 
   @Override
   public int hashCode() {
     int result = 0;
-    for (int e : this) result += e; // This is a very bad hash function!
+    for (PrimitiveIterator.OfInt it = intIterator(); it.hasNext(); )
+      result += it.nextInt(); // This is a very bad hash function!
     return result;
   }
 
   @Override
   public String toString() {
     StringJoiner sj = new StringJoiner(", ", "{", "}");
-    for (Integer e : this) sj.add(e.toString());
+    for (PrimitiveIterator.OfInt it = intIterator(); it.hasNext(); )
+      sj.add(Integer.toString(it.nextInt()));
     return sj.toString();
   }
 }
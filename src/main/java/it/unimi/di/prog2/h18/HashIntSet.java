@@ -0,0 +1,221 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A concrete {@code IntSet} based on a hash table.
+ *
+ * <p>The elements are stored, without boxing, in an array of {@code int}s used as an
+ * <em>open-addressing</em> hash table with linear probing: an element is stored in the first free
+ * slot following (cyclically) the one given by its hash. The value 0 marks the free slots, so
+ * whether 0 belongs to the set is recorded separately. The length of the table is a power of two,
+ * doubled when it is more than three quarters full, so that {@link #insert(int)}, {@link
+ * #remove(int)} and {@link #isIn(int)} take constant expected time. The set can contain up to \(
+ * 3 \cdot 2^{28} \) elements, inserting more causes an {@link IllegalStateException}.
+ *
+ * <p>The iterator returns the elements in no particular order; the set must not be modified while
+ * it is being iterated.
+ */
+public class HashIntSet extends AbstractIntSet {
+
+  /** The initial length of the table. */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** The maximum length of the table. */
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  /** The table, the free slots contain 0. */
+  private int[] table;
+
+  /** Whether 0 belongs to this set. */
+  private boolean containsZero;
+
+  /*-
+   * AF(table, containsZero, size) = { table[i] | table[i] != 0 } ∪ ({ 0 } if containsZero)
+   * RI:
+   *   - super.RI
+   *   - table != null and table.length is a power of two,
+   *   - the non-zero elements of table are distinct, and they are size - (containsZero ? 1 : 0),
+   *     at most three quarters of table.length,
+   *   - for every non-zero table[i], the slots from slot(table[i]) to i (cyclically) are not free.
+   */
+
+  /** Creates an empty set. */
+  public HashIntSet() {
+    table = new int[INITIAL_CAPACITY];
+  }
+
+  /**
+   * Creates an empty set that can contain the given number of elements without resizing.
+   *
+   * @param expected the expected number of elements.
+   * @throws IllegalArgumentException if {@code expected} is negative.
+   */
+  public HashIntSet(int expected) throws IllegalArgumentException {
+    if (expected < 0) throw new IllegalArgumentException("The expected size must be non negative.");
+    table = new int[capacity(expected)];
+  }
+
+  /**
+   * Returns the length of a table that can contain the given number of elements.
+   *
+   * @param n the number of elements.
+   * @return the least power of two (at least {@link #INITIAL_CAPACITY}, and at most {@link
+   *     #MAX_CAPACITY}) whose three quarters are not less than {@code n}.
+   */
+  private static int capacity(int n) {
+    final int min = (int) Math.min(MAX_CAPACITY, Math.max(INITIAL_CAPACITY, (4L * n + 2) / 3));
+    return Integer.highestOneBit(min - 1) << 1;
+  }
+
+  /**
+   * Returns the slot where the search of an element begins.
+   *
+   * <p>The element is multiplied by (the integer part of) \( 2^{32} / \phi \) and its high bits are
+   * folded on the low ones, so that also sequences of consecutive elements are spread on the
+   * table.
+   *
+   * @param x the element.
+   * @param mask the length of the table minus one.
+   * @return the initial slot for {@code x}.
+   */
+  static int slot(int x, int mask) {
+    final int h = x * 0x9E3779B9;
+    return (h ^ h >>> 16) & mask;
+  }
+
+  @Override
+  public boolean isIn(int x) {
+    if (x == 0) return containsZero;
+    final int mask = table.length - 1;
+    for (int i = slot(x, mask); ; i = i + 1 & mask) {
+      if (table[i] == x) return true;
+      if (table[i] == 0) return false;
+    }
+  }
+
+  @Override
+  public void insert(int x) {
+    if (x == 0) {
+      if (!containsZero) {
+        containsZero = true;
+        size++;
+      }
+      return;
+    }
+    final int mask = table.length - 1;
+    int i = slot(x, mask);
+    for (; table[i] != 0; i = i + 1 & mask) if (table[i] == x) return;
+    if (size - (containsZero ? 1 : 0) == table.length / 4 * 3) {
+      rehash();
+      insert(x);
+      return;
+    }
+    table[i] = x;
+    size++;
+  }
+
+  @Override
+  public void remove(int x) {
+    if (x == 0) {
+      if (containsZero) {
+        containsZero = false;
+        size--;
+      }
+      return;
+    }
+    final int mask = table.length - 1;
+    int i = slot(x, mask);
+    for (; table[i] != x; i = i + 1 & mask) if (table[i] == 0) return;
+    size--;
+    // backward shift: moves back the following elements that would not be found otherwise
+    for (int j = i + 1 & mask; table[j] != 0; j = j + 1 & mask) {
+      final int s = slot(table[j], mask);
+      if ((j - s & mask) >= (j - i & mask)) { // the slot i is on the probe sequence of table[j]
+        table[i] = table[j];
+        i = j;
+      }
+    }
+    table[i] = 0;
+  }
+
+  /**
+   * Moves the elements to a table of double length.
+   *
+   * @throws IllegalStateException if the table has already the maximum length.
+   */
+  private void rehash() throws IllegalStateException {
+    if (table.length == MAX_CAPACITY) throw new IllegalStateException("Too many elements.");
+    final int[] old = table;
+    table = new int[2 * old.length];
+    final int mask = table.length - 1;
+    for (int x : old) {
+      if (x == 0) continue;
+      int i = slot(x, mask);
+      while (table[i] != 0) i = i + 1 & mask;
+      table[i] = x;
+    }
+  }
+
+  @Override
+  public int choose() throws NoSuchElementException {
+    if (size == 0) throw new NoSuchElementException("Can't choose from an empty set");
+    if (containsZero) return 0;
+    for (int x : table) if (x != 0) return x;
+    throw new AssertionError("The representation is not valid.");
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return intIterator();
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt intIterator() {
+    return new PrimitiveIterator.OfInt() {
+
+      /** The index of the next slot to examine, -1 if 0 has still to be returned. */
+      private int next = containsZero ? -1 : 0;
+
+      @Override
+      public boolean hasNext() {
+        if (next < 0) return true;
+        while (next < table.length && table[next] == 0) next++;
+        return next < table.length;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        if (next < 0) {
+          next = 0;
+          return 0;
+        }
+        return table[next++];
+      }
+    };
+  }
+}
@@ -0,0 +1,107 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Scanner;
+
+/** A class to test {@link HashIntSet}. */
+public class HashIntSetClient {
+
+  /** . */
+  private HashIntSetClient() {}
+
+  /**
+   * Tests some methods of {@link HashIntSet}.
+   *
+   * <p>This method reads from standard input a list of commands, one per line, applied to an
+   * initially empty set: {@code insert a b [s]} and {@code remove a b [s]} insert (or remove) the
+   * integers in \( [a, b] \) with step {@code s} (1, if missing), while {@code size}, {@code isIn
+   * x}, {@code choose} and {@code elements} emit in the standard output the command followed by,
+   * respectively, the size of the set, whether {@code x} belongs to it, whether the chosen element
+   * belongs to it (or {@code none}, if the set is empty) and the elements returned by the iterator
+   * (in increasing order, since the iteration order is not specified).
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final HashIntSet set = new HashIntSet();
+    try (Scanner sc = new Scanner(System.in)) {
+      while (sc.hasNextLine()) {
+        final String line = sc.nextLine().trim();
+        if (line.isEmpty()) continue;
+        final String[] token = line.split("\\s+");
+        final int[] arg = new int[token.length - 1];
+        for (int i = 0; i < arg.length; i++) arg[i] = Integer.parseInt(token[i + 1]);
+        if (token[0].equals("insert") || token[0].equals("remove")) {
+          final int step = arg.length > 2 ? arg[2] : 1;
+          for (long x = arg[0]; x <= arg[1]; x += step)
+            if (token[0].equals("insert")) set.insert((int) x);
+            else set.remove((int) x);
+        } else System.out.println(line + ": " + query(set, token[0], arg));
+      }
+    }
+  }
+
+  /**
+   * Performs a query on a set.
+   *
+   * @param set the set.
+   * @param query the name of the query.
+   * @param arg the arguments of the query.
+   * @return the textual representation of the result, or {@code none} if the query fails.
+   */
+  private static String query(HashIntSet set, String query, int[] arg) {
+    try {
+      return switch (query) {
+        case "size" -> Integer.toString(set.size());
+        case "isIn" -> Boolean.toString(set.isIn(arg[0]));
+        case "choose" -> Boolean.toString(set.isIn(set.choose()));
+        case "elements" -> elements(set);
+        default -> throw new IllegalArgumentException("Unknown query: " + query);
+      };
+    } catch (NoSuchElementException | IllegalArgumentException e) {
+      return "none";
+    }
+  }
+
+  /**
+   * Returns the elements of a set, in increasing order.
+   *
+   * @param set the set.
+   * @return the textual representation of the sorted elements returned by the iterator of {@code
+   *     set}.
+   */
+  private static String elements(HashIntSet set) {
+    int[] element = new int[set.size()];
+    int n = 0;
+    for (PrimitiveIterator.OfInt it = set.intIterator(); it.hasNext(); ) {
+      if (n == element.length) element = Arrays.copyOf(element, 2 * n + 1);
+      element[n++] = it.nextInt();
+    }
+    element = Arrays.copyOf(element, n);
+    Arrays.sort(element);
+    return Arrays.toString(element);
+  }
+}
@@ -0,0 +1,334 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A concrete {@code IntSet} keeping track of its minimum and maximum elements.
+ *
+ * <p>Differently from {@link it.unimi.di.prog2.h17.MaxIntSet}, that scans the whole set when its
+ * maximum is removed, this set keeps its elements in two <em>indexed</em> binary heaps (a min-heap
+ * and a max-heap, that record the position of every element) together with a hash index from the
+ * elements to their positions. In this way {@link #min()} and {@link #max()} take constant time,
+ * {@link #insert(int)}, {@link #remove(int)}, {@link #removeMin()} and {@link #removeMax()} take
+ * logarithmic time, and {@link #isIn(int)} constant expected time. The set can contain up to \(
+ * 2^{29} \) elements, inserting more causes an {@link IllegalStateException}.
+ *
+ * <p>The iterator returns the elements in no particular order; the set must not be modified while
+ * it is being iterated.
+ */
+public class MinMaxIntSet extends AbstractIntSet {
+
+  /** The initial capacity. */
+  private static final int INITIAL_CAPACITY = 8;
+
+  /** The maximum capacity. */
+  private static final int MAX_CAPACITY = 1 << 29;
+
+  /** The elements, {@code value[id]} is the element of identifier {@code id}. */
+  private int[] value;
+
+  /** The min-heap of the identifiers. */
+  private int[] minHeap;
+
+  /** The max-heap of the identifiers. */
+  private int[] maxHeap;
+
+  /** The position of the identifiers in {@link #minHeap}. */
+  private int[] minPos;
+
+  /** The position of the identifiers in {@link #maxHeap}. */
+  private int[] maxPos;
+
+  /** The hash index, an open-addressing table of identifiers plus one (the free slots are 0). */
+  private int[] index;
+
+  /*-
+   * AF(value, size) = { value[0], ..., value[size - 1] }
+   * RI:
+   *   - super.RI
+   *   - value, minHeap, maxHeap, minPos and maxPos have the same length (a power of two, not less
+   *     than size), index is twice as long,
+   *   - value[0..size) are distinct,
+   *   - minHeap[0..size) and maxHeap[0..size) are permutations of [0, size), with
+   *     minHeap[minPos[id]] == id and maxHeap[maxPos[id]] == id for every id < size,
+   *   - value[minHeap[(i - 1) / 2]] < value[minHeap[i]] and value[maxHeap[(i - 1) / 2]] >
+   *     value[maxHeap[i]] for every 0 < i < size,
+   *   - the non-zero slots of index are the ids 1, ..., size, and for every non-zero index[i], the
+   *     slots from HashIntSet.slot(value[index[i] - 1]) to i (cyclically) are not free.
+   */
+
+  /** Creates an empty set. */
+  public MinMaxIntSet() {
+    value = new int[INITIAL_CAPACITY];
+    minHeap = new int[INITIAL_CAPACITY];
+    maxHeap = new int[INITIAL_CAPACITY];
+    minPos = new int[INITIAL_CAPACITY];
+    maxPos = new int[INITIAL_CAPACITY];
+    index = new int[2 * INITIAL_CAPACITY];
+  }
+
+  /**
+   * Returns the minimum element of this set.
+   *
+   * @return the minimum element of this set.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int min() throws NoSuchElementException {
+    if (size == 0) throw new NoSuchElementException("An empty set has no minimum element.");
+    return value[minHeap[0]];
+  }
+
+  /**
+   * Returns the maximum element of this set.
+   *
+   * @return the maximum element of this set.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int max() throws NoSuchElementException {
+    if (size == 0) throw new NoSuchElementException("An empty set has no maximum element.");
+    return value[maxHeap[0]];
+  }
+
+  /**
+   * Removes the minimum element of this set.
+   *
+   * @return the removed element.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int removeMin() throws NoSuchElementException {
+    final int x = min();
+    remove(x);
+    return x;
+  }
+
+  /**
+   * Removes the maximum element of this set.
+   *
+   * @return the removed element.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int removeMax() throws NoSuchElementException {
+    final int x = max();
+    remove(x);
+    return x;
+  }
+
+  @Override
+  public boolean isIn(int x) {
+    return find(x) >= 0;
+  }
+
+  @Override
+  public void insert(int x) {
+    if (find(x) >= 0) return;
+    if (size == value.length) grow();
+    final int id = size++;
+    value[id] = x;
+    minHeap[id] = maxHeap[id] = minPos[id] = maxPos[id] = id;
+    siftUp(minHeap, minPos, id, false);
+    siftUp(maxHeap, maxPos, id, true);
+    put(id);
+  }
+
+  @Override
+  public void remove(int x) {
+    final int i = find(x);
+    if (i < 0) return;
+    final int id = index[i] - 1, last = --size;
+    delete(i);
+    delete(minHeap, minPos, minPos[id], last, false);
+    delete(maxHeap, maxPos, maxPos[id], last, true);
+    if (id == last) return;
+    // the last identifier takes the place of the removed one, so that they stay in [0, size)
+    value[id] = value[last];
+    minPos[id] = minPos[last];
+    minHeap[minPos[id]] = id;
+    maxPos[id] = maxPos[last];
+    maxHeap[maxPos[id]] = id;
+    index[find(value[id])] = id + 1;
+  }
+
+  /**
+   * Tells whether an identifier precedes another one in a heap.
+   *
+   * @param a the first identifier.
+   * @param b the second identifier.
+   * @param max whether the heap is the max-heap.
+   * @return whether the element of {@code a} is smaller (greater, if {@code max}) than that of
+   *     {@code b}.
+   */
+  private boolean precedes(int a, int b, boolean max) {
+    return max ? value[a] > value[b] : value[a] < value[b];
+  }
+
+  /**
+   * Moves an identifier towards the root of a heap, until its parent precedes it.
+   *
+   * @param heap the heap.
+   * @param pos the positions of the identifiers in the heap.
+   * @param i the position of the identifier.
+   * @param max whether the heap is the max-heap.
+   */
+  private void siftUp(int[] heap, int[] pos, int i, boolean max) {
+    final int id = heap[i];
+    while (i > 0) {
+      final int parent = (i - 1) / 2;
+      if (!precedes(id, heap[parent], max)) break;
+      heap[i] = heap[parent];
+      pos[heap[i]] = i;
+      i = parent;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+
+  /**
+   * Moves an identifier towards the leaves of a heap, until it precedes its children.
+   *
+   * @param heap the heap.
+   * @param pos the positions of the identifiers in the heap.
+   * @param i the position of the identifier.
+   * @param n the length of the heap.
+   * @param max whether the heap is the max-heap.
+   */
+  private void siftDown(int[] heap, int[] pos, int i, int n, boolean max) {
+    final int id = heap[i];
+    for (int child; (child = 2 * i + 1) < n; i = child) {
+      if (child + 1 < n && precedes(heap[child + 1], heap[child], max)) child++;
+      if (!precedes(heap[child], id, max)) break;
+      heap[i] = heap[child];
+      pos[heap[i]] = i;
+    }
+    heap[i] = id;
+    pos[id] = i;
+  }
+
+  /**
+   * Removes an identifier from a heap, replacing it with the last one.
+   *
+   * @param heap the heap.
+   * @param pos the positions of the identifiers in the heap.
+   * @param i the position of the identifier to remove.
+   * @param n the length of the heap after the removal.
+   * @param max whether the heap is the max-heap.
+   */
+  private void delete(int[] heap, int[] pos, int i, int n, boolean max) {
+    if (i == n) return;
+    final int moved = heap[n];
+    heap[i] = moved;
+    pos[moved] = i;
+    siftDown(heap, pos, i, n, max);
+    siftUp(heap, pos, pos[moved], max);
+  }
+
+  /**
+   * Finds the slot of the index of an element.
+   *
+   * @param x the element.
+   * @return the slot of the identifier of {@code x}, or -1 if {@code x} does not belong to this
+   *     set.
+   */
+  private int find(int x) {
+    final int mask = index.length - 1;
+    for (int i = HashIntSet.slot(x, mask); ; i = i + 1 & mask) {
+      if (index[i] == 0) return -1;
+      if (value[index[i] - 1] == x) return i;
+    }
+  }
+
+  /**
+   * Adds an identifier to the index.
+   *
+   * @param id the identifier, whose element is not in the index.
+   */
+  private void put(int id) {
+    final int mask = index.length - 1;
+    int i = HashIntSet.slot(value[id], mask);
+    while (index[i] != 0) i = i + 1 & mask;
+    index[i] = id + 1;
+  }
+
+  /**
+   * Removes an identifier from the index.
+   *
+   * @param i the slot of the identifier.
+   */
+  private void delete(int i) {
+    final int mask = index.length - 1;
+    // backward shift, as in HashIntSet
+    for (int j = i + 1 & mask; index[j] != 0; j = j + 1 & mask) {
+      final int s = HashIntSet.slot(value[index[j] - 1], mask);
+      if ((j - s & mask) >= (j - i & mask)) {
+        index[i] = index[j];
+        i = j;
+      }
+    }
+    index[i] = 0;
+  }
+
+  /**
+   * Doubles the capacity.
+   *
+   * @throws IllegalStateException if the capacity is already the maximum one.
+   */
+  private void grow() throws IllegalStateException {
+    if (value.length == MAX_CAPACITY) throw new IllegalStateException("Too many elements.");
+    final int capacity = 2 * value.length;
+    value = Arrays.copyOf(value, capacity);
+    minHeap = Arrays.copyOf(minHeap, capacity);
+    maxHeap = Arrays.copyOf(maxHeap, capacity);
+    minPos = Arrays.copyOf(minPos, capacity);
+    maxPos = Arrays.copyOf(maxPos, capacity);
+    index = new int[2 * capacity];
+    for (int id = 0; id < size; id++) put(id);
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return intIterator();
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt intIterator() {
+    return new PrimitiveIterator.OfInt() {
+
+      /** The identifier of the next element. */
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return value[next++];
+      }
+    };
+  }
+}
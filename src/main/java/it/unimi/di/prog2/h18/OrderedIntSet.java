@@ -21,33 +21,52 @@ along with this file.  If not, see <https://www.gnu.org/licenses/>.
 
 package it.unimi.di.prog2.h18;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
 
 /**
  * A concrete sorted {@code IntSet}.
  *
  * <p>The iterator of this set returns the elements in ascending order.
+ *
+ * <p>The elements are kept (unboxed) in a B+ tree: the leaves hold sorted arrays of elements and
+ * are linked in ascending order, while every node records the number of elements below it. In this
+ * way {@link #insert(int)}, {@link #remove(int)}, {@link #isIn(int)}, {@link #min()}, {@link
+ * #max()}, as well as the order statistics {@link #rank(int)} and {@link #select(int)}, take
+ * logarithmic time.
  */
 public class OrderedIntSet extends AbstractIntSet {
 
-  /** The set elements. */
-  private final List<Integer> elements;
+  /** The maximum number of elements of a leaf, and of children of an internal node. */
+  private static final int CAPACITY = 64;
+
+  /** The minimum number of elements of a leaf, and of children of an internal node (not root). */
+  private static final int MIN = CAPACITY / 2;
+
+  /** The root of the tree. */
+  private Node root;
 
   /*-
-   * AF(elements, size) = { elements.get(0), elements.get(1), ..., elements.get(size - 1) }
+   * AF(root) = the keys of the leaves of the tree rooted in root
    * RI:
    *   - super.RI
-   *   - elements != null and does not contain nulls,
-   *   - elements is sorted in ascending order.
+   *   - root != null and size == root.count,
+   *   - all the leaves have the same depth, and are linked (by next) in order,
+   *   - the keys of every leaf are strictly increasing, and those of a leaf are smaller than those
+   *     of the following one,
+   *   - every node but root has at least MIN (and at most CAPACITY) elements or children, an
+   *     internal root has at least 2 children,
+   *   - for every internal node, low[i] (for 0 < i < n) is greater than the keys below child[i - 1]
+   *     and not greater than the keys below child[i],
+   *   - count is the number of keys of a leaf, or the sum of the counts of the children.
    */
 
   /** Creates an empty set. */
   public OrderedIntSet() {
-    this.elements = new ArrayList<>();
+    root = new Leaf();
   }
 
   /**
@@ -58,36 +77,498 @@ public class OrderedIntSet extends AbstractIntSet {
    */
   public int max() throws NoSuchElementException {
     if (size == 0) throw new NoSuchElementException("An empty set has no maximum element.");
-    return elements.getLast();
+    Node node = root;
+    while (node instanceof Internal in) node = in.child[in.n - 1];
+    return ((Leaf) node).key[node.count - 1];
   }
 
   /**
    * Returns the minimum element of this set.
    *
-   * @return the maximum element of this set.
+   * @return the minimum element of this set.
    * @throws NoSuchElementException if this set is empty.
    */
   public int min() throws NoSuchElementException {
     if (size == 0) throw new NoSuchElementException("An empty set has no minimum element.");
-    return elements.get(0);
+    return firstLeaf().key[0];
+  }
+
+  /**
+   * Returns the number of elements of this set smaller than the given one.
+   *
+   * @param x the element.
+   * @return the number of elements smaller than {@code x}, that is the position of {@code x} in
+   *     the ascending order, if it belongs to this set.
+   */
+  public int rank(int x) {
+    int rank = 0;
+    Node node = root;
+    while (node instanceof Internal in) {
+      final int i = route(in, x);
+      for (int j = 0; j < i; j++) rank += in.child[j].count;
+      node = in.child[i];
+    }
+    final int i = Arrays.binarySearch(((Leaf) node).key, 0, node.count, x);
+    return rank + (i >= 0 ? i : -i - 1);
+  }
+
+  /**
+   * Returns the element of given position in the ascending order.
+   *
+   * @param index the position.
+   * @return the element such that {@link #rank(int)} is {@code index}.
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or not smaller than the size.
+   */
+  public int select(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("The index must be between 0 and the size (excluded).");
+    Node node = root;
+    while (node instanceof Internal in) {
+      int i = 0;
+      while (index >= in.child[i].count) index -= in.child[i++].count;
+      node = in.child[i];
+    }
+    return ((Leaf) node).key[index];
+  }
+
+  /**
+   * Returns the greatest element of this set not greater than the given one.
+   *
+   * @param x the element.
+   * @return the greatest element less than or equal to {@code x}.
+   * @throws NoSuchElementException if there is no such element.
+   */
+  public int floor(int x) throws NoSuchElementException {
+    final int rank = rank(x);
+    if (rank < size && select(rank) == x) return x;
+    if (rank == 0)
+      throw new NoSuchElementException("No element is less than or equal to " + x + ".");
+    return select(rank - 1);
+  }
+
+  /**
+   * Returns the least element of this set not smaller than the given one.
+   *
+   * @param x the element.
+   * @return the least element greater than or equal to {@code x}.
+   * @throws NoSuchElementException if there is no such element.
+   */
+  public int ceiling(int x) throws NoSuchElementException {
+    final int rank = rank(x);
+    if (rank == size)
+      throw new NoSuchElementException("No element is greater than or equal to " + x + ".");
+    return select(rank);
+  }
+
+  /**
+   * Returns the set of the elements of this set smaller than the given one.
+   *
+   * <p>The returned set is a copy, it is not affected by the changes to this set.
+   *
+   * @param to the (exclusive) upper bound.
+   * @return a new set with the elements less than {@code to}.
+   */
+  public OrderedIntSet headSet(int to) {
+    return copy(0, rank(to));
+  }
+
+  /**
+   * Returns the set of the elements of this set not smaller than the given one.
+   *
+   * <p>The returned set is a copy, it is not affected by the changes to this set.
+   *
+   * @param from the (inclusive) lower bound.
+   * @return a new set with the elements greater than or equal to {@code from}.
+   */
+  public OrderedIntSet tailSet(int from) {
+    return copy(rank(from), size);
+  }
+
+  /**
+   * Returns the set of the elements of this set in the given range.
+   *
+   * <p>The returned set is a copy, it is not affected by the changes to this set.
+   *
+   * @param from the (inclusive) lower bound.
+   * @param to the (exclusive) upper bound.
+   * @return a new set with the elements greater than or equal to {@code from} and less than {@code
+   *     to}.
+   * @throws IllegalArgumentException if {@code from} &gt; {@code to}.
+   */
+  public OrderedIntSet subSet(int from, int to) throws IllegalArgumentException {
+    if (from > to) throw new IllegalArgumentException("The lower bound exceeds the upper one.");
+    return copy(rank(from), rank(to));
+  }
+
+  /**
+   * Returns a set with the elements of given positions.
+   *
+   * @param from the (inclusive) first position.
+   * @param to the (exclusive) last position.
+   * @return a new set with the elements of position in [{@code from}, {@code to}).
+   */
+  private OrderedIntSet copy(int from, int to) {
+    final OrderedIntSet result = new OrderedIntSet();
+    if (from >= to) return result;
+    final int[] element = new int[to - from];
+    Node node = root;
+    int offset = from;
+    while (node instanceof Internal in) {
+      int i = 0;
+      while (offset >= in.child[i].count) offset -= in.child[i++].count;
+      node = in.child[i];
+    }
+    for (Leaf leaf = (Leaf) node; from < to; leaf = leaf.next, offset = 0) {
+      final int length = Math.min(leaf.count - offset, to - from);
+      System.arraycopy(leaf.key, offset, element, element.length - (to - from), length);
+      from += length;
+    }
+    result.root = build(element);
+    result.size = element.length;
+    return result;
+  }
+
+  /**
+   * Builds a tree containing the given elements.
+   *
+   * <p>The elements are evenly distributed among the leaves, and these among the internal nodes.
+   *
+   * @param element the elements, in strictly increasing order (not empty).
+   * @return the root of the tree.
+   */
+  private static Node build(int[] element) {
+    final int n = element.length;
+    Node[] level = new Node[(n + CAPACITY - 1) / CAPACITY];
+    Leaf previous = null;
+    for (int j = 0, from = 0; j < level.length; j++) {
+      final int to = (int) ((long) n * (j + 1) / level.length);
+      final Leaf leaf = new Leaf();
+      System.arraycopy(element, from, leaf.key, 0, to - from);
+      leaf.count = to - from;
+      if (previous != null) previous.next = leaf;
+      level[j] = previous = leaf;
+      from = to;
+    }
+    while (level.length > 1) {
+      final Node[] up = new Node[(level.length + CAPACITY - 1) / CAPACITY];
+      for (int j = 0, from = 0; j < up.length; j++) {
+        final int to = (int) ((long) level.length * (j + 1) / up.length);
+        final Internal in = new Internal();
+        for (int k = from; k < to; k++) in.insertAt(k - from, level[k], lowest(level[k]));
+        up[j] = in;
+        from = to;
+      }
+      level = up;
+    }
+    return level[0];
   }
 
   @Override
   public Iterator<Integer> iterator() {
-    return Collections.unmodifiableList(elements).iterator();
+    return intIterator();
+  }
+
+  @Override
+  protected int characteristics() {
+    return Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED;
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt intIterator() {
+    return new PrimitiveIterator.OfInt() {
+
+      /** The leaf containing the next element. */
+      private Leaf leaf = firstLeaf();
+
+      /** The position of the next element in {@link #leaf}. */
+      private int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return leaf != null && i < leaf.count;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        final int x = leaf.key[i++];
+        if (i == leaf.count) {
+          leaf = leaf.next;
+          i = 0;
+        }
+        return x;
+      }
+    };
+  }
+
+  @Override
+  public boolean isIn(int x) {
+    Node node = root;
+    while (node instanceof Internal in) node = in.child[route(in, x)];
+    return Arrays.binarySearch(((Leaf) node).key, 0, node.count, x) >= 0;
   }
 
   @Override
   public void insert(int x) {
-    final int index = Collections.binarySearch(elements, x);
-    if (index < 0) {
-      elements.add(-index - 1, x);
-      size++;
+    final Node split = insert(root, x);
+    if (split != null) {
+      final Internal in = new Internal();
+      in.insertAt(0, root, 0);
+      in.insertAt(1, split, lowest(split));
+      root = in;
     }
+    size = root.count;
   }
 
   @Override
   public void remove(int x) {
-    if (elements.remove(Integer.valueOf(x))) size--;
+    if (delete(root, x) && root instanceof Internal in && in.n == 1) root = in.child[0];
+    size = root.count;
+  }
+
+  /**
+   * Returns the first leaf.
+   *
+   * @return the leaf containing the minimum element.
+   */
+  private Leaf firstLeaf() {
+    Node node = root;
+    while (node instanceof Internal in) node = in.child[0];
+    return (Leaf) node;
+  }
+
+  /**
+   * Returns the child of an internal node where an element belongs.
+   *
+   * @param in the node.
+   * @param x the element.
+   * @return the largest {@code i} such that {@code i == 0} or {@code in.low[i] <= x}.
+   */
+  private static int route(Internal in, int x) {
+    final int i = Arrays.binarySearch(in.low, 1, in.n, x);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  /**
+   * Returns a lower bound to the keys below a node.
+   *
+   * @param node the node, just split or built.
+   * @return the least key of a leaf, the {@code low[0]} bound of an internal node.
+   */
+  private static int lowest(Node node) {
+    return node instanceof Leaf leaf ? leaf.key[0] : ((Internal) node).low[0];
+  }
+
+  /**
+   * Returns the number of elements of a leaf, or of children of an internal node.
+   *
+   * @param node the node.
+   * @return the number of entries of the node.
+   */
+  private static int entries(Node node) {
+    return node instanceof Internal in ? in.n : node.count;
+  }
+
+  /**
+   * Adds an element below a node.
+   *
+   * @param node the node.
+   * @param x the element.
+   * @return the node split from the right half of {@code node} if it overflows, or {@code null}.
+   */
+  private static Node insert(Node node, int x) {
+    if (node instanceof Leaf leaf) {
+      int i = Arrays.binarySearch(leaf.key, 0, leaf.count, x);
+      if (i >= 0) return null;
+      i = -i - 1;
+      if (leaf.count < CAPACITY) {
+        leaf.insertAt(i, x);
+        return null;
+      }
+      final Leaf right = new Leaf();
+      System.arraycopy(leaf.key, MIN, right.key, 0, CAPACITY - MIN);
+      right.count = CAPACITY - MIN;
+      leaf.count = MIN;
+      right.next = leaf.next;
+      leaf.next = right;
+      if (i <= MIN) leaf.insertAt(i, x);
+      else right.insertAt(i - MIN, x);
+      return right;
+    }
+    final Internal in = (Internal) node;
+    final int i = route(in, x);
+    final Node child = in.child[i];
+    final int before = child.count;
+    final Node split = insert(child, x);
+    in.count += child.count - before; // the count of split is added by insertAt
+    if (split == null) return null;
+    if (in.n < CAPACITY) {
+      in.insertAt(i + 1, split, lowest(split));
+      return null;
+    }
+    final Internal right = new Internal();
+    for (int j = MIN; j < CAPACITY; j++) right.insertAt(j - MIN, in.child[j], in.low[j]);
+    in.truncate(MIN);
+    if (i + 1 <= MIN) in.insertAt(i + 1, split, lowest(split));
+    else right.insertAt(i + 1 - MIN, split, lowest(split));
+    return right;
+  }
+
+  /**
+   * Removes an element below a node.
+   *
+   * @param node the node.
+   * @param x the element.
+   * @return whether the element was present.
+   */
+  private static boolean delete(Node node, int x) {
+    if (node instanceof Leaf leaf) {
+      final int i = Arrays.binarySearch(leaf.key, 0, leaf.count, x);
+      if (i < 0) return false;
+      System.arraycopy(leaf.key, i + 1, leaf.key, i, --leaf.count - i);
+      return true;
+    }
+    final Internal in = (Internal) node;
+    final int i = route(in, x);
+    if (!delete(in.child[i], x)) return false;
+    in.count--;
+    if (entries(in.child[i]) < MIN) rebalance(in, i);
+    return true;
+  }
+
+  /**
+   * Restores the minimum occupancy of a child, merging it with a sibling or moving entries from it.
+   *
+   * @param parent the parent, with at least two children.
+   * @param i the index of the child with less than {@link #MIN} entries.
+   */
+  private static void rebalance(Internal parent, int i) {
+    final int l = i > 0 ? i - 1 : i, r = l + 1;
+    if (parent.child[l] instanceof Leaf left) {
+      final Leaf right = (Leaf) parent.child[r];
+      final int total = left.count + right.count;
+      if (total <= CAPACITY) {
+        System.arraycopy(right.key, 0, left.key, left.count, right.count);
+        left.count = total;
+        left.next = right.next;
+        parent.removeAt(r);
+      } else {
+        final int[] key = Arrays.copyOf(left.key, total);
+        System.arraycopy(right.key, 0, key, left.count, right.count);
+        left.count = total / 2;
+        right.count = total - left.count;
+        System.arraycopy(key, 0, left.key, 0, left.count);
+        System.arraycopy(key, left.count, right.key, 0, right.count);
+        parent.low[r] = right.key[0];
+      }
+      return;
+    }
+    final Internal left = (Internal) parent.child[l], right = (Internal) parent.child[r];
+    final int total = left.n + right.n;
+    final Node[] child = Arrays.copyOf(left.child, total);
+    final int[] low = Arrays.copyOf(left.low, total);
+    System.arraycopy(right.child, 0, child, left.n, right.n);
+    System.arraycopy(right.low, 0, low, left.n, right.n);
+    low[left.n] = parent.low[r];
+    left.truncate(0);
+    right.truncate(0);
+    final int half = total <= CAPACITY ? total : total / 2;
+    for (int j = 0; j < half; j++) left.insertAt(j, child[j], low[j]);
+    if (half == total) parent.removeAt(r);
+    else {
+      for (int j = half; j < total; j++) right.insertAt(j - half, child[j], low[j]);
+      parent.low[r] = low[half];
+    }
+  }
+
+  /** A node of the tree. */
+  private abstract static class Node {
+
+    /** The number of elements below this node. */
+    int count;
+
+    /** Builds a node. */
+    Node() {}
+  }
+
+  /** A leaf, holding the elements. */
+  private static class Leaf extends Node {
+
+    /** The elements, {@code key[0..count)} in increasing order. */
+    final int[] key = new int[CAPACITY];
+
+    /** The following leaf, or {@code null}. */
+    Leaf next;
+
+    /** Builds an empty leaf. */
+    Leaf() {}
+
+    /**
+     * Inserts an element.
+     *
+     * @param i the position of the element.
+     * @param x the element.
+     */
+    void insertAt(int i, int x) {
+      System.arraycopy(key, i, key, i + 1, count - i);
+      key[i] = x;
+      count++;
+    }
+  }
+
+  /** An internal node. */
+  private static class Internal extends Node {
+
+    /** The children, {@code child[0..n)}. */
+    final Node[] child = new Node[CAPACITY];
+
+    /** The lower bounds of the keys below the children, {@code low[0]} bounds the whole node. */
+    final int[] low = new int[CAPACITY];
+
+    /** The number of children. */
+    int n;
+
+    /** Builds an internal node without children. */
+    Internal() {}
+
+    /**
+     * Inserts a child.
+     *
+     * @param i the position of the child.
+     * @param node the child.
+     * @param bound the lower bound of the keys below the child.
+     */
+    void insertAt(int i, Node node, int bound) {
+      System.arraycopy(child, i, child, i + 1, n - i);
+      System.arraycopy(low, i, low, i + 1, n - i);
+      child[i] = node;
+      low[i] = bound;
+      count += node.count;
+      n++;
+    }
+
+    /**
+     * Removes a child (keeping the count, since its elements are moved to a sibling).
+     *
+     * @param i the position of the child.
+     */
+    void removeAt(int i) {
+      System.arraycopy(child, i + 1, child, i, n - i - 1);
+      System.arraycopy(low, i + 1, low, i, n - i - 1);
+      child[--n] = null;
+    }
+
+    /**
+     * Removes the last children.
+     *
+     * @param length the number of children to keep.
+     */
+    void truncate(int length) {
+      for (int j = length; j < n; j++) {
+        count -= child[j].count;
+        child[j] = null;
+      }
+      n = length;
+    }
   }
 }
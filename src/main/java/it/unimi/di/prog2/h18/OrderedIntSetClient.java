@@ -0,0 +1,91 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/** A class to test the queries of {@link OrderedIntSet}. */
+public class OrderedIntSetClient {
+
+  /** . */
+  private OrderedIntSetClient() {}
+
+  /**
+   * Tests the queries of {@link OrderedIntSet}.
+   *
+   * <p>This method reads from standard input a list of commands, one per line, applied to an
+   * initially empty set: {@code insert a b [s]} and {@code remove a b [s]} insert (or remove) the
+   * integers in \( [a, b] \) with step {@code s} (1, if missing), while {@code size}, {@code min},
+   * {@code max}, {@code rank x}, {@code select i}, {@code floor x}, {@code ceiling x}, {@code head
+   * to}, {@code tail from} and {@code sub from to} emit in the standard output the command followed
+   * by the result of the corresponding method (or {@code none}, if it throws an exception).
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final OrderedIntSet set = new OrderedIntSet();
+    try (Scanner sc = new Scanner(System.in)) {
+      while (sc.hasNextLine()) {
+        final String line = sc.nextLine().trim();
+        if (line.isEmpty()) continue;
+        final String[] token = line.split("\\s+");
+        final int[] arg = new int[token.length - 1];
+        for (int i = 0; i < arg.length; i++) arg[i] = Integer.parseInt(token[i + 1]);
+        if (token[0].equals("insert") || token[0].equals("remove")) {
+          final int step = arg.length > 2 ? arg[2] : 1;
+          for (long x = arg[0]; x <= arg[1]; x += step)
+            if (token[0].equals("insert")) set.insert((int) x);
+            else set.remove((int) x);
+        } else System.out.println(line + ": " + query(set, token[0], arg));
+      }
+    }
+  }
+
+  /**
+   * Performs a query on a set.
+   *
+   * @param set the set.
+   * @param query the name of the query.
+   * @param arg the arguments of the query.
+   * @return the textual representation of the result, or {@code none} if the query fails.
+   */
+  private static String query(OrderedIntSet set, String query, int[] arg) {
+    try {
+      return switch (query) {
+        case "size" -> Integer.toString(set.size());
+        case "min" -> Integer.toString(set.min());
+        case "max" -> Integer.toString(set.max());
+        case "rank" -> Integer.toString(set.rank(arg[0]));
+        case "select" -> Integer.toString(set.select(arg[0]));
+        case "floor" -> Integer.toString(set.floor(arg[0]));
+        case "ceiling" -> Integer.toString(set.ceiling(arg[0]));
+        case "head" -> set.headSet(arg[0]).toString();
+        case "tail" -> set.tailSet(arg[0]).toString();
+        case "sub" -> set.subSet(arg[0], arg[1]).toString();
+        default -> throw new IllegalArgumentException("Unknown query: " + query);
+      };
+    } catch (NoSuchElementException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      return "none";
+    }
+  }
+}
@@ -0,0 +1,859 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+
+/**
+ * A concrete sorted {@code IntSet} based on compressed bitmaps, in the style of <a
+ * href="https://roaringbitmap.org/">Roaring bitmaps</a>.
+ *
+ * <p>The elements are partitioned in <em>chunks</em> according to their upper 16 bits, and the
+ * lower 16 bits of the elements of every (non empty) chunk are stored in a <em>container</em> that
+ * is either a sorted array (for at most 4096 elements), a bitmap of \( 2^{16} \) bits, or a sorted
+ * list of runs of consecutive values, whichever is smaller. In this way large sets of clustered
+ * values take little space, and the set operations {@link #union(RoaringIntSet)}, {@link
+ * #intersect(RoaringIntSet)}, {@link #andNot(RoaringIntSet)} and {@link #xor(RoaringIntSet)}
+ * proceed chunk by chunk, merging arrays or combining bitmaps 64 bits at a time.
+ *
+ * <p>As for {@link OrderedIntSet}, the iterator of this set returns the elements in ascending
+ * order. Runs are created by the set operations and by {@link #optimize()}; the containers updated
+ * by {@link #insert(int)} and {@link #remove(int)} keep their kind (but for an array growing over
+ * 4096 elements, or a bitmap shrinking under such size).
+ */
+public class RoaringIntSet extends AbstractIntSet {
+
+  /** The number of {@code long}s in a bitmap. */
+  private static final int WORDS = 1 << 10;
+
+  /** The chunk keys, in increasing order. */
+  private int[] keys;
+
+  /** The containers, {@code containers[i]} is the one of {@code keys[i]}. */
+  private Container[] containers;
+
+  /** The number of chunks. */
+  private int count;
+
+  /*-
+   * AF(keys, containers, count) = { (keys[i] ^ 0x8000) << 16 | v | i < count, v in containers[i] }
+   * RI:
+   *   - super.RI
+   *   - keys != null, containers != null and count <= keys.length == containers.length,
+   *   - keys[0..count) is strictly increasing, with values in [0, 2^16),
+   *   - containers[0..count) are not null, valid and not empty,
+   *   - size is the sum of the cardinalities of containers[0..count).
+   *
+   * Observe that the key of x is (x >>> 16) ^ 0x8000, so that the order of the keys (as unsigned
+   * values) corresponds to the order of the elements (as signed values).
+   */
+
+  /** Creates an empty set. */
+  public RoaringIntSet() {
+    keys = new int[4];
+    containers = new Container[4];
+  }
+
+  /**
+   * Returns the key of the chunk of an element.
+   *
+   * @param x the element.
+   * @return the key of the chunk of {@code x}.
+   */
+  private static int key(int x) {
+    return x >>> 16 ^ 0x8000;
+  }
+
+  /**
+   * Returns the index of a chunk.
+   *
+   * @param key the key of the chunk.
+   * @return the index of the chunk, if present, otherwise \( -i - 1 \) where \( i \) is the index
+   *     where it should be inserted.
+   */
+  private int find(int key) {
+    return Arrays.binarySearch(keys, 0, count, key);
+  }
+
+  /**
+   * Adds a chunk after the last one.
+   *
+   * @param key the key, greater than the keys of the present chunks.
+   * @param c the container, not empty.
+   */
+  private void append(int key, Container c) {
+    if (count == keys.length) {
+      keys = Arrays.copyOf(keys, 2 * count);
+      containers = Arrays.copyOf(containers, 2 * count);
+    }
+    keys[count] = key;
+    containers[count++] = c;
+    size += c.cardinality();
+  }
+
+  @Override
+  public boolean isIn(int x) {
+    final int i = find(key(x));
+    return i >= 0 && containers[i].contains(x & 0xFFFF);
+  }
+
+  @Override
+  public void insert(int x) {
+    int i = find(key(x));
+    if (i < 0) {
+      i = -i - 1;
+      if (count == keys.length) {
+        keys = Arrays.copyOf(keys, 2 * count);
+        containers = Arrays.copyOf(containers, 2 * count);
+      }
+      System.arraycopy(keys, i, keys, i + 1, count - i);
+      System.arraycopy(containers, i, containers, i + 1, count - i);
+      keys[i] = key(x);
+      containers[i] = new ArrayContainer(new char[] {(char) x}, 1);
+      count++;
+      size++;
+      return;
+    }
+    final int before = containers[i].cardinality();
+    containers[i] = containers[i].add(x & 0xFFFF);
+    size += containers[i].cardinality() - before;
+  }
+
+  @Override
+  public void remove(int x) {
+    final int i = find(key(x));
+    if (i < 0) return;
+    final int before = containers[i].cardinality();
+    containers[i] = containers[i].remove(x & 0xFFFF);
+    size -= before - containers[i].cardinality();
+    if (containers[i].cardinality() == 0) {
+      System.arraycopy(keys, i + 1, keys, i, count - i - 1);
+      System.arraycopy(containers, i + 1, containers, i, count - i - 1);
+      containers[--count] = null;
+    }
+  }
+
+  /**
+   * Returns the cardinality of this set.
+   *
+   * <p>This is the same as {@link #size()}, it is kept up to date by every operation.
+   *
+   * @return the size of this set.
+   */
+  public int cardinality() {
+    return size;
+  }
+
+  /**
+   * Returns the minimum element of this set.
+   *
+   * @return the minimum element of this set.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int min() throws NoSuchElementException {
+    if (size == 0) throw new NoSuchElementException("An empty set has no minimum element.");
+    return (keys[0] ^ 0x8000) << 16 | containers[0].nextValue(0);
+  }
+
+  /**
+   * Returns the maximum element of this set.
+   *
+   * @return the maximum element of this set.
+   * @throws NoSuchElementException if this set is empty.
+   */
+  public int max() throws NoSuchElementException {
+    if (size == 0) throw new NoSuchElementException("An empty set has no maximum element.");
+    return (keys[count - 1] ^ 0x8000) << 16 | containers[count - 1].last();
+  }
+
+  /**
+   * Converts every container to the smallest representation among array, bitmap and runs.
+   *
+   * <p>This is useful after many insertions of consecutive values, that are stored in arrays or
+   * bitmaps but would take less space as runs.
+   */
+  public void optimize() {
+    for (int i = 0; i < count; i++) containers[i] = fromWords(containers[i].words().clone());
+  }
+
+  /**
+   * Returns the union of this set and another one.
+   *
+   * @param other the other set.
+   * @return a new set containing the elements that belong to this or to the other set.
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  public RoaringIntSet union(RoaringIntSet other) throws NullPointerException {
+    return combine(other, Op.OR);
+  }
+
+  /**
+   * Returns the intersection of this set and another one.
+   *
+   * @param other the other set.
+   * @return a new set containing the elements that belong both to this and to the other set.
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  public RoaringIntSet intersect(RoaringIntSet other) throws NullPointerException {
+    return combine(other, Op.AND);
+  }
+
+  /**
+   * Returns the difference of this set and another one.
+   *
+   * @param other the other set.
+   * @return a new set containing the elements of this set that do not belong to the other set.
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  public RoaringIntSet andNot(RoaringIntSet other) throws NullPointerException {
+    return combine(other, Op.AND_NOT);
+  }
+
+  /**
+   * Returns the symmetric difference of this set and another one.
+   *
+   * @param other the other set.
+   * @return a new set containing the elements that belong to exactly one among this and the other
+   *     set.
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  public RoaringIntSet xor(RoaringIntSet other) throws NullPointerException {
+    return combine(other, Op.XOR);
+  }
+
+  /**
+   * Combines this set and another one chunk by chunk.
+   *
+   * @param other the other set.
+   * @param op the operation.
+   * @return the new set.
+   * @throws NullPointerException if {@code other} is {@code null}.
+   */
+  private RoaringIntSet combine(RoaringIntSet other, Op op) throws NullPointerException {
+    Objects.requireNonNull(other, "The set must not be null.");
+    final RoaringIntSet result = new RoaringIntSet();
+    int i = 0, j = 0;
+    while (i < count || j < other.count) {
+      final int ki = i < count ? keys[i] : Integer.MAX_VALUE;
+      final int kj = j < other.count ? other.keys[j] : Integer.MAX_VALUE;
+      final Container a = ki <= kj ? containers[i++] : null;
+      final Container b = kj <= ki ? other.containers[j++] : null;
+      final Container c = combine(a, b, op);
+      if (c != null) result.append(Math.min(ki, kj), c);
+    }
+    return result;
+  }
+
+  /**
+   * Combines two containers.
+   *
+   * @param a the first container, or {@code null} if the chunk is empty.
+   * @param b the second container, or {@code null} if the chunk is empty.
+   * @param op the operation.
+   * @return a new container, or {@code null} if the result is empty.
+   */
+  private static Container combine(Container a, Container b, Op op) {
+    if (a == null || b == null) {
+      final Container c = a == null ? b : a;
+      return op.apply(a == null ? 0 : 1, b == null ? 0 : 1) != 0 ? c.copy() : null;
+    }
+    if (a instanceof ArrayContainer x && b instanceof ArrayContainer y) return merge(x, y, op);
+    final long[] wa = a.words(), wb = b.words(), r = new long[WORDS];
+    for (int i = 0; i < WORDS; i++) r[i] = op.apply(wa[i], wb[i]);
+    return fromWords(r);
+  }
+
+  /**
+   * Combines two array containers merging their values.
+   *
+   * @param a the first container.
+   * @param b the second container.
+   * @param op the operation.
+   * @return a new container, or {@code null} if the result is empty.
+   */
+  private static Container merge(ArrayContainer a, ArrayContainer b, Op op) {
+    final char[] r = new char[a.card + b.card];
+    int n = 0, i = 0, j = 0;
+    while (i < a.card || j < b.card) {
+      if (j == b.card || i < a.card && a.value[i] < b.value[j]) {
+        if (op.apply(1, 0) != 0) r[n++] = a.value[i];
+        i++;
+      } else if (i == a.card || b.value[j] < a.value[i]) {
+        if (op.apply(0, 1) != 0) r[n++] = b.value[j];
+        j++;
+      } else {
+        if (op.apply(1, 1) != 0) r[n++] = a.value[i];
+        i++;
+        j++;
+      }
+    }
+    if (n == 0) return null;
+    final ArrayContainer c = new ArrayContainer(r, n);
+    return n > ArrayContainer.MAX_SIZE ? fromWords(c.words()) : c;
+  }
+
+  /**
+   * Builds the smallest container for a bitmap.
+   *
+   * @param word the bitmap, that is used by the container (if a bitmap is the smallest one).
+   * @return a container with the values of the bitmap, or {@code null} if it is empty.
+   */
+  private static Container fromWords(long[] word) {
+    int card = 0, runs = 0;
+    long carry = 0;
+    for (long w : word) {
+      card += Long.bitCount(w);
+      runs += Long.bitCount(w & ~(w << 1 | carry)); // the bits starting a run
+      carry = w >>> 63;
+    }
+    if (card == 0) return null;
+    if (4 * runs < Math.min(2 * card, 8 * WORDS)) {
+      final RunContainer c = new RunContainer(runs);
+      for (int v = nextSetBit(word, 0); v >= 0; ) {
+        final int end = nextClearBit(word, v);
+        c.appendRun(v, end - 1);
+        v = end < 1 << 16 ? nextSetBit(word, end) : -1;
+      }
+      return c;
+    }
+    if (card > ArrayContainer.MAX_SIZE) return new BitmapContainer(word, card);
+    final char[] value = new char[card];
+    int n = 0;
+    for (int i = 0; i < WORDS; i++)
+      for (long w = word[i]; w != 0; w &= w - 1)
+        value[n++] = (char) (i << 6 | Long.numberOfTrailingZeros(w));
+    return new ArrayContainer(value, card);
+  }
+
+  /**
+   * Returns the first set bit of a bitmap following a given position.
+   *
+   * @param word the bitmap.
+   * @param from the position where to start, in \( [0, 2^{16}) \).
+   * @return the least position not less than {@code from} of a set bit, or -1 if there is none.
+   */
+  private static int nextSetBit(long[] word, int from) {
+    int i = from >>> 6;
+    long w = word[i] & -1L << from;
+    while (w == 0) {
+      if (++i == WORDS) return -1;
+      w = word[i];
+    }
+    return i << 6 | Long.numberOfTrailingZeros(w);
+  }
+
+  /**
+   * Returns the first clear bit of a bitmap following a given position.
+   *
+   * @param word the bitmap.
+   * @param from the position where to start, in \( [0, 2^{16}) \).
+   * @return the least position not less than {@code from} of a clear bit, or \( 2^{16} \) if there
+   *     is none.
+   */
+  private static int nextClearBit(long[] word, int from) {
+    int i = from >>> 6;
+    long w = ~word[i] & -1L << from;
+    while (w == 0) {
+      if (++i == WORDS) return 1 << 16;
+      w = ~word[i];
+    }
+    return i << 6 | Long.numberOfTrailingZeros(w);
+  }
+
+  @Override
+  public Iterator<Integer> iterator() {
+    return intIterator();
+  }
+
+  @Override
+  protected int characteristics() {
+    return Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.SORTED;
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt intIterator() {
+    return new PrimitiveIterator.OfInt() {
+
+      /** The index of the current chunk. */
+      private int k = 0;
+
+      /** The lower 16 bits of the next element, or -1 if there are no more elements. */
+      private int low = count > 0 ? containers[0].nextValue(0) : -1;
+
+      @Override
+      public boolean hasNext() {
+        return low >= 0;
+      }
+
+      @Override
+      public int nextInt() {
+        if (!hasNext()) throw new NoSuchElementException();
+        final int x = (keys[k] ^ 0x8000) << 16 | low;
+        low = low < 0xFFFF ? containers[k].nextValue(low + 1) : -1;
+        if (low < 0 && ++k < count) low = containers[k].nextValue(0);
+        return x;
+      }
+    };
+  }
+
+  /** The set operations, acting on the bits of {@code long}s. */
+  private enum Op {
+    /** The union. */
+    OR,
+    /** The intersection. */
+    AND,
+    /** The difference. */
+    AND_NOT,
+    /** The symmetric difference. */
+    XOR;
+
+    /**
+     * Applies this operation.
+     *
+     * @param a the first operand.
+     * @param b the second operand.
+     * @return the bitwise result.
+     */
+    long apply(long a, long b) {
+      return switch (this) {
+        case OR -> a | b;
+        case AND -> a & b;
+        case AND_NOT -> a & ~b;
+        case XOR -> a ^ b;
+      };
+    }
+  }
+
+  /**
+   * A mutable set of values in \( [0, 2^{16}) \).
+   *
+   * <p>The methods that modify a container return the container that must replace it, that is
+   * either the container itself or (if its representation has to change) a new one.
+   */
+  private abstract static class Container {
+
+    /** Builds a container. */
+    Container() {}
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the cardinality.
+     */
+    abstract int cardinality();
+
+    /**
+     * Tells whether a value belongs to this container.
+     *
+     * @param v the value.
+     * @return whether {@code v} belongs to this container.
+     */
+    abstract boolean contains(int v);
+
+    /**
+     * Adds a value.
+     *
+     * @param v the value.
+     * @return the container to use from now on.
+     */
+    abstract Container add(int v);
+
+    /**
+     * Removes a value.
+     *
+     * @param v the value.
+     * @return the container to use from now on.
+     */
+    abstract Container remove(int v);
+
+    /**
+     * Returns the least value not smaller than a given one.
+     *
+     * @param from the given value, in \( [0, 2^{16}) \).
+     * @return the least value not smaller than {@code from}, or -1 if there is none.
+     */
+    abstract int nextValue(int from);
+
+    /**
+     * Returns the largest value.
+     *
+     * @return the largest value of this (non empty) container.
+     */
+    abstract int last();
+
+    /**
+     * Returns the bitmap of the values.
+     *
+     * @return the bitmap of the values, that must not be modified.
+     */
+    abstract long[] words();
+
+    /**
+     * Returns a copy of this container.
+     *
+     * @return a copy.
+     */
+    abstract Container copy();
+  }
+
+  /** A container storing the values in a sorted array. */
+  private static class ArrayContainer extends Container {
+
+    /** The maximum number of values of an array container (that takes as much as a bitmap). */
+    static final int MAX_SIZE = 4096;
+
+    /** The values, in increasing order. */
+    private char[] value;
+
+    /** The number of values. */
+    private int card;
+
+    /*-
+     * AF(value, card) = { value[0], ..., value[card - 1] }
+     * RI: 0 < card <= min(value.length, MAX_SIZE), value[0..card) is strictly increasing.
+     */
+
+    /**
+     * Builds a container.
+     *
+     * @param value the values, in increasing order; the array is not copied.
+     * @param card the number of values.
+     */
+    ArrayContainer(char[] value, int card) {
+      this.value = value;
+      this.card = card;
+    }
+
+    @Override
+    int cardinality() {
+      return card;
+    }
+
+    @Override
+    boolean contains(int v) {
+      return Arrays.binarySearch(value, 0, card, (char) v) >= 0;
+    }
+
+    @Override
+    Container add(int v) {
+      int i = Arrays.binarySearch(value, 0, card, (char) v);
+      if (i >= 0) return this;
+      if (card == MAX_SIZE) return new BitmapContainer(words(), card).add(v);
+      i = -i - 1;
+      if (card == value.length) value = Arrays.copyOf(value, Math.min(MAX_SIZE, 2 * card + 2));
+      System.arraycopy(value, i, value, i + 1, card - i);
+      value[i] = (char) v;
+      card++;
+      return this;
+    }
+
+    @Override
+    Container remove(int v) {
+      final int i = Arrays.binarySearch(value, 0, card, (char) v);
+      if (i < 0) return this;
+      System.arraycopy(value, i + 1, value, i, card - i - 1);
+      card--;
+      return this;
+    }
+
+    @Override
+    int nextValue(int from) {
+      int i = Arrays.binarySearch(value, 0, card, (char) from);
+      if (i < 0) i = -i - 1;
+      return i < card ? value[i] : -1;
+    }
+
+    @Override
+    int last() {
+      return value[card - 1];
+    }
+
+    @Override
+    long[] words() {
+      final long[] word = new long[WORDS];
+      for (int i = 0; i < card; i++) word[value[i] >>> 6] |= 1L << value[i];
+      return word;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(value, card), card);
+    }
+  }
+
+  /** A container storing the values in a bitmap. */
+  private static class BitmapContainer extends Container {
+
+    /** The bitmap, {@code v} is present iff the bit {@code v % 64} of {@code word[v / 64]} is. */
+    private final long[] word;
+
+    /** The number of values. */
+    private int card;
+
+    /*-
+     * AF(word) = { 64 i + j | the bit j of word[i] is set }
+     * RI: word.length == WORDS, card is the number of bits set in word.
+     */
+
+    /**
+     * Builds a container.
+     *
+     * @param word the bitmap; the array is not copied.
+     * @param card the number of bits set in the bitmap.
+     */
+    BitmapContainer(long[] word, int card) {
+      this.word = word;
+      this.card = card;
+    }
+
+    @Override
+    int cardinality() {
+      return card;
+    }
+
+    @Override
+    boolean contains(int v) {
+      return (word[v >>> 6] & 1L << v) != 0;
+    }
+
+    @Override
+    Container add(int v) {
+      final long w = word[v >>> 6];
+      word[v >>> 6] = w | 1L << v;
+      if (w != word[v >>> 6]) card++;
+      return this;
+    }
+
+    @Override
+    Container remove(int v) {
+      final long w = word[v >>> 6];
+      word[v >>> 6] = w & ~(1L << v);
+      if (w == word[v >>> 6]) return this;
+      if (--card > ArrayContainer.MAX_SIZE) return this;
+      final Container c = fromWords(word);
+      return c != null ? c : new ArrayContainer(new char[0], 0);
+    }
+
+    @Override
+    int nextValue(int from) {
+      return nextSetBit(word, from);
+    }
+
+    @Override
+    int last() {
+      int i = WORDS - 1;
+      while (word[i] == 0) i--;
+      return i << 6 | 63 - Long.numberOfLeadingZeros(word[i]);
+    }
+
+    @Override
+    long[] words() {
+      return word;
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(word.clone(), card);
+    }
+  }
+
+  /** A container storing the values as a sorted list of runs of consecutive values. */
+  private static class RunContainer extends Container {
+
+    /** The first values of the runs. */
+    private char[] start;
+
+    /** The last values of the runs. */
+    private char[] end;
+
+    /** The number of runs. */
+    private int runs;
+
+    /** The number of values. */
+    private int card;
+
+    /*-
+     * AF(start, end, runs) = the union of [start[i], end[i]] for i < runs
+     * RI:
+     *   - start.length == end.length >= runs,
+     *   - start[i] <= end[i] and end[i] + 1 < start[i + 1] for every i (the runs are maximal),
+     *   - card is the sum of end[i] - start[i] + 1.
+     */
+
+    /**
+     * Builds an empty container.
+     *
+     * @param capacity the initial capacity, positive.
+     */
+    RunContainer(int capacity) {
+      start = new char[capacity];
+      end = new char[capacity];
+    }
+
+    /**
+     * Adds a run after the last one.
+     *
+     * @param s the first value of the run.
+     * @param e the last value of the run, greater than the last value plus one.
+     */
+    void appendRun(int s, int e) {
+      insertRun(runs, s, e);
+    }
+
+    /**
+     * Inserts a run.
+     *
+     * @param i the index where to insert the run.
+     * @param s the first value of the run.
+     * @param e the last value of the run.
+     */
+    private void insertRun(int i, int s, int e) {
+      if (runs == start.length) {
+        start = Arrays.copyOf(start, 2 * runs + 1);
+        end = Arrays.copyOf(end, 2 * runs + 1);
+      }
+      System.arraycopy(start, i, start, i + 1, runs - i);
+      System.arraycopy(end, i, end, i + 1, runs - i);
+      start[i] = (char) s;
+      end[i] = (char) e;
+      runs++;
+      card += e - s + 1;
+    }
+
+    /**
+     * Deletes a run.
+     *
+     * @param i the index of the run.
+     */
+    private void deleteRun(int i) {
+      card -= end[i] - start[i] + 1;
+      System.arraycopy(start, i + 1, start, i, runs - i - 1);
+      System.arraycopy(end, i + 1, end, i, runs - i - 1);
+      runs--;
+    }
+
+    /**
+     * Finds the run that may contain a value.
+     *
+     * @param v the value.
+     * @return the index of the last run starting not after {@code v}, or -1 if there is none.
+     */
+    private int find(int v) {
+      final int i = Arrays.binarySearch(start, 0, runs, (char) v);
+      return i >= 0 ? i : -i - 2;
+    }
+
+    @Override
+    int cardinality() {
+      return card;
+    }
+
+    @Override
+    boolean contains(int v) {
+      final int i = find(v);
+      return i >= 0 && v <= end[i];
+    }
+
+    @Override
+    Container add(int v) {
+      final int i = find(v);
+      if (i >= 0 && v <= end[i]) return this;
+      final boolean joinPrevious = i >= 0 && end[i] + 1 == v;
+      final boolean joinNext = i + 1 < runs && start[i + 1] == v + 1;
+      if (joinPrevious && joinNext) {
+        final int e = end[i + 1];
+        deleteRun(i + 1);
+        card += e - end[i];
+        end[i] = (char) e;
+      } else if (joinPrevious) {
+        end[i] = (char) v;
+        card++;
+      } else if (joinNext) {
+        start[i + 1] = (char) v;
+        card++;
+      } else insertRun(i + 1, v, v);
+      return this;
+    }
+
+    @Override
+    Container remove(int v) {
+      final int i = find(v);
+      if (i < 0 || v > end[i]) return this;
+      if (start[i] == end[i]) deleteRun(i);
+      else if (v == start[i] || v == end[i]) {
+        if (v == start[i]) start[i]++;
+        else end[i]--;
+        card--;
+      } else {
+        final int e = end[i];
+        end[i] = (char) (v - 1);
+        card -= e - v + 1;
+        insertRun(i + 1, v + 1, e);
+      }
+      return this;
+    }
+
+    @Override
+    int nextValue(int from) {
+      final int i = find(from);
+      if (i >= 0 && from <= end[i]) return from;
+      return i + 1 < runs ? start[i + 1] : -1;
+    }
+
+    @Override
+    int last() {
+      return end[runs - 1];
+    }
+
+    @Override
+    long[] words() {
+      final long[] word = new long[WORDS];
+      for (int i = 0; i < runs; i++) {
+        final int s = start[i], e = end[i];
+        final int ws = s >>> 6, we = e >>> 6;
+        final long first = -1L << s, lastMask = -1L >>> 63 - (e & 63);
+        if (ws == we) word[ws] |= first & lastMask;
+        else {
+          word[ws] |= first;
+          for (int w = ws + 1; w < we; w++) word[w] = -1L;
+          word[we] |= lastMask;
+        }
+      }
+      return word;
+    }
+
+    @Override
+    Container copy() {
+      final RunContainer c = new RunContainer(Math.max(runs, 1));
+      System.arraycopy(start, 0, c.start, 0, runs);
+      System.arraycopy(end, 0, c.end, 0, runs);
+      c.runs = runs;
+      c.card = card;
+      return c;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+
+Copyright 2024 Massimo Santini
+
+This file is part of "Programmazione 2 @ UniMI" teaching material.
+
+This is free software: you can redistribute it and/or modify
+it under the terms of the GNU General Public License as published by
+the Free Software Foundation, either version 3 of the License, or
+(at your option) any later version.
+
+This material is distributed in the hope that it will be useful,
+but WITHOUT ANY WARRANTY; without even the implied warranty of
+MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+GNU General Public License for more details.
+
+You should have received a copy of the GNU General Public License
+along with this file.  If not, see <https://www.gnu.org/licenses/>.
+
+*/
+
+package it.unimi.di.prog2.h18;
+
+import java.util.Scanner;
+import java.util.StringJoiner;
+
+/** A class to test {@link RoaringIntSet}. */
+public class RoaringIntSetClient {
+
+  /** . */
+  private RoaringIntSetClient() {}
+
+  /**
+   * Tests some methods of {@link RoaringIntSet}.
+   *
+   * <p>This method reads from standard input a list of commands: {@code A+ a b} and {@code A- a b}
+   * insert in (or remove from) the first set the integers in \( [a, b] \), {@code B+ a b} and
+   * {@code B- a b} do the same for the second set, and {@code optimize} optimizes both sets. Then
+   * it emits in the standard output the size, the minimum and the maximum of the two sets, of their
+   * union, intersection, difference and symmetric difference, followed by their elements (in
+   * iteration order, grouped in ranges of consecutive values).
+   *
+   * @param args not used.
+   */
+  public static void main(String[] args) {
+    final RoaringIntSet a = new RoaringIntSet(), b = new RoaringIntSet();
+    try (Scanner sc = new Scanner(System.in)) {
+      while (sc.hasNext()) {
+        final String command = sc.next();
+        if (command.equals("optimize")) {
+          a.optimize();
+          b.optimize();
+          continue;
+        }
+        final RoaringIntSet set = command.charAt(0) == 'A' ? a : b;
+        final int from = sc.nextInt(), to = sc.nextInt();
+        for (long x = from; x <= to; x++)
+          if (command.charAt(1) == '+') set.insert((int) x);
+          else set.remove((int) x);
+      }
+    }
+    print("A", a);
+    print("B", b);
+    print("A | B", a.union(b));
+    print("A & B", a.intersect(b));
+    print("A - B", a.andNot(b));
+    print("A ^ B", a.xor(b));
+  }
+
+  /**
+   * Emits a set in the standard output.
+   *
+   * @param name the name of the set.
+   * @param set the set.
+   */
+  private static void print(String name, RoaringIntSet set) {
+    final StringBuilder sb = new StringBuilder(name).append(": size=").append(set.cardinality());
+    if (set.cardinality() > 0)
+      sb.append(", min=").append(set.min()).append(", max=").append(set.max());
+    System.out.println(sb);
+    final StringJoiner ranges = new StringJoiner(", ", "[", "]");
+    long first = 1, last = 0; // the current range, initially empty
+    for (int x : set) {
+      if (first > last || x != last + 1) {
+        addRange(ranges, first, last);
+        first = x;
+      }
+      last = x;
+    }
+    addRange(ranges, first, last);
+    System.out.println(ranges);
+  }
+
+  /**
+   * Adds a range of consecutive values to a list, if not empty.
+   *
+   * @param ranges the list.
+   * @param first the first value of the range.
+   * @param last the last value of the range.
+   */
+  private static void addRange(StringJoiner ranges, long first, long last) {
+    if (first < last) ranges.add(first + ".." + last);
+    else if (first == last) ranges.add(Long.toString(first));
+  }
+}